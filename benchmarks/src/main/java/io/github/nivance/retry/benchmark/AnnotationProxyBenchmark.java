@@ -0,0 +1,112 @@
+package io.github.nivance.retry.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.client.RestTemplateCustomizer;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.retry.annotation.CircuitBreaker;
+import org.springframework.retry.annotation.Retryable;
+
+import io.github.nivance.retry.example.SpringRetryExampleApplication;
+import io.github.nivance.retry.example.service.RetryableService;
+
+/**
+ * Overhead of the {@code @EnableRetry} proxies on the success path. The application context is the
+ * real one with an in-process HTTP stub. {@code CircuitBreakerService.call()} fails half of the time
+ * after sleeping for a second, so breaker proxies are measured on {@link ProxyTargets}, whose methods
+ * carry the same annotations around a constant.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AnnotationProxyBenchmark {
+
+    private ConfigurableApplicationContext context;
+    private RetryableService retryableService;
+    private ProxyTargets proxyTargets;
+
+    @Setup
+    public void setUp() {
+        context = new SpringApplicationBuilder(SpringRetryExampleApplication.class, BenchmarkConfiguration.class)
+                .web(WebApplicationType.NONE)
+                .properties("logging.level.root=WARN")
+                .run();
+        retryableService = context.getBean(RetryableService.class);
+        proxyTargets = context.getBean(ProxyTargets.class);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public void retryable() {
+        retryableService.request();
+    }
+
+    @Benchmark
+    public int springCircuitBreaker() {
+        return proxyTargets.springCircuitBreaker();
+    }
+
+    @Benchmark
+    public int slidingWindowCircuitBreaker() {
+        return proxyTargets.slidingWindowCircuitBreaker();
+    }
+
+    @Benchmark
+    public int unproxied() {
+        return proxyTargets.unproxied();
+    }
+
+    @Configuration
+    static class BenchmarkConfiguration {
+
+        @Bean
+        RestTemplateCustomizer stubRequestFactory() {
+            return restTemplate -> restTemplate.setRequestFactory(new StubClientHttpRequestFactory());
+        }
+
+        @Bean
+        ProxyTargets proxyTargets() {
+            return new ProxyTargets();
+        }
+    }
+
+    public static class ProxyTargets {
+
+        @CircuitBreaker(maxAttempts = 2, openTimeout = 5000L, resetTimeout = 10000L, label = "benchmark")
+        public int springCircuitBreaker() {
+            return 1;
+        }
+
+        @Retryable(interceptor = "circuitBreakerInterceptor")
+        public int slidingWindowCircuitBreaker() {
+            return 1;
+        }
+
+        public int unproxied() {
+            return 1;
+        }
+    }
+
+}
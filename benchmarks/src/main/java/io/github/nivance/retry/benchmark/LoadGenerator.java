@@ -0,0 +1,217 @@
+package io.github.nivance.retry.benchmark;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.client.methods.HttpPost;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.util.EntityUtils;
+import org.slf4j.LoggerFactory;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+
+import io.github.nivance.retry.example.support.LogLinearHistogram;
+
+/**
+ * Drives a running application and reports throughput, latency percentiles and upstream
+ * amplification per path, e.g.
+ * <pre>
+ * java -cp benchmarks/target/benchmarks.jar io.github.nivance.retry.benchmark.LoadGenerator \
+ *     --mode=open --rate=200 --duration=60s --paths=/retryable,/circuitBreaker
+ * </pre>
+ * In {@code closed} mode {@code --concurrency} workers send the next request as soon as the previous
+ * one returned, so a slow server also slows down the load. In {@code open} mode requests are sent at
+ * a fixed {@code --rate} no matter how the server copes, and latency is measured from when a request
+ * was due rather than when it was sent, so queueing in the generator is not hidden.
+ * <p>
+ * Amplification is read from the application's {@code /stats/retries} and {@code /stats/faults}
+ * before and after each path: retry attempts per request, and requests to {@code /unstable} per
+ * request. The latter is only non-zero with {@code retry.upstream.unstable-url} pointing at
+ * {@code /unstable}.
+ */
+public class LoadGenerator {
+
+    private static final TypeReference<Map<String, Map<String, Long>>> RETRY_STATISTICS = new TypeReference<Map<String, Map<String, Long>>>() {
+    };
+    private static final TypeReference<Map<String, Long>> FAULT_STATISTICS = new TypeReference<Map<String, Long>>() {
+    };
+
+    private final String target;
+    private final boolean open;
+    private final int concurrency;
+    private final int rate;
+    private final Duration duration;
+    private final CloseableHttpClient client;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    LoadGenerator(String target, boolean open, int concurrency, int rate, Duration duration) {
+        this.target = target;
+        this.open = open;
+        this.concurrency = concurrency;
+        this.rate = rate;
+        this.duration = duration;
+        int timeout = (int) TimeUnit.SECONDS.toMillis(60);
+        this.client = HttpClients.custom()
+                .setMaxConnTotal(concurrency * 2)
+                .setMaxConnPerRoute(concurrency * 2)
+                .setDefaultRequestConfig(RequestConfig.custom().setConnectTimeout(timeout).setSocketTimeout(timeout).build())
+                .build();
+    }
+
+    public static void main(String[] args) throws Exception {
+        // logback's default configuration logs every connection of the client at DEBUG, which costs
+        // the generator more CPU than the requests it sends
+        ((Logger) LoggerFactory.getLogger(Logger.ROOT_LOGGER_NAME)).setLevel(Level.INFO);
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+            if (!arg.startsWith("--") || separator < 0) {
+                throw new IllegalArgumentException("Expected --name=value, got " + arg);
+            }
+            options.put(arg.substring(2, separator), arg.substring(separator + 1));
+        }
+        String mode = options.getOrDefault("mode", "closed");
+        if (!"open".equals(mode) && !"closed".equals(mode)) {
+            throw new IllegalArgumentException("--mode must be open or closed");
+        }
+        List<String> paths = Arrays.asList(options.getOrDefault("paths", "/retryable,/circuitBreaker").split(","));
+        LoadGenerator generator = new LoadGenerator(options.getOrDefault("target", "http://localhost:8080"),
+                "open".equals(mode), Integer.parseInt(options.getOrDefault("concurrency", "50")),
+                Integer.parseInt(options.getOrDefault("rate", "100")),
+                Duration.parse("PT" + options.getOrDefault("duration", "30s").toUpperCase()));
+        try {
+            if (Boolean.parseBoolean(options.getOrDefault("reset-faults", "true"))) {
+                generator.resetFaults();
+            }
+            System.out.printf("%-20s %8s %8s %9s %8s %8s %8s %8s %8s %9s %9s%n", "path", "requests", "errors",
+                    "req/s", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms", "attempts", "upstream");
+            for (String path : paths) {
+                generator.run(path.trim()).print();
+            }
+        } finally {
+            generator.client.close();
+        }
+    }
+
+    Result run(String path) throws Exception {
+        Map<String, Map<String, Long>> retriesBefore = get("/stats/retries", RETRY_STATISTICS);
+        Map<String, Long> faultsBefore = get("/stats/faults", FAULT_STATISTICS);
+        Result result = new Result(path);
+        long started = System.nanoTime();
+        if (open) {
+            runOpen(path, result, started);
+        } else {
+            runClosed(path, result, started);
+        }
+        result.elapsedNanos = System.nanoTime() - started;
+        result.attempts = attempts(get("/stats/retries", RETRY_STATISTICS)) - attempts(retriesBefore);
+        result.upstreamRequests = get("/stats/faults", FAULT_STATISTICS).get("requests") - faultsBefore.get("requests");
+        return result;
+    }
+
+    private void runClosed(String path, Result result, long started) throws InterruptedException {
+        long end = started + duration.toNanos();
+        ExecutorService workers = Executors.newFixedThreadPool(concurrency);
+        for (int i = 0; i < concurrency; i++) {
+            workers.execute(() -> {
+                while (System.nanoTime() < end) {
+                    send(path, System.nanoTime(), result);
+                }
+            });
+        }
+        workers.shutdown();
+        workers.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+    }
+
+    private void runOpen(String path, Result result, long started) throws InterruptedException {
+        long interval = TimeUnit.SECONDS.toNanos(1) / rate;
+        long requests = duration.getSeconds() * rate + duration.getNano() / interval;
+        // requests queue up in the executor once all workers are busy, which is accounted for
+        // because latency is taken from the intended start
+        ExecutorService workers = Executors.newFixedThreadPool(concurrency);
+        for (long i = 0; i < requests; i++) {
+            long intendedStart = started + i * interval;
+            long wait;
+            while ((wait = intendedStart - System.nanoTime()) > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            workers.execute(() -> send(path, intendedStart, result));
+        }
+        workers.shutdown();
+        workers.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+    }
+
+    private void send(String path, long startNanos, Result result) {
+        boolean failed;
+        try (CloseableHttpResponse response = client.execute(new HttpGet(target + path))) {
+            EntityUtils.consume(response.getEntity());
+            failed = response.getStatusLine().getStatusCode() >= 400;
+        } catch (IOException e) {
+            failed = true;
+        }
+        result.latency.recordNanos(System.nanoTime() - startNanos);
+        if (failed) {
+            result.errors.increment();
+        }
+    }
+
+    private void resetFaults() throws IOException {
+        try (CloseableHttpResponse response = client.execute(new HttpPost(target + "/unstable/reset"))) {
+            EntityUtils.consume(response.getEntity());
+        }
+    }
+
+    private <T> T get(String path, TypeReference<T> type) throws IOException {
+        try (CloseableHttpResponse response = client.execute(new HttpGet(target + path))) {
+            return objectMapper.readValue(EntityUtils.toString(response.getEntity()), type);
+        }
+    }
+
+    private static long attempts(Map<String, Map<String, Long>> statistics) {
+        return statistics.values().stream().mapToLong(label -> label.getOrDefault("attempts", 0L)).sum();
+    }
+
+    static final class Result {
+
+        private final String path;
+        private final LogLinearHistogram latency = new LogLinearHistogram();
+        private final LongAdder errors = new LongAdder();
+        private long elapsedNanos;
+        private long attempts;
+        private long upstreamRequests;
+
+        private Result(String path) {
+            this.path = path;
+        }
+
+        private void print() {
+            long requests = latency.getCount();
+            double perRequest = requests == 0 ? 0d : 1d / requests;
+            System.out.printf("%-20s %8d %8d %9.1f %8.1f %8.1f %8.1f %8.1f %8.1f %9.2f %9.2f%n", path, requests,
+                    errors.sum(), requests * 1e9d / elapsedNanos, millis(50), millis(90), millis(99), millis(99.9),
+                    millis(100), attempts * perRequest, upstreamRequests * perRequest);
+        }
+
+        private double millis(double percentile) {
+            return latency.getPercentile(percentile) / 1000d;
+        }
+    }
+
+}
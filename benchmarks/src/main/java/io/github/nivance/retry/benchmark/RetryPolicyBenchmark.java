@@ -0,0 +1,85 @@
+package io.github.nivance.retry.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.retry.RetryCallback;
+import org.springframework.retry.RetryPolicy;
+import org.springframework.retry.RetryState;
+import org.springframework.retry.policy.CircuitBreakerRetryPolicy;
+import org.springframework.retry.policy.SimpleRetryPolicy;
+import org.springframework.retry.policy.TimeoutRetryPolicy;
+import org.springframework.retry.support.DefaultRetryState;
+import org.springframework.retry.support.RetryTemplate;
+
+import io.github.nivance.retry.example.support.SlidingWindowCircuitBreaker;
+import io.github.nivance.retry.example.support.SlidingWindowCircuitBreakerRetryPolicy;
+
+/**
+ * Success-path cost of the retry policies used in {@code SpringRetryTest}, plus the sliding-window
+ * breaker that replaced {@code @CircuitBreaker}. The spring circuit breaker only works with a
+ * {@link RetryState}, so it is measured the same way {@code retryCircuitBreakerTest} uses it.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RetryPolicyBenchmark {
+
+    @Param({"simple", "timeout", "circuitBreaker", "slidingWindowCircuitBreaker"})
+    private String policy;
+
+    private RetryTemplate retryTemplate;
+    private RetryState retryState;
+    private final RetryCallback<String, RuntimeException> callback = context -> "ok";
+
+    @Setup
+    public void setUp() {
+        retryTemplate = new RetryTemplate();
+        retryTemplate.setRetryPolicy(createPolicy());
+        if ("circuitBreaker".equals(policy)) {
+            retryState = new DefaultRetryState("circuit", false);
+        }
+    }
+
+    private RetryPolicy createPolicy() {
+        switch (policy) {
+            case "simple":
+                return new SimpleRetryPolicy(3);
+            case "timeout":
+                TimeoutRetryPolicy timeoutRetryPolicy = new TimeoutRetryPolicy();
+                timeoutRetryPolicy.setTimeout(1000);
+                return timeoutRetryPolicy;
+            case "circuitBreaker":
+                CircuitBreakerRetryPolicy circuitBreakerRetryPolicy = new CircuitBreakerRetryPolicy(new SimpleRetryPolicy(4));
+                circuitBreakerRetryPolicy.setOpenTimeout(1500);
+                circuitBreakerRetryPolicy.setResetTimeout(2000);
+                return circuitBreakerRetryPolicy;
+            case "slidingWindowCircuitBreaker":
+                return new SlidingWindowCircuitBreakerRetryPolicy(new SlidingWindowCircuitBreaker("benchmark", 100));
+            default:
+                throw new IllegalArgumentException("Unknown policy " + policy);
+        }
+    }
+
+    @Benchmark
+    public String execute() {
+        if (retryState != null) {
+            return retryTemplate.execute(callback, context -> "default", retryState);
+        }
+        return retryTemplate.execute(callback);
+    }
+
+}
@@ -0,0 +1,50 @@
+package io.github.nivance.retry.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.retry.RetryCallback;
+import org.springframework.retry.support.RetryTemplate;
+
+/**
+ * Raw {@link RetryTemplate#execute(RetryCallback)} overhead on the success path, against a direct
+ * call of the same callback.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RetryTemplateBenchmark {
+
+    private RetryTemplate retryTemplate;
+    private RetryCallback<Integer, RuntimeException> callback;
+    private int value;
+
+    @Setup
+    public void setUp() {
+        retryTemplate = new RetryTemplate();
+        callback = context -> value;
+    }
+
+    @Benchmark
+    public Integer baseline() {
+        return callback.doWithRetry(null);
+    }
+
+    @Benchmark
+    public Integer execute() {
+        return retryTemplate.execute(callback);
+    }
+
+}
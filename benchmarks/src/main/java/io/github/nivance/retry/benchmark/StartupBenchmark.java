@@ -0,0 +1,122 @@
+package io.github.nivance.retry.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.ResponseEntity;
+
+import io.github.nivance.retry.example.SpringRetryExampleApplication;
+import io.github.nivance.retry.example.service.RetryableService;
+
+/**
+ * Startup time of the application context and latency of the first calls through the retry
+ * proxies, with the build-time component index and with classpath scanning
+ * ({@code spring.index.ignore}). Every iteration starts a fresh context, so each sample is a cold
+ * first call. Spring reads the flag once per JVM, and every fork runs a single value of it.
+ * <p>
+ * Like {@link AnnotationProxyBenchmark}, the context has no web server and its {@code RestTemplate}s
+ * answer from {@link StubClientHttpRequestFactory}, so the first call never leaves the JVM. The
+ * upstream URL does not resolve, and a call that misses the stub fails the benchmark instead of
+ * measuring retries and backoffs.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@Fork(3)
+public class StartupBenchmark {
+
+    private static final String UPSTREAM_URL = "http://upstream.invalid/unstable";
+
+    @Benchmark
+    public ConfigurableApplicationContext startup(Stopped application) {
+        application.context = start();
+        return application.context;
+    }
+
+    @Benchmark
+    public int firstCall(Started application) {
+        ResponseEntity<String> response = application.retryableService.request();
+        if (!response.getStatusCode().is2xxSuccessful() || !"200".equals(response.getBody())) {
+            throw new IllegalStateException("First call was not answered by the stub: " + response);
+        }
+        return application.proxyTargets.springCircuitBreaker() + application.proxyTargets.slidingWindowCircuitBreaker();
+    }
+
+    private static ConfigurableApplicationContext start() {
+        return new SpringApplicationBuilder(SpringRetryExampleApplication.class, AnnotationProxyBenchmark.BenchmarkConfiguration.class)
+                .web(WebApplicationType.NONE)
+                .properties("logging.level.root=WARN", "retry.upstream.unstable-url=" + UPSTREAM_URL)
+                .run();
+    }
+
+    private static void useIndex(boolean index) {
+        System.setProperty("spring.index.ignore", String.valueOf(!index));
+    }
+
+    @State(Scope.Thread)
+    public static class Stopped {
+
+        @Param({"true", "false"})
+        public boolean index;
+
+        private ConfigurableApplicationContext context;
+
+        @Setup(Level.Trial)
+        public void useIndex() {
+            StartupBenchmark.useIndex(index);
+        }
+
+        @TearDown(Level.Iteration)
+        public void tearDown() {
+            if (context != null) {
+                context.close();
+                context = null;
+            }
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Started {
+
+        @Param({"true", "false"})
+        public boolean index;
+
+        private ConfigurableApplicationContext context;
+        private RetryableService retryableService;
+        private AnnotationProxyBenchmark.ProxyTargets proxyTargets;
+
+        @Setup(Level.Trial)
+        public void useIndex() {
+            StartupBenchmark.useIndex(index);
+        }
+
+        @Setup(Level.Iteration)
+        public void setUp() {
+            context = start();
+            retryableService = context.getBean(RetryableService.class);
+            proxyTargets = context.getBean(AnnotationProxyBenchmark.ProxyTargets.class);
+        }
+
+        @TearDown(Level.Iteration)
+        public void tearDown() {
+            context.close();
+        }
+    }
+
+}
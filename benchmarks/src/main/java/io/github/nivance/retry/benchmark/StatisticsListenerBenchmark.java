@@ -0,0 +1,81 @@
+package io.github.nivance.retry.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.retry.RetryCallback;
+import org.springframework.retry.RetryContext;
+import org.springframework.retry.RetryListener;
+import org.springframework.retry.stats.DefaultStatisticsRepository;
+import org.springframework.retry.stats.StatisticsListener;
+import org.springframework.retry.support.RetryTemplate;
+
+import io.github.nivance.retry.example.support.LatencyStatisticsListener;
+import io.github.nivance.retry.example.support.LatencyStatisticsRepository;
+
+/**
+ * Cost of statistics collection when every thread records under the same label.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class StatisticsListenerBenchmark {
+
+    @Param({"none", "default", "latency"})
+    private String repository;
+
+    private RetryTemplate retryTemplate;
+    private final RetryCallback<String, RuntimeException> callback = context -> {
+        context.setAttribute(RetryContext.NAME, "benchmark");
+        return "ok";
+    };
+
+    @Setup
+    public void setUp() {
+        retryTemplate = new RetryTemplate();
+        if ("default".equals(repository)) {
+            retryTemplate.setListeners(new RetryListener[]{new StatisticsListener(new DefaultStatisticsRepository())});
+        } else if ("latency".equals(repository)) {
+            retryTemplate.setListeners(new RetryListener[]{new LatencyStatisticsListener(new LatencyStatisticsRepository())});
+        }
+    }
+
+    @Benchmark
+    @Threads(1)
+    public String threads1() {
+        return retryTemplate.execute(callback);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public String threads4() {
+        return retryTemplate.execute(callback);
+    }
+
+    @Benchmark
+    @Threads(16)
+    public String threads16() {
+        return retryTemplate.execute(callback);
+    }
+
+    @Benchmark
+    @Threads(64)
+    public String threads64() {
+        return retryTemplate.execute(callback);
+    }
+
+}
@@ -0,0 +1,102 @@
+package io.github.nivance.retry.benchmark;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.AbstractClientHttpRequest;
+import org.springframework.http.client.ClientHttpRequest;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.ClientHttpResponse;
+
+/**
+ * Answers every request with {@code 200 OK} in-process, so that benchmarks measure the retry
+ * machinery instead of the network.
+ */
+class StubClientHttpRequestFactory implements ClientHttpRequestFactory {
+
+    private static final byte[] BODY = "200".getBytes(StandardCharsets.UTF_8);
+
+    @Override
+    public ClientHttpRequest createRequest(URI uri, HttpMethod httpMethod) {
+        return new StubClientHttpRequest(uri, httpMethod);
+    }
+
+    private static final class StubClientHttpRequest extends AbstractClientHttpRequest {
+
+        private final URI uri;
+        private final HttpMethod method;
+
+        private StubClientHttpRequest(URI uri, HttpMethod method) {
+            this.uri = uri;
+            this.method = method;
+        }
+
+        @Override
+        public String getMethodValue() {
+            return method.name();
+        }
+
+        @Override
+        public URI getURI() {
+            return uri;
+        }
+
+        @Override
+        protected OutputStream getBodyInternal(HttpHeaders headers) {
+            return new ByteArrayOutputStream();
+        }
+
+        @Override
+        protected ClientHttpResponse executeInternal(HttpHeaders headers) {
+            return new StubClientHttpResponse();
+        }
+    }
+
+    private static final class StubClientHttpResponse implements ClientHttpResponse {
+
+        private final HttpHeaders headers = new HttpHeaders();
+
+        private StubClientHttpResponse() {
+            headers.setContentType(MediaType.TEXT_PLAIN);
+            headers.setContentLength(BODY.length);
+        }
+
+        @Override
+        public HttpStatus getStatusCode() {
+            return HttpStatus.OK;
+        }
+
+        @Override
+        public int getRawStatusCode() {
+            return HttpStatus.OK.value();
+        }
+
+        @Override
+        public String getStatusText() {
+            return HttpStatus.OK.getReasonPhrase();
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return headers;
+        }
+
+        @Override
+        public InputStream getBody() {
+            return new ByteArrayInputStream(BODY);
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+}
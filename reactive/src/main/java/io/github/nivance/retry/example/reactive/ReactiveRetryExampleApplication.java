@@ -0,0 +1,13 @@
+package io.github.nivance.retry.example.reactive;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+
+@SpringBootApplication
+public class ReactiveRetryExampleApplication {
+
+	public static void main(String[] args) {
+		SpringApplication.run(ReactiveRetryExampleApplication.class, args);
+	}
+
+}
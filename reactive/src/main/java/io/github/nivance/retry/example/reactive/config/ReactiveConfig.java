@@ -0,0 +1,29 @@
+package io.github.nivance.retry.example.reactive.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import io.github.nivance.retry.example.config.CircuitBreakerConfig;
+import io.github.nivance.retry.example.support.SlidingWindowCircuitBreaker;
+
+@Configuration
+public class ReactiveConfig {
+
+    public static final String CIRCUIT_BREAKER_LABEL = "bircuitBreaker";
+
+    @Bean
+    public WebClient webClient(WebClient.Builder builder, @Value("${upstream.base-url}") String baseUrl) {
+        return builder.baseUrl(baseUrl).build();
+    }
+
+    /**
+     * Same settings as the servlet application's breaker, so both stacks trip under the same load.
+     */
+    @Bean
+    public SlidingWindowCircuitBreaker circuitBreaker() {
+        return CircuitBreakerConfig.newCircuitBreaker(CIRCUIT_BREAKER_LABEL);
+    }
+
+}
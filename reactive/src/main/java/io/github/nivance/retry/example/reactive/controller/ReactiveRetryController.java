@@ -0,0 +1,42 @@
+package io.github.nivance.retry.example.reactive.controller;
+
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import static org.springframework.http.HttpStatus.INTERNAL_SERVER_ERROR;
+import static org.springframework.http.HttpStatus.UNAUTHORIZED;
+import io.github.nivance.retry.example.reactive.service.ReactiveCircuitBreakerService;
+import io.github.nivance.retry.example.reactive.service.ReactiveRetryableService;
+import lombok.AllArgsConstructor;
+import reactor.core.publisher.Mono;
+
+@AllArgsConstructor
+@RestController
+public class ReactiveRetryController {
+
+    private ReactiveRetryableService retryableService;
+    private ReactiveCircuitBreakerService circuitBreakerService;
+
+    @GetMapping("/retryable")
+    public Mono<Integer> requestService() {
+        return retryableService.request().thenReturn(1);
+    }
+
+    @GetMapping("/circuitBreaker")
+    public Mono<Integer> callExternalService() {
+        return circuitBreakerService.call();
+    }
+
+    @GetMapping("/unstable/{status}")
+    public int unstableApi(@PathVariable int status) {
+        if (INTERNAL_SERVER_ERROR.value() == status) {
+            throw new ResponseStatusException(INTERNAL_SERVER_ERROR);
+        }
+        if (UNAUTHORIZED.value() == status) {
+            throw new ResponseStatusException(UNAUTHORIZED);
+        }
+        return status;
+    }
+}
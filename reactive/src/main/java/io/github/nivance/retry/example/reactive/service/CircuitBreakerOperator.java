@@ -0,0 +1,40 @@
+package io.github.nivance.retry.example.reactive.service;
+
+import java.util.function.Function;
+
+import io.github.nivance.retry.example.support.CircuitBreakerOpenException;
+import io.github.nivance.retry.example.support.SlidingWindowCircuitBreaker;
+import reactor.core.publisher.Mono;
+
+/**
+ * Guards a {@link Mono} with a {@link SlidingWindowCircuitBreaker}, for use with
+ * {@link Mono#transformDeferred(Function)}: every subscription asks for a permission and records its
+ * outcome and latency, without blocking.
+ */
+public final class CircuitBreakerOperator<T> implements Function<Mono<T>, Mono<T>> {
+
+    private final SlidingWindowCircuitBreaker circuitBreaker;
+
+    private CircuitBreakerOperator(SlidingWindowCircuitBreaker circuitBreaker) {
+        this.circuitBreaker = circuitBreaker;
+    }
+
+    public static <T> CircuitBreakerOperator<T> of(SlidingWindowCircuitBreaker circuitBreaker) {
+        return new CircuitBreakerOperator<>(circuitBreaker);
+    }
+
+    @Override
+    public Mono<T> apply(Mono<T> mono) {
+        return Mono.defer(() -> {
+            if (!circuitBreaker.tryAcquirePermission()) {
+                return Mono.error(new CircuitBreakerOpenException(circuitBreaker.getName()));
+            }
+            long start = System.nanoTime();
+            return mono
+                    .doOnSuccess(value -> circuitBreaker.onSuccess(System.nanoTime() - start))
+                    .doOnError(e -> circuitBreaker.onError(System.nanoTime() - start))
+                    .doOnCancel(circuitBreaker::releasePermission);
+        });
+    }
+
+}
@@ -0,0 +1,42 @@
+package io.github.nivance.retry.example.reactive.service;
+
+import java.time.Duration;
+
+import org.springframework.stereotype.Service;
+
+import io.github.nivance.retry.example.support.SlidingWindowCircuitBreaker;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Mono;
+
+/**
+ * Reactive counterpart of {@code CircuitBreakerService}: the simulated one second stall is a timer,
+ * not a sleeping thread.
+ */
+@Slf4j
+@Service
+@AllArgsConstructor
+public class ReactiveCircuitBreakerService {
+
+    private static final Duration FAILURE_DELAY = Duration.ofMillis(1000L);
+
+    private final SlidingWindowCircuitBreaker circuitBreaker;
+
+    public Mono<Integer> call() {
+        return Mono.defer(() -> {
+            log.info("Calling call method...");
+            if (Math.random() > 0.5) {
+                return Mono.delay(FAILURE_DELAY).then(Mono.<Integer>error(new RuntimeException("Exception happened")));
+            }
+            log.info("Success");
+            return Mono.just(1);
+        }).transformDeferred(CircuitBreakerOperator.of(circuitBreaker))
+                .onErrorResume(e -> recover());
+    }
+
+    private Mono<Integer> recover() {
+        log.error("Use recover, Fallback for call invoked");
+        return Mono.just(0);
+    }
+
+}
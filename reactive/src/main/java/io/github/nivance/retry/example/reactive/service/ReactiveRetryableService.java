@@ -0,0 +1,48 @@
+package io.github.nivance.retry.example.reactive.service;
+
+import java.time.Duration;
+
+import org.springframework.remoting.RemoteAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+/**
+ * Reactive counterpart of {@code RetryableService}: same upstream call, attempts and recovery, but
+ * retried with exponential backoff and jitter on the event loop instead of a sleeping thread.
+ */
+@Slf4j
+@Service
+@AllArgsConstructor
+public class ReactiveRetryableService {
+
+    private static final int MAX_ATTEMPTS = 3;
+    private static final Duration DELAY_TIME = Duration.ofMillis(1000);
+    private static final double JITTER = 0.5d;
+
+    private final WebClient webClient;
+
+    public Mono<Void> request() {
+        return webClient.get().uri("/unstable/500").retrieve().toBodilessEntity()
+                .onErrorMap(e -> {
+                    log.info("Try get unstable api failed");
+                    return new RemoteAccessException("500", e);
+                })
+                .retryWhen(Retry.backoff(MAX_ATTEMPTS - 1, DELAY_TIME)
+                        .jitter(JITTER)
+                        .filter(RemoteAccessException.class::isInstance))
+                .then()
+                .onErrorResume(e -> recover());
+    }
+
+    private Mono<Void> recover() {
+        return webClient.get().uri("/unstable/200").retrieve().bodyToMono(String.class)
+                .doOnNext(body -> log.info(String.format("Use recover, Response is %s", body)))
+                .then();
+    }
+
+}
@@ -0,0 +1,101 @@
+package io.github.nivance.retry.example.reactive;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import io.github.nivance.retry.example.reactive.config.ReactiveConfig;
+import io.github.nivance.retry.example.reactive.service.CircuitBreakerOperator;
+import io.github.nivance.retry.example.support.CircuitBreakerOpenException;
+import io.github.nivance.retry.example.support.SlidingWindowCircuitBreaker;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+public class CircuitBreakerOperatorTest {
+
+    private final AtomicInteger subscriptions = new AtomicInteger();
+
+    private SlidingWindowCircuitBreaker circuitBreaker() {
+        SlidingWindowCircuitBreaker circuitBreaker = new SlidingWindowCircuitBreaker("test", 10);
+        circuitBreaker.setMinimumNumberOfCalls(4);
+        circuitBreaker.setFailureRateThreshold(50);
+        circuitBreaker.setWaitDurationInOpenState(50, TimeUnit.MILLISECONDS);
+        circuitBreaker.setPermittedCallsInHalfOpenState(2);
+        return circuitBreaker;
+    }
+
+    private Mono<Integer> call(SlidingWindowCircuitBreaker circuitBreaker, boolean fail) {
+        return Mono.defer(() -> {
+            subscriptions.incrementAndGet();
+            return fail ? Mono.<Integer>error(new IllegalStateException("failed")) : Mono.just(1);
+        }).transformDeferred(CircuitBreakerOperator.of(circuitBreaker));
+    }
+
+    @Test
+    public void opensOnFailuresAndRejectsWithoutSubscribing() {
+        SlidingWindowCircuitBreaker circuitBreaker = circuitBreaker();
+        for (int i = 0; i < 4; i++) {
+            StepVerifier.create(call(circuitBreaker, true)).verifyError(IllegalStateException.class);
+        }
+        assertEquals(SlidingWindowCircuitBreaker.State.OPEN, circuitBreaker.getState());
+
+        StepVerifier.create(call(circuitBreaker, false)).verifyError(CircuitBreakerOpenException.class);
+        assertEquals(4, subscriptions.get());
+    }
+
+    @Test
+    public void closesAfterSuccessfulProbesInHalfOpenState() throws InterruptedException {
+        SlidingWindowCircuitBreaker circuitBreaker = circuitBreaker();
+        circuitBreaker.transitionToOpen();
+        Thread.sleep(60L);
+
+        StepVerifier.create(call(circuitBreaker, false)).expectNext(1).verifyComplete();
+        assertEquals(SlidingWindowCircuitBreaker.State.HALF_OPEN, circuitBreaker.getState());
+        StepVerifier.create(call(circuitBreaker, false)).expectNext(1).verifyComplete();
+
+        assertEquals(SlidingWindowCircuitBreaker.State.CLOSED, circuitBreaker.getState());
+    }
+
+    @Test
+    public void reopensWhenAProbeFails() throws InterruptedException {
+        SlidingWindowCircuitBreaker circuitBreaker = circuitBreaker();
+        circuitBreaker.transitionToOpen();
+        Thread.sleep(60L);
+
+        StepVerifier.create(call(circuitBreaker, true)).verifyError(IllegalStateException.class);
+        StepVerifier.create(call(circuitBreaker, true)).verifyError(IllegalStateException.class);
+
+        assertEquals(SlidingWindowCircuitBreaker.State.OPEN, circuitBreaker.getState());
+    }
+
+    @Test
+    public void cancelledProbeHandsItsPermissionBack() throws InterruptedException {
+        SlidingWindowCircuitBreaker circuitBreaker = circuitBreaker();
+        circuitBreaker.setPermittedCallsInHalfOpenState(1);
+        circuitBreaker.transitionToOpen();
+        Thread.sleep(60L);
+
+        StepVerifier.create(Mono.delay(Duration.ofMinutes(1)).transformDeferred(CircuitBreakerOperator.of(circuitBreaker)))
+                .expectSubscription()
+                .thenCancel()
+                .verify();
+
+        StepVerifier.create(call(circuitBreaker, false)).expectNext(1).verifyComplete();
+    }
+
+    @Test
+    public void usesTheSettingsOfTheServletApplication() {
+        SlidingWindowCircuitBreaker circuitBreaker = new ReactiveConfig().circuitBreaker();
+        for (int i = 0; i < 3; i++) {
+            StepVerifier.create(call(circuitBreaker, true)).verifyError(IllegalStateException.class);
+        }
+        assertEquals(SlidingWindowCircuitBreaker.State.CLOSED, circuitBreaker.getState());
+
+        StepVerifier.create(call(circuitBreaker, true)).verifyError(IllegalStateException.class);
+        assertEquals(SlidingWindowCircuitBreaker.State.OPEN, circuitBreaker.getState());
+    }
+
+}
@@ -0,0 +1,77 @@
+package io.github.nivance.retry.example.reactive;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import io.github.nivance.retry.example.reactive.service.ReactiveRetryableService;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+public class ReactiveRetryableServiceTest {
+
+    private final List<String> calls = new CopyOnWriteArrayList<>();
+    private final AtomicInteger failuresLeft = new AtomicInteger();
+
+    /**
+     * Answers {@code /unstable/500} with 500 while {@code failuresLeft} lasts, everything else with 200.
+     */
+    private ReactiveRetryableService service() {
+        WebClient webClient = WebClient.builder()
+                .baseUrl("http://upstream.invalid")
+                .exchangeFunction(request -> {
+                    String path = request.url().getPath();
+                    calls.add(path);
+                    HttpStatus status = path.equals("/unstable/500") && failuresLeft.getAndDecrement() > 0
+                            ? HttpStatus.INTERNAL_SERVER_ERROR : HttpStatus.OK;
+                    return Mono.just(ClientResponse.create(status).body("ok").build());
+                })
+                .build();
+        return new ReactiveRetryableService(webClient);
+    }
+
+    @Test
+    public void recoversAfterTheAttemptsAreExhausted() {
+        failuresLeft.set(Integer.MAX_VALUE);
+
+        StepVerifier.withVirtualTime(() -> service().request())
+                .thenAwait(Duration.ofMinutes(1))
+                .verifyComplete();
+
+        assertEquals(3, calls.stream().filter("/unstable/500"::equals).count());
+        assertEquals("/unstable/200", calls.get(calls.size() - 1));
+    }
+
+    @Test
+    public void doesNotRecoverOnceARetrySucceeds() {
+        failuresLeft.set(1);
+
+        StepVerifier.withVirtualTime(() -> service().request())
+                .thenAwait(Duration.ofMinutes(1))
+                .verifyComplete();
+
+        assertEquals(2, calls.size());
+        assertEquals("/unstable/500", calls.get(1));
+    }
+
+    @Test
+    public void backsOffBeforeRetrying() {
+        failuresLeft.set(Integer.MAX_VALUE);
+
+        StepVerifier.withVirtualTime(() -> service().request())
+                .expectSubscription()
+                .then(() -> assertEquals(1, calls.size()))
+                .thenAwait(Duration.ofMillis(400))
+                .then(() -> assertEquals(1, calls.size()))
+                .thenAwait(Duration.ofMinutes(1))
+                .verifyComplete();
+    }
+
+}
@@ -0,0 +1,62 @@
+package io.github.nivance.retry.example.config;
+
+import java.util.Collections;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.remoting.RemoteAccessException;
+import org.springframework.retry.RetryListener;
+import org.springframework.retry.policy.SimpleRetryPolicy;
+import org.springframework.retry.stats.StatisticsListener;
+import org.springframework.retry.support.RetryTemplate;
+
+import io.github.nivance.retry.example.support.AdaptiveBackOffPolicy;
+import io.github.nivance.retry.example.support.AttemptRecordingListener;
+import io.github.nivance.retry.example.support.CancellationListener;
+import io.github.nivance.retry.example.support.DeadlineRetryListener;
+import io.github.nivance.retry.example.support.RecoverAwareRetryInterceptor;
+import io.github.nivance.retry.example.support.RetryBudgetListener;
+import io.github.nivance.retry.example.support.Snapshottable;
+import io.github.nivance.retry.example.support.UpstreamStatusException;
+import io.github.nivance.retry.example.support.UpstreamStatusRetryPolicy;
+
+/**
+ * Adaptive backoff used by {@link io.github.nivance.retry.example.service.RetryableService#request()},
+ * selected with {@code @Retryable(interceptor = "retryableInterceptor")}. Error responses returned
+ * by the method are retried like thrown {@link RemoteAccessException}s, and non-retryable statuses
+ * go to recovery without further attempts.
+ */
+@Configuration
+public class AdaptiveBackOffConfig {
+
+    public static final String RETRYABLE_LABEL = "retryable";
+
+    private static final int MAX_ATTEMPTS = 3;
+    private static final long BASE_DELAY = 1000L;
+    private static final long MAX_DELAY = 10000L;
+    private static final long MAX_RETRY_AFTER = 30000L;
+
+    // not a bean of its own: every RetryListener bean would become a global listener of @Retryable
+    private final AdaptiveBackOffPolicy backOffPolicy = new AdaptiveBackOffPolicy(BASE_DELAY, MAX_DELAY, MAX_RETRY_AFTER);
+
+    @Bean
+    public MethodInterceptor retryableInterceptor(StatisticsListener statisticsListener, RetryBudgetListener retryBudgetListener,
+                                                  AttemptRecordingListener attemptRecordingListener, DeadlineRetryListener deadlineRetryListener,
+                                                  CancellationListener cancellationListener) {
+        AdaptiveBackOffPolicy backOffPolicy = this.backOffPolicy.withSleeper(cancellationListener);
+        RetryTemplate template = new RetryTemplate();
+        template.setRetryPolicy(new UpstreamStatusRetryPolicy(
+                new SimpleRetryPolicy(MAX_ATTEMPTS, Collections.singletonMap(RemoteAccessException.class, true))));
+        template.setBackOffPolicy(backOffPolicy);
+        template.setListeners(new RetryListener[]{cancellationListener, deadlineRetryListener, statisticsListener, attemptRecordingListener,
+                retryBudgetListener, backOffPolicy});
+        return new RecoverAwareRetryInterceptor(template, RETRYABLE_LABEL, UpstreamStatusException::ofResult);
+    }
+
+    @Bean
+    public Snapshottable retryableBackOffSnapshot() {
+        return backOffPolicy.snapshot(RETRYABLE_LABEL);
+    }
+
+}
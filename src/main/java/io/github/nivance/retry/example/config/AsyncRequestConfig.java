@@ -0,0 +1,39 @@
+package io.github.nivance.retry.example.config;
+
+import javax.annotation.PreDestroy;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.task.TaskExecutorBuilder;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Runs handlers returning a {@code Callable} on a bounded pool sized by {@code spring.task.execution.*}.
+ * The retry executors are {@code Executor} beans too, so Boot does not create its own task executor
+ * and Spring MVC would otherwise fall back to a thread per request. {@link VirtualThreadConfig} takes
+ * over when virtual threads are enabled.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "retry.virtual-threads", name = "enabled", havingValue = "false", matchIfMissing = true)
+public class AsyncRequestConfig implements WebMvcConfigurer {
+
+    private final ThreadPoolTaskExecutor requestExecutor;
+
+    public AsyncRequestConfig(TaskExecutorBuilder taskExecutorBuilder) {
+        this.requestExecutor = taskExecutorBuilder.build();
+        this.requestExecutor.initialize();
+    }
+
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        configurer.setTaskExecutor(requestExecutor);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        requestExecutor.shutdown();
+    }
+
+}
@@ -0,0 +1,21 @@
+package io.github.nivance.retry.example.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import io.github.nivance.retry.example.support.AttemptRecordingListener;
+import io.github.nivance.retry.example.support.AttemptRingBuffer;
+
+/**
+ * Per-attempt flight recorder events and the ring buffer behind {@code /stats/attempts}.
+ */
+@Configuration
+public class AttemptRecorderConfig {
+
+    @Bean
+    public AttemptRecordingListener attemptRecordingListener(@Value("${retry.recorder.capacity:4096}") int capacity) {
+        return new AttemptRecordingListener(new AttemptRingBuffer(capacity));
+    }
+
+}
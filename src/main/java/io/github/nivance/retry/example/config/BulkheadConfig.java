@@ -0,0 +1,31 @@
+package io.github.nivance.retry.example.config;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import io.github.nivance.retry.example.support.AdaptiveBulkhead;
+import io.github.nivance.retry.example.support.Bulkhead;
+import io.github.nivance.retry.example.support.BulkheadListener;
+import io.github.nivance.retry.example.support.SemaphoreBulkhead;
+
+/**
+ * Bulkheads that reject calls over a concurrency limit per label instead of letting them queue.
+ */
+@Configuration
+@EnableConfigurationProperties(BulkheadProperties.class)
+public class BulkheadConfig {
+
+    @Bean
+    public BulkheadListener bulkheadListener(BulkheadProperties properties) {
+        Map<String, Bulkhead> bulkheads = new HashMap<>();
+        properties.getLabels().forEach((label, bulkhead) -> bulkheads.put(label, bulkhead.getMode() == BulkheadProperties.Mode.ADAPTIVE
+                ? new AdaptiveBulkhead(bulkhead.getInitialLimit(), bulkhead.getMinLimit(), bulkhead.getMaxConcurrentCalls())
+                : new SemaphoreBulkhead(bulkhead.getMaxConcurrentCalls())));
+        return new BulkheadListener(bulkheads);
+    }
+
+}
@@ -0,0 +1,35 @@
+package io.github.nivance.retry.example.config;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Data;
+
+/**
+ * Bulkheads per retry label, e.g. {@code retry.bulkhead.labels.bircuitBreaker.mode=adaptive}.
+ */
+@Data
+@ConfigurationProperties(prefix = "retry.bulkhead")
+public class BulkheadProperties {
+
+    private Map<String, Bulkhead> labels = new LinkedHashMap<>();
+
+    public enum Mode {
+        SEMAPHORE, ADAPTIVE
+    }
+
+    @Data
+    public static class Bulkhead {
+
+        private Mode mode = Mode.SEMAPHORE;
+        /**
+         * Fixed limit in semaphore mode, upper bound of the limit in adaptive mode.
+         */
+        private int maxConcurrentCalls = 25;
+        private int initialLimit = 10;
+        private int minLimit = 1;
+    }
+
+}
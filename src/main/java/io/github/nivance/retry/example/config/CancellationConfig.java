@@ -0,0 +1,29 @@
+package io.github.nivance.retry.example.config;
+
+import java.time.Duration;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import io.github.nivance.retry.example.support.CancellationListener;
+import io.github.nivance.retry.example.support.RetryDrainLifecycle;
+
+/**
+ * Cancellation of retries whose caller is gone, and draining of in-flight retries on shutdown.
+ */
+@Configuration
+public class CancellationConfig {
+
+    @Bean
+    public CancellationListener cancellationListener() {
+        return new CancellationListener();
+    }
+
+    @Bean
+    public RetryDrainLifecycle retryDrainLifecycle(CancellationListener cancellationListener,
+                                                   @Value("${retry.drain.timeout:20s}") Duration timeout) {
+        return new RetryDrainLifecycle(cancellationListener, timeout);
+    }
+
+}
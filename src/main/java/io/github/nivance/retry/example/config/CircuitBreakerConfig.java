@@ -0,0 +1,101 @@
+package io.github.nivance.retry.example.config;
+
+import java.util.Arrays;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.retry.RetryListener;
+import org.springframework.retry.policy.SimpleRetryPolicy;
+import org.springframework.retry.stats.StatisticsListener;
+import org.springframework.retry.support.RetryTemplate;
+
+import io.github.nivance.retry.example.support.AttemptRecordingListener;
+import io.github.nivance.retry.example.support.BulkheadListener;
+import io.github.nivance.retry.example.support.CancellationListener;
+import io.github.nivance.retry.example.support.CircuitBreakerRegistry;
+import io.github.nivance.retry.example.support.DeadlineRetryListener;
+import io.github.nivance.retry.example.support.KeyedCircuitBreakerInterceptor;
+import io.github.nivance.retry.example.support.RecoverAwareRetryInterceptor;
+import io.github.nivance.retry.example.support.RetryBudgetListener;
+import io.github.nivance.retry.example.support.SlidingWindowCircuitBreaker;
+import io.github.nivance.retry.example.support.SlidingWindowCircuitBreakerRetryPolicy;
+
+/**
+ * Sliding-window circuit breaker used by
+ * {@link io.github.nivance.retry.example.service.CircuitBreakerService}.
+ */
+@Configuration
+public class CircuitBreakerConfig {
+
+    public static final String CIRCUIT_BREAKER_LABEL = "bircuitBreaker";
+    public static final String KEYED_CIRCUIT_BREAKER_LABEL = "bircuitBreaker.keyed";
+
+    private static final long IDLE_TIMEOUT_MINUTES = 10L;
+
+    @Bean
+    public SlidingWindowCircuitBreaker circuitBreaker() {
+        return newCircuitBreaker(CIRCUIT_BREAKER_LABEL);
+    }
+
+    @Bean
+    public MethodInterceptor circuitBreakerInterceptor(SlidingWindowCircuitBreaker circuitBreaker, BulkheadListener bulkheadListener,
+                                                       StatisticsListener statisticsListener, RetryBudgetListener retryBudgetListener,
+                                                       AttemptRecordingListener attemptRecordingListener,
+                                                       DeadlineRetryListener deadlineRetryListener, CancellationListener cancellationListener) {
+        RetryTemplate template = new RetryTemplate();
+        template.setRetryPolicy(new SlidingWindowCircuitBreakerRetryPolicy(circuitBreaker));
+        template.setListeners(new RetryListener[]{cancellationListener, deadlineRetryListener, bulkheadListener, statisticsListener,
+                attemptRecordingListener, retryBudgetListener});
+        return new RecoverAwareRetryInterceptor(template, CIRCUIT_BREAKER_LABEL);
+    }
+
+    /**
+     * One breaker per key, with the same settings as {@link #circuitBreaker()}; idle ones are evicted
+     * on the retry scheduler. Keys are limited to {@code retry.circuit-breaker.endpoints}, if set,
+     * and their breakers are named {@code bircuitBreaker.keyed:<key>}.
+     */
+    @Bean
+    public CircuitBreakerRegistry circuitBreakerRegistry(ScheduledExecutorService retryScheduler,
+                                                         @Value("${retry.circuit-breaker.endpoints:}") String[] endpoints,
+                                                         @Value("${retry.circuit-breaker.max-keyed:1000}") int maxKeyed) {
+        CircuitBreakerRegistry registry = new CircuitBreakerRegistry(KEYED_CIRCUIT_BREAKER_LABEL + ":",
+                CircuitBreakerConfig::newCircuitBreaker, maxKeyed, IDLE_TIMEOUT_MINUTES, TimeUnit.MINUTES);
+        registry.setKeys(Arrays.asList(endpoints));
+        retryScheduler.scheduleWithFixedDelay(registry::evictIdle, 1L, 1L, TimeUnit.MINUTES);
+        return registry;
+    }
+
+    /**
+     * Keyed by the first argument of the annotated method, e.g. the upstream endpoint.
+     */
+    @Bean
+    public MethodInterceptor keyedCircuitBreakerInterceptor(CircuitBreakerRegistry circuitBreakerRegistry, BulkheadListener bulkheadListener,
+                                                            StatisticsListener statisticsListener, RetryBudgetListener retryBudgetListener,
+                                                            AttemptRecordingListener attemptRecordingListener,
+                                                            DeadlineRetryListener deadlineRetryListener,
+                                                            CancellationListener cancellationListener) {
+        return new KeyedCircuitBreakerInterceptor(circuitBreakerRegistry, "#p0", KEYED_CIRCUIT_BREAKER_LABEL,
+                new SimpleRetryPolicy(1), cancellationListener, deadlineRetryListener, bulkheadListener, statisticsListener,
+                attemptRecordingListener, retryBudgetListener);
+    }
+
+    /**
+     * The settings of every breaker of the application, also used by the reactive module so both
+     * stacks trip under the same load.
+     */
+    public static SlidingWindowCircuitBreaker newCircuitBreaker(String name) {
+        SlidingWindowCircuitBreaker circuitBreaker = new SlidingWindowCircuitBreaker(name, 20);
+        circuitBreaker.setMinimumNumberOfCalls(4);
+        circuitBreaker.setFailureRateThreshold(50);
+        circuitBreaker.setSlowCallRateThreshold(50);
+        circuitBreaker.setSlowCallDurationThreshold(800, TimeUnit.MILLISECONDS);
+        circuitBreaker.setWaitDurationInOpenState(10, TimeUnit.SECONDS);
+        circuitBreaker.setPermittedCallsInHalfOpenState(2);
+        return circuitBreaker;
+    }
+
+}
@@ -0,0 +1,50 @@
+package io.github.nivance.retry.example.config;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.util.List;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import io.github.nivance.retry.example.support.ClusteredCircuitBreakers;
+import io.github.nivance.retry.example.support.SlidingWindowCircuitBreaker;
+import io.github.nivance.retry.example.support.UdpGossipTransport;
+
+/**
+ * Opt-in gossip of the {@code bircuitBreaker} state between instances, without any coordination
+ * service.
+ */
+@Configuration
+@ConditionalOnProperty(name = "retry.cluster.enabled", havingValue = "true")
+@EnableConfigurationProperties(ClusterProperties.class)
+public class ClusterConfig {
+
+    @Bean(destroyMethod = "close")
+    public UdpGossipTransport gossipTransport(ClusterProperties properties) throws IOException {
+        List<InetSocketAddress> peers = properties.getPeers().stream()
+                .map(peer -> {
+                    int separator = peer.lastIndexOf(':');
+                    return new InetSocketAddress(peer.substring(0, separator), Integer.parseInt(peer.substring(separator + 1)));
+                })
+                .collect(Collectors.toList());
+        return new UdpGossipTransport(new InetSocketAddress(properties.getBindAddress(), properties.getPort()), peers);
+    }
+
+    @Bean
+    public ClusteredCircuitBreakers clusteredCircuitBreakers(ClusterProperties properties, UdpGossipTransport gossipTransport,
+                                                             SlidingWindowCircuitBreaker circuitBreaker, ScheduledExecutorService retryScheduler) {
+        ClusteredCircuitBreakers cluster = new ClusteredCircuitBreakers(properties.getNodeId(), gossipTransport);
+        cluster.register(circuitBreaker);
+        cluster.start();
+        retryScheduler.scheduleWithFixedDelay(cluster::publishHeartbeats, properties.getHeartbeatIntervalMillis(),
+                properties.getHeartbeatIntervalMillis(), TimeUnit.MILLISECONDS);
+        return cluster;
+    }
+
+}
@@ -0,0 +1,32 @@
+package io.github.nivance.retry.example.config;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Data;
+
+/**
+ * Circuit breaker state sharing between instances, e.g.
+ * {@code retry.cluster.peers=localhost:7947,localhost:7948}.
+ */
+@Data
+@ConfigurationProperties(prefix = "retry.cluster")
+public class ClusterProperties {
+
+    private String nodeId = UUID.randomUUID().toString().substring(0, 8);
+    /**
+     * Interface the gossip port is bound to. Gossip is not authenticated, so it must only be
+     * reachable by the other instances.
+     */
+    private String bindAddress = "127.0.0.1";
+    private int port = 7946;
+    /**
+     * host:port of the other instances.
+     */
+    private List<String> peers = new ArrayList<>();
+    private long heartbeatIntervalMillis = 1000L;
+
+}
@@ -1,19 +1,182 @@
 package io.github.nivance.retry.example.config;
 
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.remoting.RemoteAccessException;
+import org.springframework.retry.RetryListener;
+import org.springframework.retry.backoff.ExponentialRandomBackOffPolicy;
+import org.springframework.retry.backoff.FixedBackOffPolicy;
+import org.springframework.retry.policy.SimpleRetryPolicy;
+import org.springframework.retry.stats.StatisticsListener;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
 import org.springframework.web.client.RestTemplate;
 
+import io.github.nivance.retry.example.support.AsyncRetryTemplate;
+import io.github.nivance.retry.example.support.AttemptRecordingListener;
+import io.github.nivance.retry.example.support.BatchRetryTemplate;
+import io.github.nivance.retry.example.support.BulkheadListener;
+import io.github.nivance.retry.example.support.CancellationListener;
+import io.github.nivance.retry.example.support.DeadlineRetryListener;
+import io.github.nivance.retry.example.support.HedgingTemplate;
+import io.github.nivance.retry.example.support.NonThrowingResponseErrorHandler;
+import io.github.nivance.retry.example.support.RetryAwareClientHttpRequestFactory;
+import io.github.nivance.retry.example.support.RetryBudgetListener;
+import io.github.nivance.retry.example.support.SingleFlight;
+import io.github.nivance.retry.example.support.UpstreamStatusException;
+import io.github.nivance.retry.example.support.UpstreamStatusRetryPolicy;
+import io.github.nivance.retry.example.support.VirtualThreads;
+
 /**
  * @author nivance
  */
 @Configuration
+@EnableConfigurationProperties(HttpClientProperties.class)
 public class Config {
 
+    private static final int ASYNC_RETRY_THREADS = 16;
+    private static final long ASYNC_BACKOFF_PERIOD = 1000L;
+    private static final int MAX_HEDGES = 2;
+    private static final double HEDGE_PERCENTILE = 95d;
+    private static final long MIN_HEDGE_DELAY = 10L;
+    private static final int BATCH_PARALLELISM = 8;
+    private static final long BATCH_INITIAL_BACKOFF = 500L;
+    private static final long BATCH_MAX_BACKOFF = 5000L;
+
+    @Bean
+    public RestTemplate restTemplate(RestTemplateBuilder builder, CloseableHttpClient httpClient, HttpClientProperties properties) {
+        return builder.requestFactory(() -> requestFactory(httpClient, properties)).build();
+    }
+
+    /**
+     * Same client as {@link #restTemplate}, but error responses are returned instead of thrown, so
+     * retries classify them without paying for an exception per 5xx.
+     */
+    @Bean
+    public RestTemplate statusRestTemplate(RestTemplateBuilder builder, CloseableHttpClient httpClient, HttpClientProperties properties) {
+        return builder.requestFactory(() -> requestFactory(httpClient, properties))
+                .errorHandler(new NonThrowingResponseErrorHandler())
+                .build();
+    }
+
+    @Bean(destroyMethod = "shutdown")
+    public PoolingHttpClientConnectionManager connectionManager(HttpClientProperties properties) {
+        PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager();
+        connectionManager.setMaxTotal(properties.getMaxTotal());
+        connectionManager.setDefaultMaxPerRoute(properties.getMaxPerRoute());
+        return connectionManager;
+    }
+
+    @Bean
+    public CloseableHttpClient httpClient(PoolingHttpClientConnectionManager connectionManager, HttpClientProperties properties) {
+        long maxKeepAlive = properties.getKeepAlive().toMillis();
+        return HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .setKeepAliveStrategy((response, context) -> {
+                    long keepAlive = DefaultConnectionKeepAliveStrategy.INSTANCE.getKeepAliveDuration(response, context);
+                    return keepAlive > 0 ? Math.min(keepAlive, maxKeepAlive) : maxKeepAlive;
+                })
+                .evictExpiredConnections()
+                .evictIdleConnections(properties.getIdleEviction().toMillis(), TimeUnit.MILLISECONDS)
+                .build();
+    }
+
+    @Bean
+    public SingleFlight<String, Void> retryableSingleFlight() {
+        return new SingleFlight<>();
+    }
+
+    private static RetryAwareClientHttpRequestFactory requestFactory(CloseableHttpClient httpClient, HttpClientProperties properties) {
+        RetryAwareClientHttpRequestFactory requestFactory = new RetryAwareClientHttpRequestFactory(httpClient, labelRequestConfigs(properties));
+        requestFactory.setConnectTimeout((int) properties.getConnectTimeout().toMillis());
+        requestFactory.setReadTimeout((int) properties.getReadTimeout().toMillis());
+        requestFactory.setConnectionRequestTimeout((int) properties.getConnectionRequestTimeout().toMillis());
+        return requestFactory;
+    }
+
+    private static Map<String, RequestConfig> labelRequestConfigs(HttpClientProperties properties) {
+        Map<String, RequestConfig> requestConfigs = new HashMap<>();
+        properties.getLabels().forEach((label, timeouts) -> requestConfigs.put(label, RequestConfig.custom()
+                .setConnectTimeout((int) (timeouts.getConnectTimeout() != null ? timeouts.getConnectTimeout() : properties.getConnectTimeout()).toMillis())
+                .setSocketTimeout((int) (timeouts.getReadTimeout() != null ? timeouts.getReadTimeout() : properties.getReadTimeout()).toMillis())
+                .setConnectionRequestTimeout((int) properties.getConnectionRequestTimeout().toMillis())
+                .build()));
+        return requestConfigs;
+    }
+
+    @Bean(destroyMethod = "shutdown")
+    public ScheduledExecutorService retryScheduler() {
+        return Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("retry-scheduler-"));
+    }
+
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService retryExecutor(@Value("${retry.virtual-threads.enabled:false}") boolean virtualThreads) {
+        if (virtualThreads) {
+            return VirtualThreads.newVirtualThreadPerTaskExecutor("retry-worker-");
+        }
+        return Executors.newFixedThreadPool(ASYNC_RETRY_THREADS, new CustomizableThreadFactory("retry-worker-"));
+    }
+
+    @Bean
+    public AsyncRetryTemplate asyncRetryTemplate(ScheduledExecutorService retryScheduler, ExecutorService retryExecutor,
+                                                 StatisticsListener statisticsListener, RetryBudgetListener retryBudgetListener,
+                                                 AttemptRecordingListener attemptRecordingListener, DeadlineRetryListener deadlineRetryListener,
+                                                 CancellationListener cancellationListener) {
+        AsyncRetryTemplate template = new AsyncRetryTemplate(retryScheduler, retryExecutor);
+        template.setRetryPolicy(new UpstreamStatusRetryPolicy(new SimpleRetryPolicy(SimpleRetryPolicy.DEFAULT_MAX_ATTEMPTS,
+                Collections.singletonMap(RemoteAccessException.class, true))));
+        FixedBackOffPolicy backOffPolicy = new FixedBackOffPolicy();
+        backOffPolicy.setBackOffPeriod(ASYNC_BACKOFF_PERIOD);
+        template.setBackOffPolicy(backOffPolicy);
+        template.setListeners(new RetryListener[]{cancellationListener, deadlineRetryListener, statisticsListener, attemptRecordingListener,
+                retryBudgetListener});
+        return template;
+    }
+
+    @Bean
+    public HedgingTemplate hedgingTemplate(ScheduledExecutorService retryScheduler, ExecutorService retryExecutor,
+                                           StatisticsListener statisticsListener, AttemptRecordingListener attemptRecordingListener,
+                                           DeadlineRetryListener deadlineRetryListener, CancellationListener cancellationListener) {
+        HedgingTemplate template = new HedgingTemplate(retryScheduler, retryExecutor);
+        template.setMaxHedges(MAX_HEDGES);
+        template.setHedgePercentile(HEDGE_PERCENTILE);
+        template.setMinHedgeDelay(MIN_HEDGE_DELAY);
+        template.setListeners(new RetryListener[]{cancellationListener, deadlineRetryListener, statisticsListener, attemptRecordingListener});
+        return template;
+    }
+
     @Bean
-    public RestTemplate restTemplate(RestTemplateBuilder builder) {
-        return builder.build();
+    public BatchRetryTemplate batchRetryTemplate(ScheduledExecutorService retryScheduler, ExecutorService retryExecutor,
+                                                 StatisticsListener statisticsListener, RetryBudgetListener retryBudgetListener,
+                                                 AttemptRecordingListener attemptRecordingListener, DeadlineRetryListener deadlineRetryListener,
+                                                 CancellationListener cancellationListener, BulkheadListener bulkheadListener) {
+        BatchRetryTemplate template = new BatchRetryTemplate(retryScheduler, retryExecutor);
+        template.setParallelism(BATCH_PARALLELISM);
+        template.setMaxAttempts(SimpleRetryPolicy.DEFAULT_MAX_ATTEMPTS);
+        ExponentialRandomBackOffPolicy backOffPolicy = new ExponentialRandomBackOffPolicy();
+        backOffPolicy.setInitialInterval(BATCH_INITIAL_BACKOFF);
+        backOffPolicy.setMaxInterval(BATCH_MAX_BACKOFF);
+        template.setBackOffPolicy(backOffPolicy);
+        template.setRetryable(throwable -> !(throwable instanceof UpstreamStatusException)
+                || ((UpstreamStatusException) throwable).isRetryable());
+        template.setListeners(new RetryListener[]{cancellationListener, deadlineRetryListener, bulkheadListener, statisticsListener,
+                attemptRecordingListener, retryBudgetListener});
+        return template;
     }
 
 }
@@ -0,0 +1,37 @@
+package io.github.nivance.retry.example.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import io.github.nivance.retry.example.support.Deadline;
+import io.github.nivance.retry.example.support.DeadlineInterceptor;
+import io.github.nivance.retry.example.support.DeadlineRetryListener;
+
+/**
+ * Deadlines taken from the {@value Deadline#HEADER} header of incoming requests, also for handlers
+ * returning a {@code Callable}, and applied to the retries they start.
+ */
+@Configuration
+public class DeadlineConfig implements WebMvcConfigurer {
+
+    private final DeadlineInterceptor deadlineInterceptor = new DeadlineInterceptor();
+
+    @Bean
+    public DeadlineRetryListener deadlineRetryListener() {
+        return new DeadlineRetryListener();
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(deadlineInterceptor);
+    }
+
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        configurer.registerCallableInterceptors(deadlineInterceptor);
+    }
+
+}
@@ -0,0 +1,60 @@
+package io.github.nivance.retry.example.config;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import io.github.nivance.retry.example.service.RetryableService;
+import io.github.nivance.retry.example.support.DurableRetryQueue;
+import io.github.nivance.retry.example.support.RetryQueueDrainer;
+
+/**
+ * Opt-in "retry later" mode: calls of {@link RetryableService} that exhausted their attempts are kept
+ * in a {@link DurableRetryQueue} on local disk and replayed in the background.
+ */
+@Configuration
+@ConditionalOnProperty(name = "retry.durable-queue.enabled", havingValue = "true")
+public class DurableRetryConfig {
+
+    private static final int SEGMENT_SIZE = 16 * 1024 * 1024;
+    private static final long FLUSH_INTERVAL = 100L;
+    private static final int BATCH_SIZE = 50;
+    private static final long INITIAL_BACKOFF = 1000L;
+    private static final long MAX_BACKOFF = 60000L;
+    private static final int MAX_REPLAYS = 20;
+
+    @Bean(destroyMethod = "shutdown")
+    public ScheduledExecutorService retryQueueScheduler() {
+        return Executors.newScheduledThreadPool(2, new CustomizableThreadFactory("retry-queue-"));
+    }
+
+    /**
+     * Flushed on its own schedule, so appends share one {@code force} per interval.
+     */
+    @Bean(destroyMethod = "close")
+    public DurableRetryQueue durableRetryQueue(@Value("${retry.durable-queue.directory}") String directory,
+                                               @Value("${retry.durable-queue.capacity:100000}") int capacity,
+                                               ScheduledExecutorService retryQueueScheduler) throws IOException {
+        DurableRetryQueue queue = new DurableRetryQueue(Paths.get(directory), SEGMENT_SIZE, capacity);
+        retryQueueScheduler.scheduleWithFixedDelay(queue::flush, FLUSH_INTERVAL, FLUSH_INTERVAL, TimeUnit.MILLISECONDS);
+        return queue;
+    }
+
+    @Bean(initMethod = "start")
+    public RetryQueueDrainer retryQueueDrainer(DurableRetryQueue durableRetryQueue, RetryableService retryableService,
+                                               ScheduledExecutorService retryQueueScheduler,
+                                               @Value("${retry.durable-queue.min-pause:500ms}") Duration minPause) {
+        return new RetryQueueDrainer(durableRetryQueue, retryableService::replay, retryQueueScheduler,
+                BATCH_SIZE, minPause.toMillis(), INITIAL_BACKOFF, MAX_BACKOFF, MAX_REPLAYS);
+    }
+
+}
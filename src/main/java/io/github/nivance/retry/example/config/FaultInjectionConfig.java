@@ -0,0 +1,57 @@
+package io.github.nivance.retry.example.config;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import io.github.nivance.retry.example.support.ErrorRateSchedule;
+import io.github.nivance.retry.example.support.FaultInjector;
+import io.github.nivance.retry.example.support.LatencyDistribution;
+
+/**
+ * Seedable fault injection behind the {@code /unstable} endpoint.
+ */
+@Configuration
+@EnableConfigurationProperties(FaultProperties.class)
+public class FaultInjectionConfig {
+
+    @Bean
+    public FaultInjector faultInjector(FaultProperties properties) {
+        return new FaultInjector(properties.getSeed(), latency(properties.getLatency()), errorRate(properties.getError()),
+                properties.getError().getStatus(), properties.getTimeout().getRate(),
+                properties.getTimeout().getDuration().toMillis(), properties.getResetRate());
+    }
+
+    private static LatencyDistribution latency(FaultProperties.Latency latency) {
+        long mean = latency.getMean().toMillis();
+        long min = latency.getMin().toMillis();
+        long max = latency.getMax().toMillis();
+        switch (latency.getDistribution()) {
+            case FIXED:
+                return LatencyDistribution.fixed(mean).cappedAt(max);
+            case UNIFORM:
+                return LatencyDistribution.uniform(min, max);
+            case EXPONENTIAL:
+                return LatencyDistribution.exponential(mean).cappedAt(max);
+            case PARETO:
+                return LatencyDistribution.pareto(min, latency.getShape()).cappedAt(max);
+            default:
+                return LatencyDistribution.none();
+        }
+    }
+
+    private static ErrorRateSchedule errorRate(FaultProperties.Error error) {
+        long period = error.getPeriod().toMillis();
+        switch (error.getSchedule()) {
+            case STEP:
+                return ErrorRateSchedule.step(error.getRate(), error.getTargetRate(), period);
+            case RAMP:
+                return ErrorRateSchedule.ramp(error.getRate(), error.getTargetRate(), period);
+            case FLAPPING:
+                return ErrorRateSchedule.flapping(error.getRate(), error.getTargetRate(), period);
+            default:
+                return ErrorRateSchedule.constant(error.getRate());
+        }
+    }
+
+}
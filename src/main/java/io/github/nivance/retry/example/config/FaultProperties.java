@@ -0,0 +1,88 @@
+package io.github.nivance.retry.example.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Data;
+
+/**
+ * Behaviour of the {@code /unstable} endpoint, e.g. {@code retry.fault.latency.distribution=pareto}
+ * or {@code retry.fault.error.schedule=flapping}.
+ */
+@Data
+@ConfigurationProperties(prefix = "retry.fault")
+public class FaultProperties {
+
+    /**
+     * Same seed, same sequence of faults.
+     */
+    private long seed = 42L;
+    private Latency latency = new Latency();
+    private Error error = new Error();
+    private Timeout timeout = new Timeout();
+    /**
+     * Probability that the connection is dropped mid-response.
+     */
+    private double resetRate = 0d;
+
+    public enum Distribution {
+        NONE, FIXED, UNIFORM, EXPONENTIAL, PARETO
+    }
+
+    public enum Schedule {
+        CONSTANT, STEP, RAMP, FLAPPING
+    }
+
+    @Data
+    public static class Latency {
+
+        private Distribution distribution = Distribution.NONE;
+        /**
+         * Delay of {@code fixed}, mean of {@code exponential}.
+         */
+        private Duration mean = Duration.ofMillis(100);
+        /**
+         * Lower bound of {@code uniform}, scale of {@code pareto}.
+         */
+        private Duration min = Duration.ofMillis(10);
+        /**
+         * Upper bound of {@code uniform}, cap of every distribution.
+         */
+        private Duration max = Duration.ofSeconds(10);
+        /**
+         * Tail index of {@code pareto}.
+         */
+        private double shape = 1.5d;
+    }
+
+    @Data
+    public static class Error {
+
+        private Schedule schedule = Schedule.CONSTANT;
+        /**
+         * Rate of {@code constant}, the initial rate otherwise.
+         */
+        private double rate = 0.5d;
+        /**
+         * Rate after the step, at the end of the ramp or the upper rate of {@code flapping}.
+         */
+        private double targetRate = 1d;
+        /**
+         * Time of the step, length of the ramp or period of {@code flapping}.
+         */
+        private Duration period = Duration.ofSeconds(60);
+        private int status = 500;
+    }
+
+    @Data
+    public static class Timeout {
+
+        private double rate = 0d;
+        /**
+         * How long a timed out request hangs; should exceed the callers' read timeout.
+         */
+        private Duration duration = Duration.ofSeconds(30);
+    }
+
+}
@@ -0,0 +1,41 @@
+package io.github.nivance.retry.example.config;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Data;
+
+/**
+ * Connection pool and timeout settings of the upstream {@code RestTemplate}. Timeouts can be
+ * overridden per retry label, e.g. {@code retry.http.labels.retryable.read-timeout=2s}.
+ */
+@Data
+@ConfigurationProperties(prefix = "retry.http")
+public class HttpClientProperties {
+
+    private int maxTotal = 200;
+    private int maxPerRoute = 50;
+    private Duration connectTimeout = Duration.ofSeconds(1);
+    private Duration readTimeout = Duration.ofSeconds(5);
+    /**
+     * How long to wait for a connection from the pool.
+     */
+    private Duration connectionRequestTimeout = Duration.ofMillis(500);
+    /**
+     * Upper bound for keep-alive when the upstream does not send a shorter {@code Keep-Alive} header.
+     */
+    private Duration keepAlive = Duration.ofSeconds(30);
+    private Duration idleEviction = Duration.ofSeconds(30);
+    private Map<String, Timeouts> labels = new LinkedHashMap<>();
+
+    @Data
+    public static class Timeouts {
+
+        private Duration connectTimeout;
+        private Duration readTimeout;
+    }
+
+}
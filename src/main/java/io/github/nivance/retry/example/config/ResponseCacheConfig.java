@@ -0,0 +1,55 @@
+package io.github.nivance.retry.example.config;
+
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.unit.DataSize;
+
+import io.github.nivance.retry.example.support.ResponseCache;
+import io.github.nivance.retry.example.support.ResponseEntityCodec;
+
+/**
+ * Last good responses per retry label, served by the {@code @Recover} methods of
+ * {@link io.github.nivance.retry.example.service.RetryableService} and
+ * {@link io.github.nivance.retry.example.service.CircuitBreakerService} and refreshed on the retry
+ * executor.
+ */
+@Configuration
+public class ResponseCacheConfig {
+
+    @Value("${retry.response-cache.maximum-size:10000}")
+    private long maximumSize;
+    @Value("${retry.response-cache.refresh-after:30s}")
+    private Duration refreshAfter;
+    @Value("${retry.response-cache.time-to-live:10m}")
+    private Duration timeToLive;
+
+    /**
+     * Keyed by upstream URL; large bodies are kept off-heap.
+     */
+    @Bean
+    public ResponseCache<String, ResponseEntity<String>> retryableResponseCache(ExecutorService retryExecutor,
+                                                                                @Value("${retry.response-cache.off-heap-threshold:64KB}") DataSize offHeapThreshold) {
+        ResponseCache<String, ResponseEntity<String>> cache = newResponseCache(retryExecutor);
+        cache.setOffHeap(new ResponseEntityCodec(), (int) Math.min(offHeapThreshold.toBytes(), Integer.MAX_VALUE));
+        return cache;
+    }
+
+    /**
+     * Keyed by circuit breaker, i.e. by endpoint for the keyed breakers.
+     */
+    @Bean
+    public ResponseCache<String, Integer> circuitBreakerResponseCache(ExecutorService retryExecutor) {
+        return newResponseCache(retryExecutor);
+    }
+
+    private <V> ResponseCache<String, V> newResponseCache(ExecutorService retryExecutor) {
+        return new ResponseCache<>(maximumSize, refreshAfter.toMillis(), timeToLive.toMillis(), TimeUnit.MILLISECONDS, retryExecutor);
+    }
+
+}
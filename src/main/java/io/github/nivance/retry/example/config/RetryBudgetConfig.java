@@ -0,0 +1,28 @@
+package io.github.nivance.retry.example.config;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import io.github.nivance.retry.example.support.RetryBudget;
+import io.github.nivance.retry.example.support.RetryBudgetListener;
+
+/**
+ * Retry budgets that keep retries under a ratio of first attempts per label.
+ */
+@Configuration
+@EnableConfigurationProperties(RetryBudgetProperties.class)
+public class RetryBudgetConfig {
+
+    @Bean
+    public RetryBudgetListener retryBudgetListener(RetryBudgetProperties properties) {
+        Map<String, RetryBudget> budgets = new HashMap<>();
+        properties.getLabels().forEach((label, budget) -> budgets.put(label,
+                new RetryBudget(budget.getTtlSeconds(), budget.getPercentCanRetry(), budget.getMinRetriesPerSecond())));
+        return new RetryBudgetListener(budgets);
+    }
+
+}
@@ -0,0 +1,33 @@
+package io.github.nivance.retry.example.config;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Data;
+
+/**
+ * Retry budgets per retry label, e.g. {@code retry.budget.labels.retryable.percent-can-retry=20}.
+ */
+@Data
+@ConfigurationProperties(prefix = "retry.budget")
+public class RetryBudgetProperties {
+
+    private Map<String, Budget> labels = new LinkedHashMap<>();
+
+    @Data
+    public static class Budget {
+
+        /**
+         * How long a first attempt counts towards the budget.
+         */
+        private int ttlSeconds = 10;
+        /**
+         * Retries allowed as a percentage of first attempts.
+         */
+        private int percentCanRetry = 20;
+        private int minRetriesPerSecond = 10;
+    }
+
+}
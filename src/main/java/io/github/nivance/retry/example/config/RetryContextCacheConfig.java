@@ -0,0 +1,24 @@
+package io.github.nivance.retry.example.config;
+
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import io.github.nivance.retry.example.support.CaffeineRetryContextCache;
+
+/**
+ * Retry context cache of stateful retries ({@code @CircuitBreaker}, {@code @Retryable(stateful = true)}).
+ * Spring retry picks up a {@link org.springframework.retry.policy.RetryContextCache} bean for them.
+ */
+@Configuration
+public class RetryContextCacheConfig {
+
+    @Bean
+    public CaffeineRetryContextCache retryContextCache(@Value("${retry.context-cache.maximum-size:1000000}") long maximumSize,
+                                                       @Value("${retry.context-cache.expire-after-access-seconds:600}") long expireAfterAccess) {
+        return new CaffeineRetryContextCache(maximumSize, expireAfterAccess, TimeUnit.SECONDS);
+    }
+
+}
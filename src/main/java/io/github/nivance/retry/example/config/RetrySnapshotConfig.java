@@ -0,0 +1,37 @@
+package io.github.nivance.retry.example.config;
+
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import io.github.nivance.retry.example.support.SnapshotStore;
+import io.github.nivance.retry.example.support.Snapshottable;
+
+/**
+ * Retry statistics, circuit breakers and adaptive backoff delays, i.e. every {@link Snapshottable}
+ * bean, written to local disk periodically and on shutdown, and restored on startup so a restarted
+ * instance starts warm.
+ */
+@Configuration
+@ConditionalOnProperty(name = "retry.snapshot.enabled", havingValue = "true")
+public class RetrySnapshotConfig {
+
+    @Bean(destroyMethod = "save")
+    public SnapshotStore snapshotStore(@Value("${retry.snapshot.file}") String file,
+                                       @Value("${retry.snapshot.interval:30s}") Duration interval,
+                                       @Value("${retry.snapshot.max-age:1h}") Duration maxAge,
+                                       List<Snapshottable> parts, ScheduledExecutorService retryScheduler) {
+        SnapshotStore store = new SnapshotStore(Paths.get(file), parts, maxAge.toMillis());
+        store.load();
+        retryScheduler.scheduleWithFixedDelay(store::save, interval.toMillis(), interval.toMillis(), TimeUnit.MILLISECONDS);
+        return store;
+    }
+
+}
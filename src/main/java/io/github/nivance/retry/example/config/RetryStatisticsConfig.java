@@ -2,9 +2,9 @@ package io.github.nivance.retry.example.config;
 
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.retry.stats.DefaultStatisticsRepository;
-import org.springframework.retry.stats.StatisticsListener;
-import org.springframework.retry.stats.StatisticsRepository;
+
+import io.github.nivance.retry.example.support.LatencyStatisticsListener;
+import io.github.nivance.retry.example.support.LatencyStatisticsRepository;
 
 /**
  * @author nivance
@@ -13,13 +13,13 @@ import org.springframework.retry.stats.StatisticsRepository;
 public class RetryStatisticsConfig {
 
     @Bean
-    public StatisticsRepository repository() {
-        return new DefaultStatisticsRepository();
+    public LatencyStatisticsRepository repository() {
+        return new LatencyStatisticsRepository();
     }
 
     @Bean
-    public StatisticsListener statisticsListener(StatisticsRepository repository) {
-        return new StatisticsListener(repository);
+    public LatencyStatisticsListener statisticsListener(LatencyStatisticsRepository repository) {
+        return new LatencyStatisticsListener(repository);
     }
 
 }
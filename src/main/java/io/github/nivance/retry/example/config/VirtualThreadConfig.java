@@ -0,0 +1,53 @@
+package io.github.nivance.retry.example.config;
+
+import java.util.concurrent.ExecutorService;
+
+import javax.annotation.PreDestroy;
+
+import org.apache.coyote.ProtocolHandler;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ConcurrentTaskExecutor;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import io.github.nivance.retry.example.support.VirtualThreads;
+
+/**
+ * Runs Tomcat request handling on virtual threads (JDK 21+), so that requests blocked in
+ * {@code RestTemplate} calls or retry backoffs do not hold platform threads. The same goes for
+ * handlers returning a {@code Callable}, which run on the MVC task executor. Retry workers switch
+ * over in {@link Config#retryExecutor(boolean)}.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "retry.virtual-threads", name = "enabled", havingValue = "true")
+public class VirtualThreadConfig implements WebMvcConfigurer {
+
+    private final ExecutorService requestExecutor = VirtualThreads.newVirtualThreadPerTaskExecutor("request-");
+
+    /**
+     * Shut down with the context, once Tomcat has stopped handing it requests.
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService httpHandlerExecutor() {
+        return VirtualThreads.newVirtualThreadPerTaskExecutor("http-handler-");
+    }
+
+    @Bean
+    public TomcatProtocolHandlerCustomizer<ProtocolHandler> virtualThreadProtocolHandlerCustomizer(ExecutorService httpHandlerExecutor) {
+        return protocolHandler -> protocolHandler.setExecutor(httpHandlerExecutor);
+    }
+
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        configurer.setTaskExecutor(new ConcurrentTaskExecutor(requestExecutor));
+    }
+
+    @PreDestroy
+    public void destroy() {
+        requestExecutor.shutdown();
+    }
+
+}
@@ -1,38 +1,138 @@
 package io.github.nivance.retry.example.controller;
 
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Function;
+
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.async.DeferredResult;
 import org.springframework.web.server.ResponseStatusException;
 
 import static org.springframework.http.HttpStatus.INTERNAL_SERVER_ERROR;
+import static org.springframework.http.HttpStatus.NOT_FOUND;
 import static org.springframework.http.HttpStatus.UNAUTHORIZED;
 import io.github.nivance.retry.example.service.CircuitBreakerService;
 import io.github.nivance.retry.example.service.RetryableService;
+import io.github.nivance.retry.example.support.BatchRetryTemplate;
+import io.github.nivance.retry.example.support.CircuitBreakerRegistry;
+import io.github.nivance.retry.example.support.FaultInjector;
+import io.github.nivance.retry.example.support.SingleFlight;
 import lombok.AllArgsConstructor;
 
 /**
+ * Blocking calls are returned as {@link Callable}s and asynchronous ones as {@link DeferredResult}s,
+ * so the retries behind a request stop when it times out: the thread of a {@code Callable} is
+ * interrupted, the future behind a {@code DeferredResult} is cancelled. Tomcat does not report a
+ * client that silently went away, so its retries keep running until the request times out, see
+ * {@code spring.mvc.async.request-timeout}.
+ *
  * @author nivance
  */
 @AllArgsConstructor
 @RestController
 public class RetryController {
 
+    private static final int MAX_BATCH_SIZE = 1000;
+
     private RetryableService retryableService;
     private CircuitBreakerService circuitBreakerService;
+    private CircuitBreakerRegistry circuitBreakerRegistry;
+    private SingleFlight<String, Void> retryableSingleFlight;
+    private FaultInjector faultInjector;
 
     @GetMapping("/retryable")
-    public int requestService() {
-        retryableService.request();
-        return 1;
+    public Callable<Integer> requestService() {
+        return () -> {
+            retryableService.request();
+            return 1;
+        };
+    }
+
+    @GetMapping("/retryable/async")
+    public DeferredResult<Integer> requestServiceAsync() {
+        return cancellable(retryableService.requestAsync(), v -> 1);
+    }
+
+    /**
+     * Concurrent requests with the same {@code key} share one upstream attempt/retry sequence and
+     * its recovery, which is cancelled once every one of them timed out.
+     */
+    @GetMapping("/retryable/coalesced")
+    public DeferredResult<Integer> requestServiceCoalesced(@RequestParam(defaultValue = "unstable") String key) {
+        return cancellable(retryableSingleFlight.execute(key, retryableService::requestAsync), v -> 1);
+    }
+
+    /**
+     * {@code count} upstream calls with bounded parallelism, retried in rounds.
+     */
+    @GetMapping("/retryable/batch")
+    public DeferredResult<List<BatchRetryTemplate.Outcome<Integer>>> requestServiceBatch(@RequestParam(defaultValue = "100") int count) {
+        if (count <= 0 || count > MAX_BATCH_SIZE) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "count must be between 1 and " + MAX_BATCH_SIZE);
+        }
+        return cancellable(retryableService.requestBatch(count), Function.identity());
+    }
+
+    @GetMapping("/retryable/hedged")
+    public DeferredResult<Integer> requestServiceHedged() {
+        return cancellable(retryableService.requestHedged(), v -> 1);
     }
 
     @GetMapping("/circuitBreaker")
-    public int callExternalService() {
-        return circuitBreakerService.call();
+    public Callable<Integer> callExternalService() {
+        return circuitBreakerService::call;
     }
 
+    @GetMapping("/circuitBreaker/{endpoint}")
+    public Callable<Integer> callExternalService(@PathVariable String endpoint) {
+        if (!circuitBreakerRegistry.accepts(endpoint)) {
+            throw new ResponseStatusException(NOT_FOUND, "Unknown endpoint " + endpoint);
+        }
+        return () -> circuitBreakerService.call(endpoint);
+    }
 
+    /**
+     * Fails the way {@link FaultInjector} decides, see {@code retry.fault.*}.
+     */
+    @GetMapping("/unstable")
+    public Integer faultyApi(HttpServletResponse response) throws IOException, InterruptedException {
+        FaultInjector.Fault fault = faultInjector.next();
+        if (fault.getDelayMillis() > 0) {
+            Thread.sleep(fault.getDelayMillis());
+        }
+        switch (fault.getType()) {
+            case ERROR:
+                throw new ResponseStatusException(HttpStatus.valueOf(fault.getStatus()));
+            case RESET:
+                // promise a body that never comes and close the connection, the client sees a
+                // premature end of the response
+                response.setHeader(HttpHeaders.CONNECTION, "close");
+                response.setContentLength(1024);
+                response.flushBuffer();
+                return null;
+            default:
+                return 200;
+        }
+    }
+
+    /**
+     * Restarts the error rate schedule and the fault sequence of {@code /unstable}.
+     */
+    @PostMapping("/unstable/reset")
+    public void resetFaults() {
+        faultInjector.reset();
+    }
 
     @GetMapping("/unstable/{status}")
     public int unstableApi(@PathVariable int status) {
@@ -44,4 +144,24 @@ public class RetryController {
         }
         return status;
     }
+
+    /**
+     * Cancels {@code call} when the request fails before it completes, e.g. on an error writing to
+     * the client, or when it times out. Cancelling {@code call} itself matters: cancelling a future derived
+     * from it would leave it running.
+     */
+    private static <V, T> DeferredResult<T> cancellable(CompletableFuture<V> call, Function<? super V, ? extends T> response) {
+        DeferredResult<T> result = new DeferredResult<>();
+        result.onError(e -> call.cancel(true));
+        result.onTimeout(() -> call.cancel(true));
+        call.whenComplete((value, e) -> {
+            if (e == null) {
+                result.setResult(response.apply(value));
+            } else {
+                result.setErrorResult(e instanceof CompletionException ? e.getCause() : e);
+            }
+        });
+        return result;
+    }
+
 }
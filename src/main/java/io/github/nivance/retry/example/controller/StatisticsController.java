@@ -0,0 +1,195 @@
+package io.github.nivance.retry.example.controller;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.pool.PoolStats;
+import org.springframework.retry.RetryStatistics;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+
+import io.github.nivance.retry.example.support.AttemptRecord;
+import io.github.nivance.retry.example.support.AttemptRecordingListener;
+import io.github.nivance.retry.example.support.BulkheadListener;
+import io.github.nivance.retry.example.support.CaffeineRetryContextCache;
+import io.github.nivance.retry.example.support.CircuitBreakerRegistry;
+import io.github.nivance.retry.example.support.FaultInjector;
+import io.github.nivance.retry.example.support.LatencyRetryStatistics;
+import io.github.nivance.retry.example.support.LatencyStatisticsRepository;
+import io.github.nivance.retry.example.support.ResponseCache;
+import io.github.nivance.retry.example.support.SingleFlight;
+import io.github.nivance.retry.example.support.StatisticsWindow;
+import lombok.AllArgsConstructor;
+
+/**
+ * Read-only views on retry and upstream client state.
+ */
+@AllArgsConstructor
+@RestController
+public class StatisticsController {
+
+    private PoolingHttpClientConnectionManager connectionManager;
+    private SingleFlight<String, Void> retryableSingleFlight;
+    private CircuitBreakerRegistry circuitBreakerRegistry;
+    private CaffeineRetryContextCache retryContextCache;
+    private BulkheadListener bulkheadListener;
+    private FaultInjector faultInjector;
+    private LatencyStatisticsRepository repository;
+    private AttemptRecordingListener attemptRecordingListener;
+    private Map<String, ResponseCache<?, ?>> responseCaches;
+
+    /**
+     * Leased, pending and available connections, in total and per route, for sizing the pool
+     * against retry fan-out.
+     */
+    @GetMapping("/stats/pool")
+    public Map<String, PoolStats> poolStatistics() {
+        Map<String, PoolStats> statistics = new LinkedHashMap<>();
+        statistics.put("total", connectionManager.getTotalStats());
+        connectionManager.getRoutes().forEach(route -> statistics.put(route.toString(), connectionManager.getStats(route)));
+        return statistics;
+    }
+
+    @GetMapping("/stats/coalescing")
+    public Map<String, Long> coalescingStatistics() {
+        Map<String, Long> statistics = new LinkedHashMap<>();
+        statistics.put("inFlight", (long) retryableSingleFlight.getInFlightCount());
+        statistics.put("leaders", retryableSingleFlight.getLeaderCount());
+        statistics.put("followers", retryableSingleFlight.getFollowerCount());
+        return statistics;
+    }
+
+    @GetMapping("/stats/circuitBreakers")
+    public Map<String, Integer> circuitBreakerStatistics() {
+        Map<String, Integer> statistics = new LinkedHashMap<>();
+        statistics.put("breakers", circuitBreakerRegistry.size());
+        statistics.put("open", circuitBreakerRegistry.getOpenCount());
+        return statistics;
+    }
+
+    /**
+     * Size, hits, misses and evictions of the stateful retry context cache.
+     */
+    @GetMapping("/stats/contextCache")
+    public Map<String, Long> contextCacheStatistics() {
+        CacheStats stats = retryContextCache.getStats();
+        Map<String, Long> statistics = new LinkedHashMap<>();
+        statistics.put("size", retryContextCache.size());
+        statistics.put("hits", stats.hitCount());
+        statistics.put("misses", stats.missCount());
+        statistics.put("evictions", stats.evictionCount());
+        return statistics;
+    }
+
+    /**
+     * Size, hits and misses of the fallback response caches, by bean name; a hit is a recovery served
+     * without calling the upstream.
+     */
+    @GetMapping("/stats/responseCaches")
+    public Map<String, Map<String, Long>> responseCacheStatistics() {
+        Map<String, Map<String, Long>> statistics = new LinkedHashMap<>();
+        responseCaches.forEach((name, responseCache) -> {
+            CacheStats stats = responseCache.getStats();
+            Map<String, Long> cacheStatistics = new LinkedHashMap<>();
+            cacheStatistics.put("size", responseCache.size());
+            cacheStatistics.put("hits", stats.hitCount());
+            cacheStatistics.put("misses", stats.missCount());
+            cacheStatistics.put("evictions", stats.evictionCount());
+            statistics.put(name, cacheStatistics);
+        });
+        return statistics;
+    }
+
+    /**
+     * Current limit and calls in flight per bulkhead label.
+     */
+    @GetMapping("/stats/bulkheads")
+    public Map<String, Map<String, Integer>> bulkheadStatistics() {
+        Map<String, Map<String, Integer>> statistics = new LinkedHashMap<>();
+        bulkheadListener.getBulkheads().forEach((label, bulkhead) -> {
+            Map<String, Integer> bulkheadStatistics = new LinkedHashMap<>();
+            bulkheadStatistics.put("limit", bulkhead.getLimit());
+            bulkheadStatistics.put("inFlight", bulkhead.getInFlight());
+            statistics.put(label, bulkheadStatistics);
+        });
+        return statistics;
+    }
+
+    /**
+     * Requests served by {@code /unstable} and the faults injected into them.
+     */
+    @GetMapping("/stats/faults")
+    public Map<String, Long> faultStatistics() {
+        Map<String, Long> statistics = new LinkedHashMap<>();
+        statistics.put("requests", faultInjector.getRequestCount());
+        statistics.put("errors", faultInjector.getErrorCount());
+        statistics.put("timeouts", faultInjector.getTimeoutCount());
+        statistics.put("resets", faultInjector.getResetCount());
+        return statistics;
+    }
+
+    /**
+     * Outcome counts and attempts per retry label; attempts over started is the retry amplification.
+     */
+    @GetMapping("/stats/retries")
+    public Map<String, Map<String, Long>> retryStatistics() {
+        Map<String, Map<String, Long>> statistics = new LinkedHashMap<>();
+        for (RetryStatistics retryStatistics : repository.findAll()) {
+            LatencyRetryStatistics latencyStatistics = (LatencyRetryStatistics) retryStatistics;
+            Map<String, Long> labelStatistics = new LinkedHashMap<>();
+            labelStatistics.put("started", (long) latencyStatistics.getStartedCount());
+            labelStatistics.put("complete", (long) latencyStatistics.getCompleteCount());
+            labelStatistics.put("recovered", (long) latencyStatistics.getRecoveryCount());
+            labelStatistics.put("aborted", (long) latencyStatistics.getAbortCount());
+            labelStatistics.put("attempts", latencyStatistics.getAttemptLatency().getCount());
+            labelStatistics.put("hedges", latencyStatistics.getHedgeCount());
+            statistics.put(latencyStatistics.getName(), labelStatistics);
+        }
+        return statistics;
+    }
+
+    /**
+     * Outcome counts and attempts per retry label over the last minute, five minutes and hour. Reads
+     * only sum the windows' buckets, so they never hold up the calls being counted.
+     */
+    @GetMapping("/stats/windows")
+    public Map<String, Map<String, Map<String, Long>>> windowStatistics(@RequestParam(required = false) String label) {
+        Map<String, Map<String, Map<String, Long>>> statistics = new LinkedHashMap<>();
+        for (RetryStatistics retryStatistics : repository.findAll()) {
+            LatencyRetryStatistics latencyStatistics = (LatencyRetryStatistics) retryStatistics;
+            if (label != null && !label.equals(latencyStatistics.getName())) {
+                continue;
+            }
+            Map<String, Map<String, Long>> labelStatistics = new LinkedHashMap<>();
+            for (StatisticsWindow window : StatisticsWindow.values()) {
+                long[] counts = latencyStatistics.getWindowCounts(window);
+                Map<String, Long> windowStatistics = new LinkedHashMap<>();
+                windowStatistics.put("started", counts[LatencyRetryStatistics.STARTED]);
+                windowStatistics.put("complete", counts[LatencyRetryStatistics.COMPLETE]);
+                windowStatistics.put("recovered", counts[LatencyRetryStatistics.RECOVERY]);
+                windowStatistics.put("aborted", counts[LatencyRetryStatistics.ABORT]);
+                windowStatistics.put("errors", counts[LatencyRetryStatistics.ERROR]);
+                windowStatistics.put("attempts", counts[LatencyRetryStatistics.ATTEMPTS]);
+                windowStatistics.put("hedges", counts[LatencyRetryStatistics.HEDGES]);
+                labelStatistics.put(window.getLabel(), windowStatistics);
+            }
+            statistics.put(latencyStatistics.getName(), labelStatistics);
+        }
+        return statistics;
+    }
+
+    /**
+     * The most recent retry attempts, oldest first, optionally of one label only.
+     */
+    @GetMapping("/stats/attempts")
+    public List<AttemptRecord> recentAttempts(@RequestParam(required = false) String label,
+                                              @RequestParam(defaultValue = "1000") int limit) {
+        return attemptRecordingListener.getBuffer().snapshot(label, limit);
+    }
+
+}
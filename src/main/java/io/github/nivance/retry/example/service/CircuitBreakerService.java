@@ -1,9 +1,17 @@
 package io.github.nivance.retry.example.service;
 
-import org.springframework.retry.annotation.CircuitBreaker;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.retry.annotation.Recover;
+import org.springframework.retry.annotation.Retryable;
+import org.springframework.retry.support.RetrySynchronizationManager;
 import org.springframework.stereotype.Service;
 
+import io.github.nivance.retry.example.support.CircuitBreakerOpenException;
+import io.github.nivance.retry.example.support.CircuitBreakerRegistry;
+import io.github.nivance.retry.example.support.ResponseCache;
+import io.github.nivance.retry.example.support.RetryCancelledException;
+import io.github.nivance.retry.example.support.SlidingWindowCircuitBreaker;
+import io.github.nivance.retry.example.support.SlidingWindowCircuitBreakerRetryPolicy;
 import lombok.extern.slf4j.Slf4j;
 
 /**
@@ -13,13 +21,45 @@ import lombok.extern.slf4j.Slf4j;
 @Service
 public class CircuitBreakerService {
 
-    @CircuitBreaker(maxAttempts = 2, openTimeout = 5000L, resetTimeout = 10000L, label = "bircuitBreaker")
+    @Autowired
+    private SlidingWindowCircuitBreaker circuitBreaker;
+    @Autowired
+    private CircuitBreakerRegistry circuitBreakerRegistry;
+    /**
+     * Last good result per breaker, the fallback while it is open or the call failed.
+     */
+    @Autowired
+    private ResponseCache<String, Integer> circuitBreakerResponseCache;
+
+    @Retryable(interceptor = "circuitBreakerInterceptor")
     public int call() {
+        int result = doCall();
+        String key = cacheKey();
+        if (key != null) {
+            circuitBreakerResponseCache.put(key, result);
+        }
+        return result;
+    }
+
+    /**
+     * Same call as {@link #call()}, but each {@code endpoint} has its own breaker, so one failing
+     * endpoint does not open the circuit for the others.
+     */
+    @Retryable(interceptor = "keyedCircuitBreakerInterceptor")
+    public int call(String endpoint) {
+        log.info("Calling call method for {}...", endpoint);
+        return call();
+    }
+
+    private int doCall() {
         log.info("Calling call method...");
         if (Math.random() > 0.5) {
             try {
                 Thread.sleep(1000L);
             } catch (InterruptedException e) {
+                // the request was cancelled; the retry listeners see the flag and stop retrying
+                Thread.currentThread().interrupt();
+                throw new RetryCancelledException("Interrupted while calling");
             }
             throw new RuntimeException("Exception happened");
         }
@@ -27,9 +67,45 @@ public class CircuitBreakerService {
         return 1;
     }
 
+    /**
+     * Background refresh of a cached result. It needs a permission of the breaker like any call, so
+     * it probes a half-open breaker but never calls through an open one.
+     */
+    private int refresh(String key) {
+        SlidingWindowCircuitBreaker keyCircuitBreaker = circuitBreakerRegistry.circuitBreakerNamed(key);
+        if (keyCircuitBreaker == null) {
+            keyCircuitBreaker = circuitBreaker;
+        }
+        if (!keyCircuitBreaker.tryAcquirePermission()) {
+            throw new CircuitBreakerOpenException(key);
+        }
+        long start = System.nanoTime();
+        try {
+            int result = doCall();
+            keyCircuitBreaker.onSuccess(System.nanoTime() - start);
+            return result;
+        } catch (RuntimeException e) {
+            keyCircuitBreaker.onError(System.nanoTime() - start);
+            throw e;
+        }
+    }
+
+    /**
+     * @return the name of the breaker guarding the current retry, or {@code null} outside of one
+     */
+    private static String cacheKey() {
+        SlidingWindowCircuitBreaker current = SlidingWindowCircuitBreakerRetryPolicy.circuitBreakerOf(RetrySynchronizationManager.getContext());
+        return current == null ? null : current.getName();
+    }
 
     @Recover
     private int recover() {
+        String key = cacheKey();
+        Integer cached = key == null ? null : circuitBreakerResponseCache.get(key, this::refresh);
+        if (cached != null) {
+            log.info("Use recover, serving cached result of {}", key);
+            return cached;
+        }
         log.error("Use recover, Fallback for call invoked");
         return 0;
     }
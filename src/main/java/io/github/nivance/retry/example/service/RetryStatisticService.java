@@ -5,11 +5,16 @@ import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.retry.stats.StatisticsRepository;
+import org.springframework.retry.RetryStatistics;
 import org.springframework.stereotype.Service;
 
+import io.github.nivance.retry.example.support.LatencyRetryStatistics;
+import io.github.nivance.retry.example.support.LatencyStatisticsRepository;
+import io.github.nivance.retry.example.support.StatisticsWindow;
 import lombok.extern.slf4j.Slf4j;
 
 @Slf4j
@@ -17,17 +22,29 @@ import lombok.extern.slf4j.Slf4j;
 public class RetryStatisticService {
 
     @Autowired
-    private StatisticsRepository statisticsRepository;
+    private LatencyStatisticsRepository statisticsRepository;
+    @Autowired
+    private PoolingHttpClientConnectionManager connectionManager;
     private ScheduledExecutorService scheduledExecutorService;
 
     @PostConstruct
     public void init() {
         scheduledExecutorService = new ScheduledThreadPoolExecutor(1);
         scheduledExecutorService.scheduleAtFixedRate(() -> {
-            statisticsRepository.findAll().forEach(s -> {
-                log.info(s.toString());
-            });
+            for (RetryStatistics statistics : statisticsRepository.findAll()) {
+                long[] counts = ((LatencyRetryStatistics) statistics).getWindowCounts(StatisticsWindow.ONE_MINUTE);
+                log.info("{} in the last minute: started={}, attempts={}, complete={}, recovered={}, aborted={}",
+                        statistics.getName(), counts[LatencyRetryStatistics.STARTED], counts[LatencyRetryStatistics.ATTEMPTS],
+                        counts[LatencyRetryStatistics.COMPLETE], counts[LatencyRetryStatistics.RECOVERY],
+                        counts[LatencyRetryStatistics.ABORT]);
+            }
+            log.info("Upstream connection pool {}", connectionManager.getTotalStats());
         }, 1, 30, TimeUnit.SECONDS);
     }
 
+    @PreDestroy
+    public void destroy() {
+        scheduledExecutorService.shutdownNow();
+    }
+
 }
@@ -1,14 +1,28 @@
 package io.github.nivance.retry.example.service;
 
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.remoting.RemoteAccessException;
-import org.springframework.retry.annotation.Backoff;
 import org.springframework.retry.annotation.Recover;
 import org.springframework.retry.annotation.Retryable;
 import org.springframework.stereotype.Service;
+import org.springframework.web.client.RestClientException;
 import org.springframework.web.client.RestTemplate;
 
+import io.github.nivance.retry.example.support.AsyncRetryTemplate;
+import io.github.nivance.retry.example.support.BatchRetryTemplate;
+import io.github.nivance.retry.example.support.DeadlineExceededException;
+import io.github.nivance.retry.example.support.DurableRetryQueue;
+import io.github.nivance.retry.example.support.HedgingTemplate;
+import io.github.nivance.retry.example.support.ResponseCache;
+import io.github.nivance.retry.example.support.UpstreamStatusException;
 import lombok.extern.slf4j.Slf4j;
 
 /**
@@ -18,25 +32,160 @@ import lombok.extern.slf4j.Slf4j;
 @Service
 public class RetryableService {
 
+    /**
+     * Returns error responses instead of throwing them.
+     */
+    @Autowired
+    private RestTemplate statusRestTemplate;
+    @Autowired
+    private AsyncRetryTemplate asyncRetryTemplate;
+    @Autowired
+    private HedgingTemplate hedgingTemplate;
     @Autowired
-    private RestTemplate restTemplate;
+    private BatchRetryTemplate batchRetryTemplate;
+    /**
+     * Last good response per URL, the fallback once retries are exhausted.
+     */
+    @Autowired
+    private ResponseCache<String, ResponseEntity<String>> retryableResponseCache;
+    /**
+     * Only present with {@code retry.durable-queue.enabled=true}.
+     */
+    @Autowired(required = false)
+    private DurableRetryQueue durableRetryQueue;
+
+    /**
+     * {@code http://localhost:8080/unstable} puts the fault injection engine behind the retries.
+     */
+    @Value("${retry.upstream.unstable-url:http://localhost:8080/unstable/500}")
+    private String unstableUrl;
+
+    /**
+     * Retried with an adaptive, Retry-After aware backoff, see
+     * {@link io.github.nivance.retry.example.config.AdaptiveBackOffConfig}. Error responses are
+     * returned, not thrown; the retry interceptor classifies them by status.
+     */
+    @Retryable(interceptor = "retryableInterceptor")
+    public ResponseEntity<String> request() {
+        return remember(unstableUrl, exchange(unstableUrl));
+    }
 
-    private static final int DELAY_TIME = 1000;
+    /**
+     * Same call as {@link #request()}, but attempts and backoffs are scheduled by
+     * {@link AsyncRetryTemplate} so the caller's thread is released immediately.
+     */
+    public CompletableFuture<Void> requestAsync() {
+        return asyncRetryTemplate.execute("retryable.async", context -> {
+            doRequest();
+            return null;
+        }, context -> {
+            recover(upstreamFailure(context.getLastThrowable()));
+            return null;
+        });
+    }
+
+    /**
+     * Same call as {@link #request()}, but slow attempts are hedged by {@link HedgingTemplate}
+     * instead of retried after a backoff.
+     */
+    public CompletableFuture<Void> requestHedged() {
+        return hedgingTemplate.execute("retryable.hedged", context -> {
+            doRequest();
+            return null;
+        }, context -> {
+            recover(upstreamFailure(context.getLastThrowable()));
+            return null;
+        });
+    }
+
+    /**
+     * {@code count} calls of {@link #request()} as one batch: at most a few in flight at a time,
+     * failed calls retried together after one shared backoff, and recovery per call once the batch
+     * is out of attempts, see {@link BatchRetryTemplate}.
+     *
+     * @return per call, the upstream status or that of its recovery
+     */
+    public CompletableFuture<List<BatchRetryTemplate.Outcome<Integer>>> requestBatch(int count) {
+        return batchRetryTemplate.execute("retryable.batch", Collections.nCopies(count, unstableUrl),
+                url -> checkStatus(remember(url, exchange(url))).getStatusCodeValue(),
+                (url, e) -> recover(upstreamFailure(e)).getStatusCodeValue());
+    }
+
+    /**
+     * Anything else that ended the retries, e.g. a rejected execution, is recovered like a call that
+     * got no response.
+     */
+    private static RemoteAccessException upstreamFailure(Throwable e) {
+        return e instanceof RemoteAccessException ? (RemoteAccessException) e : new UpstreamStatusException(e);
+    }
 
-    @Retryable(value = RemoteAccessException.class, backoff = @Backoff(DELAY_TIME), label = "retryable", listeners = {"statisticsListener"})
-    public void request() {
+    private void doRequest() {
+        remember(unstableUrl, checkStatus(exchange(unstableUrl)));
+    }
+
+    private ResponseEntity<String> remember(String url, ResponseEntity<String> response) {
+        if (response.getStatusCode().is2xxSuccessful()) {
+            retryableResponseCache.put(url, response);
+        }
+        return response;
+    }
+
+    /**
+     * Background refresh of a cached response, one upstream call without retries.
+     */
+    private ResponseEntity<String> refresh(String url) {
+        return checkStatus(exchange(url));
+    }
+
+    private static ResponseEntity<String> checkStatus(ResponseEntity<String> response) {
+        UpstreamStatusException failure = UpstreamStatusException.of(response);
+        if (failure != null) {
+            log.info("Try get unstable api failed with {}", failure.getStatusCode());
+            throw failure;
+        }
+        return response;
+    }
+
+    private ResponseEntity<String> exchange(String url) {
         try {
-            ResponseEntity<String> responseEntity = restTemplate.getForEntity("http://localhost:8080/unstable/500", String.class);
-        } catch (Exception e) {
+            return statusRestTemplate.getForEntity(url, String.class);
+        } catch (RestClientException e) {
             log.info("Try get unstable api failed");
-            throw new RemoteAccessException("500", e);
+            throw new UpstreamStatusException(e);
+        }
+    }
+
+    /**
+     * Replays a call kept by the durable retry queue, once; a good response is cached like any other.
+     *
+     * @return {@code true} if the upstream call succeeded
+     */
+    public boolean replay(byte[] url) {
+        try {
+            String replayed = new String(url, StandardCharsets.UTF_8);
+            return remember(replayed, statusRestTemplate.getForEntity(replayed, String.class)).getStatusCode().is2xxSuccessful();
+        } catch (RestClientException e) {
+            log.info("Replay of unstable api failed");
+            return false;
         }
     }
 
     @Recover
-    private void recover(RemoteAccessException e) {
-        ResponseEntity<String> responseEntity = restTemplate.getForEntity("http://localhost:8080/unstable/200", String.class);
-        log.info(String.format("Use recover, Response is %s", responseEntity.getBody()));
+    private ResponseEntity<String> recover(RemoteAccessException e) {
+        // a call whose caller has given up is not worth replaying either
+        boolean retryable = e instanceof UpstreamStatusException ? ((UpstreamStatusException) e).isRetryable()
+                : !(e instanceof DeadlineExceededException);
+        if (durableRetryQueue != null && retryable) {
+            durableRetryQueue.append(unstableUrl.getBytes(StandardCharsets.UTF_8));
+        }
+        // the last good response instead of one more call to the struggling upstream
+        ResponseEntity<String> cached = retryableResponseCache.get(unstableUrl, this::refresh);
+        if (cached != null) {
+            log.info("Use recover, serving cached response");
+            return cached;
+        }
+        log.info("Use recover, no cached response");
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
     }
 
 
@@ -0,0 +1,298 @@
+package io.github.nivance.retry.example.support;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongUnaryOperator;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.retry.RetryCallback;
+import org.springframework.retry.RetryContext;
+import org.springframework.retry.RetryListener;
+import org.springframework.retry.backoff.BackOffContext;
+import org.springframework.retry.backoff.BackOffInterruptedException;
+import org.springframework.retry.backoff.Sleeper;
+import org.springframework.retry.backoff.SleepingBackOffPolicy;
+import org.springframework.retry.backoff.ThreadWaitSleeper;
+import org.springframework.web.client.HttpStatusCodeException;
+
+/**
+ * Backoff that adapts to how each label's upstream behaves. It must also be registered as a listener
+ * of the same template, which is how it learns about outcomes:
+ * <ul>
+ * <li>every failure doubles the label's delay (quadruples it on 429/503), every successful call takes
+ * one {@code baseDelay} step off again, i.e. AIMD expressed on delays instead of rates;</li>
+ * <li>the delay never drops below the label's moving average attempt latency;</li>
+ * <li>decorrelated jitter spreads the actual sleep between that delay and three times the previous
+ * sleep, so clients that failed together do not retry together;</li>
+ * <li>a {@code Retry-After} on a 429/503 anywhere in the cause chain, thrown by the HTTP client or
+ * classified as an {@link UpstreamStatusException}, sets a lower bound. If it is longer
+ * than {@code maxRetryAfter}, the retry is given up and the call goes to recovery.</li>
+ * <li>a retry whose {@link Deadline} would pass during the sleep is given up as well.</li>
+ * </ul>
+ * Per-label state is a single packed {@link AtomicLong}, shared by copies made with
+ * {@link #withSleeper(Sleeper)}, and can be carried across restarts with {@link #snapshot(String)}.
+ */
+public class AdaptiveBackOffPolicy implements SleepingBackOffPolicy<AdaptiveBackOffPolicy>, RetryListener {
+
+    public static final String RETRY_AFTER = "backoff.retryAfter";
+    /**
+     * Milliseconds slept before the current attempt.
+     */
+    public static final String BACKOFF = "backoff.delay";
+
+    private static final String UNLABELED = "";
+
+    private static final int SCALE_UNIT = 1000;
+    private static final int SCALE_SHIFT = 32;
+    private static final long LATENCY_MASK = 0xFFFFFFFFL;
+    private static final int LATENCY_SMOOTHING = 3;
+
+    private final long baseDelay;
+    private final long maxDelay;
+    private final long maxRetryAfter;
+    private final Sleeper sleeper;
+    /**
+     * label -> delay scale in 1/1000 of {@code baseDelay} | moving average latency in ms, 32 bits each.
+     */
+    private final ConcurrentMap<String, AtomicLong> labels;
+
+    /**
+     * @param baseDelay     delay of a healthy label, in milliseconds
+     * @param maxDelay      cap of any computed delay, in milliseconds
+     * @param maxRetryAfter longest {@code Retry-After} worth waiting for, in milliseconds
+     */
+    public AdaptiveBackOffPolicy(long baseDelay, long maxDelay, long maxRetryAfter) {
+        this(baseDelay, maxDelay, maxRetryAfter, new ThreadWaitSleeper(), new ConcurrentHashMap<>());
+    }
+
+    private AdaptiveBackOffPolicy(long baseDelay, long maxDelay, long maxRetryAfter, Sleeper sleeper,
+                                  ConcurrentMap<String, AtomicLong> labels) {
+        if (baseDelay <= 0 || maxDelay < baseDelay) {
+            throw new IllegalArgumentException("baseDelay must be positive and not greater than maxDelay");
+        }
+        this.baseDelay = baseDelay;
+        this.maxDelay = maxDelay;
+        this.maxRetryAfter = maxRetryAfter;
+        this.sleeper = sleeper;
+        this.labels = labels;
+    }
+
+    @Override
+    public AdaptiveBackOffPolicy withSleeper(Sleeper sleeper) {
+        return new AdaptiveBackOffPolicy(baseDelay, maxDelay, maxRetryAfter, sleeper, labels);
+    }
+
+    /**
+     * @return the delay a new retry of {@code label} starts from, before jitter
+     */
+    public long getDelay(String label) {
+        AtomicLong state = labels.get(label);
+        return state == null ? baseDelay : delayOf(state.get());
+    }
+
+    /**
+     * @return the per-label delays and latencies as {@link Snapshottable} state, which can be a bean
+     * while the policy itself is not
+     */
+    public Snapshottable snapshot(String name) {
+        return new Snapshottable() {
+
+            @Override
+            public String getSnapshotName() {
+                return "backoff." + name;
+            }
+
+            @Override
+            public void writeSnapshot(DataOutput out) throws IOException {
+                List<Map.Entry<String, AtomicLong>> snapshot = new ArrayList<>(labels.entrySet());
+                out.writeInt(snapshot.size());
+                for (Map.Entry<String, AtomicLong> entry : snapshot) {
+                    out.writeUTF(entry.getKey());
+                    out.writeLong(entry.getValue().get());
+                }
+            }
+
+            @Override
+            public void readSnapshot(DataInput in) throws IOException {
+                int count = in.readInt();
+                for (int i = 0; i < count; i++) {
+                    String label = in.readUTF();
+                    long packed = in.readLong();
+                    // the delays may have been configured differently back then
+                    long scale = Math.max(SCALE_UNIT, Math.min(packed >>> SCALE_SHIFT, maxScale()));
+                    labels.putIfAbsent(label, new AtomicLong(scale << SCALE_SHIFT | packed & LATENCY_MASK));
+                }
+            }
+        };
+    }
+
+    @Override
+    public BackOffContext start(RetryContext context) {
+        return new AdaptiveBackOffContext(context);
+    }
+
+    @Override
+    public void backOff(BackOffContext backOffContext) throws BackOffInterruptedException {
+        AdaptiveBackOffContext adaptiveContext = (AdaptiveBackOffContext) backOffContext;
+        RetryContext context = adaptiveContext.context;
+        long floor = getDelay(labelOf(context));
+        long retryAfter = retryAfter(context.getLastThrowable());
+        if (retryAfter > maxRetryAfter) {
+            context.setAttribute(RETRY_AFTER, retryAfter);
+            context.setExhaustedOnly();
+            return;
+        }
+        long ceiling = Math.max(floor, Math.min(maxDelay, adaptiveContext.previous * 3));
+        long delay = floor == ceiling ? floor : ThreadLocalRandom.current().nextLong(floor, ceiling + 1);
+        delay = Math.max(delay, retryAfter);
+        if (Deadline.expiresWithin(context, delay)) {
+            DeadlineRetryListener.exceeded(context);
+            return;
+        }
+        adaptiveContext.previous = delay;
+        context.setAttribute(BACKOFF, delay);
+        try {
+            sleeper.sleep(delay);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BackOffInterruptedException("Thread interrupted while sleeping", e);
+        } finally {
+            AttemptTimer.attemptStarted(context);
+        }
+    }
+
+    @Override
+    public <T, E extends Throwable> boolean open(RetryContext context, RetryCallback<T, E> callback) {
+        AttemptTimer.open(context);
+        return true;
+    }
+
+    @Override
+    public <T, E extends Throwable> void onError(RetryContext context, RetryCallback<T, E> callback, Throwable throwable) {
+        int factor = isOverloaded(statusCodeOf(statusOf(throwable))) ? 4 : 2;
+        AttemptTimer timer = AttemptTimer.of(context);
+        long latency = timer == null ? -1L : TimeUnit.NANOSECONDS.toMillis(timer.failedAttemptNanos(context));
+        update(labelOf(context), scale -> Math.min(scale * factor, maxScale()), latency);
+    }
+
+    @Override
+    public <T, E extends Throwable> void close(RetryContext context, RetryCallback<T, E> callback, Throwable throwable) {
+        if (throwable == null) {
+            AttemptTimer timer = AttemptTimer.of(context);
+            long latency = timer == null ? -1L : TimeUnit.NANOSECONDS.toMillis(timer.attemptNanos());
+            update(labelOf(context), scale -> Math.max(scale - SCALE_UNIT, SCALE_UNIT), latency);
+        }
+    }
+
+    private void update(String label, LongUnaryOperator scaling, long latency) {
+        AtomicLong state = labels.computeIfAbsent(label, key -> new AtomicLong((long) SCALE_UNIT << SCALE_SHIFT));
+        state.updateAndGet(packed -> {
+            long scale = scaling.applyAsLong(packed >>> SCALE_SHIFT);
+            long average = packed & LATENCY_MASK;
+            if (latency >= 0) {
+                average = average == 0 ? latency : average + ((latency - average) >> LATENCY_SMOOTHING);
+            }
+            return scale << SCALE_SHIFT | Math.min(average, LATENCY_MASK);
+        });
+    }
+
+    private long delayOf(long packed) {
+        long scaled = baseDelay * (packed >>> SCALE_SHIFT) / SCALE_UNIT;
+        return Math.min(maxDelay, Math.max(scaled, packed & LATENCY_MASK));
+    }
+
+    private long maxScale() {
+        return Math.min(maxDelay * SCALE_UNIT / baseDelay, LATENCY_MASK);
+    }
+
+    private static String labelOf(RetryContext context) {
+        Object name = context.getAttribute(RetryContext.NAME);
+        return name == null ? UNLABELED : name.toString();
+    }
+
+    private static boolean isOverloaded(int statusCode) {
+        return statusCode == HttpStatus.TOO_MANY_REQUESTS.value() || statusCode == HttpStatus.SERVICE_UNAVAILABLE.value();
+    }
+
+    /**
+     * @return the {@link HttpStatusCodeException} or {@link UpstreamStatusException} in the cause
+     * chain, or {@code null}
+     */
+    private static Throwable statusOf(Throwable throwable) {
+        for (Throwable cause = throwable; cause != null; cause = cause.getCause()) {
+            if (cause instanceof HttpStatusCodeException || cause instanceof UpstreamStatusException) {
+                return cause;
+            }
+            if (cause.getCause() == cause) {
+                break;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return the {@code Retry-After} of a 429/503 in milliseconds, or 0 if there is none
+     */
+    static long retryAfter(Throwable throwable) {
+        Throwable status = statusOf(throwable);
+        HttpHeaders headers = headersOf(status);
+        if (!isOverloaded(statusCodeOf(status)) || headers == null) {
+            return 0L;
+        }
+        String value = headers.getFirst(HttpHeaders.RETRY_AFTER);
+        if (value == null) {
+            return 0L;
+        }
+        try {
+            return TimeUnit.SECONDS.toMillis(Math.max(0L, Long.parseLong(value.trim())));
+        } catch (NumberFormatException notSeconds) {
+            try {
+                ZonedDateTime date = ZonedDateTime.parse(value.trim(), DateTimeFormatter.RFC_1123_DATE_TIME);
+                return Math.max(0L, Duration.between(ZonedDateTime.now(date.getZone()), date).toMillis());
+            } catch (DateTimeParseException notDate) {
+                return 0L;
+            }
+        }
+    }
+
+    private static int statusCodeOf(Throwable status) {
+        if (status instanceof UpstreamStatusException) {
+            return ((UpstreamStatusException) status).getStatusCode();
+        }
+        return status == null ? 0 : ((HttpStatusCodeException) status).getRawStatusCode();
+    }
+
+    private static HttpHeaders headersOf(Throwable status) {
+        if (status instanceof UpstreamStatusException) {
+            return ((UpstreamStatusException) status).getHeaders();
+        }
+        return status == null ? null : ((HttpStatusCodeException) status).getResponseHeaders();
+    }
+
+    private final class AdaptiveBackOffContext implements BackOffContext {
+
+        private static final long serialVersionUID = 6502817163449230481L;
+
+        private final RetryContext context;
+        private long previous = baseDelay;
+
+        private AdaptiveBackOffContext(RetryContext context) {
+            this.context = context;
+        }
+    }
+
+}
@@ -0,0 +1,89 @@
+package io.github.nivance.retry.example.support;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * {@link Bulkhead} whose limit follows latency, after the gradient limiters used for TCP
+ * congestion control: the ratio of the long-term average latency to the latest sample shrinks the
+ * limit while calls slow down, and a queue allowance of {@code sqrt(limit)} grows it back while they
+ * don't. The limit only grows while it is actually used, and the long-term average decays quickly
+ * after a latency drop so the limiter does not stay stuck at a slow baseline.
+ * <p>
+ * Samples are applied under a lock that is only tried, so a contended sample is skipped rather than
+ * waited for.
+ */
+public class AdaptiveBulkhead implements Bulkhead {
+
+    private static final double SMOOTHING = 0.2d;
+    private static final double TOLERANCE = 1.5d;
+    private static final int LONG_WINDOW = 600;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private volatile int limit;
+    private double estimatedLimit;
+    private double longRtt;
+
+    public AdaptiveBulkhead(int initialLimit, int minLimit, int maxLimit) {
+        if (minLimit <= 0 || initialLimit < minLimit || maxLimit < initialLimit) {
+            throw new IllegalArgumentException("limits must satisfy 0 < minLimit <= initialLimit <= maxLimit");
+        }
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.limit = initialLimit;
+        this.estimatedLimit = initialLimit;
+    }
+
+    @Override
+    public boolean tryAcquire() {
+        int current;
+        do {
+            current = inFlight.get();
+            if (current >= limit) {
+                return false;
+            }
+        } while (!inFlight.compareAndSet(current, current + 1));
+        return true;
+    }
+
+    @Override
+    public void release(long durationNanos) {
+        int inFlightAtRelease = inFlight.getAndDecrement();
+        if (durationNanos > 0 && lock.tryLock()) {
+            try {
+                sample(durationNanos, inFlightAtRelease);
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    private void sample(double rtt, int inFlightAtRelease) {
+        longRtt = longRtt == 0d ? rtt : longRtt + (rtt - longRtt) / LONG_WINDOW;
+        if (longRtt / rtt > 2d) {
+            longRtt *= 0.95d;
+        }
+        if (inFlightAtRelease < estimatedLimit / 2) {
+            return;
+        }
+        double gradient = Math.max(0.5d, Math.min(1d, TOLERANCE * longRtt / rtt));
+        double newLimit = estimatedLimit * gradient + Math.sqrt(estimatedLimit);
+        estimatedLimit = Math.max(minLimit, Math.min(maxLimit, estimatedLimit * (1 - SMOOTHING) + newLimit * SMOOTHING));
+        limit = (int) estimatedLimit;
+    }
+
+    @Override
+    public int getLimit() {
+        return limit;
+    }
+
+    @Override
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+}
@@ -0,0 +1,213 @@
+package io.github.nivance.retry.example.support;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.springframework.retry.RecoveryCallback;
+import org.springframework.retry.RetryCallback;
+import org.springframework.retry.RetryContext;
+import org.springframework.retry.RetryListener;
+import org.springframework.retry.RetryPolicy;
+import org.springframework.retry.TerminatedRetryException;
+import org.springframework.retry.backoff.BackOffContext;
+import org.springframework.retry.backoff.BackOffPolicy;
+import org.springframework.retry.backoff.FixedBackOffPolicy;
+import org.springframework.retry.backoff.SleepingBackOffPolicy;
+import org.springframework.retry.policy.SimpleRetryPolicy;
+import org.springframework.retry.support.RetrySynchronizationManager;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Non-blocking counterpart of {@link org.springframework.retry.support.RetryTemplate}. Attempts
+ * run on an {@link Executor} and backoffs are scheduled on a shared timer, so no thread is parked
+ * while the next attempt is pending. Retry policies, backoff policies and listeners are the regular
+ * spring-retry ones, which keeps statistics and labels consistent with the annotation based path.
+ * A backoff that would end after the retry's {@link Deadline} is not scheduled; the retry is
+ * recovered right away instead. Cancelling the returned future stops the retry without recovery.
+ */
+@Slf4j
+public class AsyncRetryTemplate {
+
+    private final ScheduledExecutorService scheduler;
+    private final Executor executor;
+    private final DelayCapturingSleeper sleeper = new DelayCapturingSleeper();
+
+    private RetryPolicy retryPolicy = new SimpleRetryPolicy();
+    private BackOffPolicy backOffPolicy = new FixedBackOffPolicy().withSleeper(sleeper);
+    private RetryListener[] listeners = new RetryListener[0];
+
+    public AsyncRetryTemplate(ScheduledExecutorService scheduler, Executor executor) {
+        this.scheduler = scheduler;
+        this.executor = executor;
+    }
+
+    public void setRetryPolicy(RetryPolicy retryPolicy) {
+        this.retryPolicy = retryPolicy;
+    }
+
+    public void setBackOffPolicy(SleepingBackOffPolicy<?> backOffPolicy) {
+        this.backOffPolicy = backOffPolicy.withSleeper(sleeper);
+    }
+
+    public void setListeners(RetryListener[] listeners) {
+        this.listeners = listeners.clone();
+    }
+
+    public <T> CompletableFuture<T> execute(String label, RetryCallback<T, ? extends Throwable> callback) {
+        return execute(label, callback, null);
+    }
+
+    public <T> CompletableFuture<T> execute(String label, RetryCallback<T, ? extends Throwable> callback,
+                                            RecoveryCallback<T> recoveryCallback) {
+        RetryContext context = retryPolicy.open(null);
+        context.setAttribute(RetryContext.NAME, label);
+        CompletableFuture<T> result = new CompletableFuture<>();
+        for (RetryListener listener : listeners) {
+            if (!listener.open(context, callback)) {
+                result.completeExceptionally(new TerminatedRetryException("Retry terminated abnormally by interceptor before first attempt"));
+                return result;
+            }
+        }
+        Execution<T> execution = new Execution<>(context, backOffPolicy.start(context), callback, recoveryCallback, result);
+        result.whenComplete((value, e) -> {
+            if (result.isCancelled()) {
+                cancelled(execution);
+            }
+        });
+        executor.execute(() -> attempt(execution));
+        return result;
+    }
+
+    private <T> void attempt(Execution<T> execution) {
+        RetryContext context = execution.context;
+        if (execution.result.isCancelled()) {
+            close(execution, new RetryCancelledException("Retry cancelled by caller"));
+            return;
+        }
+        if (!retryPolicy.canRetry(context) || context.isExhaustedOnly()) {
+            exhausted(execution);
+            return;
+        }
+        AttemptTimer.attemptStarted(context);
+        RetrySynchronizationManager.register(context);
+        try {
+            T value = execution.callback.doWithRetry(context);
+            close(execution, null);
+            execution.result.complete(value);
+        } catch (Throwable e) {
+            onError(execution, e);
+        } finally {
+            RetrySynchronizationManager.clear();
+        }
+    }
+
+    private <T> void onError(Execution<T> execution, Throwable e) {
+        RetryContext context = execution.context;
+        retryPolicy.registerThrowable(context, e);
+        try {
+            for (int i = listeners.length; i-- > 0; ) {
+                listeners[i].onError(context, execution.callback, e);
+            }
+        } catch (RuntimeException stopped) {
+            close(execution, stopped);
+            execution.result.completeExceptionally(stopped);
+            return;
+        }
+        if (execution.result.isCancelled()) {
+            close(execution, e);
+            return;
+        }
+        if (!retryPolicy.canRetry(context) || context.isExhaustedOnly()) {
+            exhausted(execution);
+            return;
+        }
+        long delay;
+        try {
+            backOffPolicy.backOff(execution.backOffContext);
+            delay = sleeper.take();
+            context.setAttribute(AdaptiveBackOffPolicy.BACKOFF, delay);
+        } catch (RuntimeException backOffFailure) {
+            close(execution, backOffFailure);
+            execution.result.completeExceptionally(backOffFailure);
+            return;
+        }
+        if (Deadline.expiresWithin(context, delay)) {
+            DeadlineRetryListener.exceeded(context);
+            exhausted(execution);
+            return;
+        }
+        log.debug("Scheduling retry {} of {} in {} ms", context.getRetryCount(), context.getAttribute(RetryContext.NAME), delay);
+        execution.timer = scheduler.schedule(() -> executor.execute(() -> attempt(execution)), delay, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * A pending backoff is called off right away; an attempt in flight runs to its end, and the
+     * retry stops after it.
+     */
+    private <T> void cancelled(Execution<T> execution) {
+        ScheduledFuture<?> timer = execution.timer;
+        if (timer != null && timer.cancel(false)) {
+            close(execution, new RetryCancelledException("Retry cancelled by caller"));
+        }
+    }
+
+    private <T> void exhausted(Execution<T> execution) {
+        RetryContext context = execution.context;
+        context.setAttribute(RetryContext.EXHAUSTED, true);
+        Throwable lastThrowable = context.getLastThrowable();
+        if (execution.recoveryCallback == null) {
+            close(execution, lastThrowable);
+            execution.result.completeExceptionally(lastThrowable != null ? lastThrowable
+                    : new TerminatedRetryException("Retry exhausted before first attempt"));
+            return;
+        }
+        try {
+            T value = execution.recoveryCallback.recover(context);
+            context.setAttribute(RetryContext.RECOVERED, true);
+            close(execution, lastThrowable);
+            execution.result.complete(value);
+        } catch (Throwable e) {
+            close(execution, e);
+            execution.result.completeExceptionally(e);
+        }
+    }
+
+    private <T> void close(Execution<T> execution, Throwable lastThrowable) {
+        if (!execution.closed.compareAndSet(false, true)) {
+            // a cancelled timer may still have handed its attempt to the executor
+            return;
+        }
+        RetryContext context = execution.context;
+        retryPolicy.close(context);
+        context.setAttribute(RetryContext.CLOSED, true);
+        for (int i = listeners.length; i-- > 0; ) {
+            listeners[i].close(context, execution.callback, lastThrowable);
+        }
+    }
+
+    private static final class Execution<T> {
+
+        private final RetryContext context;
+        private final BackOffContext backOffContext;
+        private final RetryCallback<T, ? extends Throwable> callback;
+        private final RecoveryCallback<T> recoveryCallback;
+        private final CompletableFuture<T> result;
+        private final AtomicBoolean closed = new AtomicBoolean();
+        private volatile ScheduledFuture<?> timer;
+
+        private Execution(RetryContext context, BackOffContext backOffContext, RetryCallback<T, ? extends Throwable> callback,
+                          RecoveryCallback<T> recoveryCallback, CompletableFuture<T> result) {
+            this.context = context;
+            this.backOffContext = backOffContext;
+            this.callback = callback;
+            this.recoveryCallback = recoveryCallback;
+            this.result = result;
+        }
+    }
+
+}
@@ -0,0 +1,55 @@
+package io.github.nivance.retry.example.support;
+
+import org.springframework.retry.RetryContext;
+
+/**
+ * Lets a template abort the blocking I/O of an attempt it gives up on. Interrupting the attempt's
+ * thread is not enough: HttpClient 4 does not notice an interrupt while it waits for a response.
+ * <p>
+ * The template puts one into the attempt's context; {@link RetryAwareClientHttpRequestFactory}
+ * registers every request the attempt makes, and {@link #abort()} closes the connection of the one
+ * in flight, which then fails with an I/O error. Other blocking calls of the attempt run to their end.
+ */
+public final class AttemptAbort {
+
+    private static final String ATTRIBUTE = "attempt.abort";
+
+    private volatile Runnable current;
+    private volatile boolean aborted;
+
+    /**
+     * @return a new abort handle, set on {@code context}
+     */
+    public static AttemptAbort of(RetryContext context) {
+        AttemptAbort abort = new AttemptAbort();
+        context.setAttribute(ATTRIBUTE, abort);
+        return abort;
+    }
+
+    /**
+     * Registers the call the attempt bound to {@code context} is about to make, if its template can
+     * abort it. A call registered after the abort is aborted right away.
+     */
+    public static void register(RetryContext context, Runnable call) {
+        Object abort = context.getAttribute(ATTRIBUTE);
+        if (abort instanceof AttemptAbort) {
+            ((AttemptAbort) abort).register(call);
+        }
+    }
+
+    private void register(Runnable call) {
+        current = call;
+        if (aborted) {
+            call.run();
+        }
+    }
+
+    public void abort() {
+        aborted = true;
+        Runnable call = current;
+        if (call != null) {
+            call.run();
+        }
+    }
+
+}
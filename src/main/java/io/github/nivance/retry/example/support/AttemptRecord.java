@@ -0,0 +1,50 @@
+package io.github.nivance.retry.example.support;
+
+import lombok.Value;
+
+/**
+ * One retry attempt, or the end of a retry that failed, as kept by {@link AttemptRingBuffer}.
+ */
+@Value
+public class AttemptRecord {
+
+    public enum Outcome {
+        /**
+         * The attempt failed; whether it is retried shows in the next record of the same retry.
+         */
+        FAILED,
+        SUCCEEDED,
+        /**
+         * The retry failed and was recovered.
+         */
+        RECOVERED,
+        /**
+         * The retry failed and the failure was passed on to the caller.
+         */
+        EXHAUSTED
+    }
+
+    long sequence;
+    long timestamp;
+    String label;
+    /**
+     * 1 for the first attempt; 0 if a retry was rejected before its first attempt.
+     */
+    int attempt;
+    /**
+     * Milliseconds slept before the attempt.
+     */
+    long backoffMillis;
+    /**
+     * Duration of the attempt, or of the whole retry for {@link Outcome#RECOVERED} and
+     * {@link Outcome#EXHAUSTED}.
+     */
+    long latencyMicros;
+    String exception;
+    /**
+     * State of the circuit breaker guarding the retry when the record was taken, if any.
+     */
+    String circuitBreakerState;
+    Outcome outcome;
+
+}
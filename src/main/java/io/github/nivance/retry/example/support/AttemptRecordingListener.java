@@ -0,0 +1,82 @@
+package io.github.nivance.retry.example.support;
+
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.retry.RetryCallback;
+import org.springframework.retry.RetryContext;
+import org.springframework.retry.RetryListener;
+import org.springframework.util.ClassUtils;
+
+/**
+ * Records every attempt, and the end of every failed retry, into an {@link AttemptRingBuffer} and
+ * as a {@code io.github.nivance.retry.Attempt} flight recorder event, so a retry storm can be
+ * reconstructed afterwards without debug logging. Flight recorder events cost next to nothing while
+ * no recording is running, and are skipped altogether on JVMs without {@code jdk.jfr}.
+ * <p>
+ * Attempts are timed with the retry's {@link AttemptTimer}, the same one the statistics use, so the
+ * backoff taken from {@link AdaptiveBackOffPolicy#BACKOFF} is left out of the attempt latency.
+ */
+public class AttemptRecordingListener implements RetryListener {
+
+    private static final boolean FLIGHT_RECORDER_PRESENT = ClassUtils.isPresent("jdk.jfr.Event",
+            AttemptRecordingListener.class.getClassLoader());
+
+    private final AttemptRingBuffer buffer;
+
+    public AttemptRecordingListener(AttemptRingBuffer buffer) {
+        this.buffer = buffer;
+    }
+
+    public AttemptRingBuffer getBuffer() {
+        return buffer;
+    }
+
+    @Override
+    public <T, E extends Throwable> boolean open(RetryContext context, RetryCallback<T, E> callback) {
+        AttemptTimer.open(context);
+        return true;
+    }
+
+    @Override
+    public <T, E extends Throwable> void onError(RetryContext context, RetryCallback<T, E> callback, Throwable throwable) {
+        AttemptTimer timer = AttemptTimer.of(context);
+        if (timer == null) {
+            return;
+        }
+        record(context, context.getRetryCount(), backoffOf(context), timer.failedAttemptNanos(context), throwable,
+                AttemptRecord.Outcome.FAILED);
+    }
+
+    @Override
+    public <T, E extends Throwable> void close(RetryContext context, RetryCallback<T, E> callback, Throwable throwable) {
+        AttemptTimer timer = AttemptTimer.of(context);
+        if (timer == null) {
+            return;
+        }
+        if (throwable == null) {
+            record(context, context.getRetryCount() + 1, backoffOf(context), timer.attemptNanos(), null,
+                    AttemptRecord.Outcome.SUCCEEDED);
+        } else {
+            record(context, context.getRetryCount(), 0L, timer.retryNanos(), throwable,
+                    context.hasAttribute(RetryContext.RECOVERED) ? AttemptRecord.Outcome.RECOVERED : AttemptRecord.Outcome.EXHAUSTED);
+        }
+    }
+
+    private void record(RetryContext context, int attempt, long backoff, long latencyNanos, Throwable throwable,
+                        AttemptRecord.Outcome outcome) {
+        Object name = context.getAttribute(RetryContext.NAME);
+        SlidingWindowCircuitBreaker circuitBreaker = SlidingWindowCircuitBreakerRetryPolicy.circuitBreakerOf(context);
+        AttemptRecord record = buffer.record(name == null ? null : name.toString(), attempt, backoff,
+                TimeUnit.NANOSECONDS.toMicros(latencyNanos), throwable == null ? null : throwable.getClass().getName(),
+                circuitBreaker == null ? null : circuitBreaker.getState().name(), outcome);
+        if (FLIGHT_RECORDER_PRESENT) {
+            RetryAttemptEvent.commit(record);
+        }
+    }
+
+    private static long backoffOf(RetryContext context) {
+        Object backoff = context.getAttribute(AdaptiveBackOffPolicy.BACKOFF);
+        return backoff instanceof Long ? (Long) backoff : 0L;
+    }
+
+}
@@ -0,0 +1,79 @@
+package io.github.nivance.retry.example.support;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Lock-free ring buffer of the most recent {@link AttemptRecord}s. Recording claims a slot with one
+ * atomic increment and overwrites whatever was there; readers skip slots that were overwritten while
+ * they were reading, so a snapshot may miss records but never mixes up their order.
+ */
+public class AttemptRingBuffer {
+
+    private final AtomicReferenceArray<AttemptRecord> slots;
+    private final int mask;
+    private final AtomicLong cursor = new AtomicLong();
+
+    /**
+     * @param capacity rounded up to a power of two
+     */
+    public AttemptRingBuffer(int capacity) {
+        if (capacity <= 0 || capacity > 1 << 30) {
+            throw new IllegalArgumentException("capacity must be between 1 and 2^30");
+        }
+        int size = Integer.highestOneBit(capacity) == capacity ? capacity : Integer.highestOneBit(capacity) << 1;
+        this.slots = new AtomicReferenceArray<>(size);
+        this.mask = size - 1;
+    }
+
+    public AttemptRecord record(String label, int attempt, long backoffMillis, long latencyMicros, String exception,
+                                String circuitBreakerState, AttemptRecord.Outcome outcome) {
+        long sequence = cursor.getAndIncrement();
+        AttemptRecord record = new AttemptRecord(sequence, System.currentTimeMillis(), label, attempt, backoffMillis,
+                latencyMicros, exception, circuitBreakerState, outcome);
+        slots.lazySet((int) (sequence & mask), record);
+        return record;
+    }
+
+    /**
+     * @param label only records of this label, or all if {@code null}
+     * @param limit at most this many of the most recent records
+     * @return records oldest first
+     */
+    public List<AttemptRecord> snapshot(String label, int limit) {
+        if (limit <= 0) {
+            return Collections.emptyList();
+        }
+        long end = cursor.get();
+        long start = Math.max(0L, end - slots.length());
+        Deque<AttemptRecord> records = new ArrayDeque<>(Math.min(limit, slots.length()));
+        for (long sequence = start; sequence < end; sequence++) {
+            AttemptRecord record = slots.get((int) (sequence & mask));
+            if (record == null || record.getSequence() != sequence || label != null && !label.equals(record.getLabel())) {
+                continue;
+            }
+            if (records.size() == limit) {
+                records.pollFirst();
+            }
+            records.addLast(record);
+        }
+        return new ArrayList<>(records);
+    }
+
+    public int getCapacity() {
+        return slots.length();
+    }
+
+    /**
+     * @return number of records ever taken, including overwritten ones
+     */
+    public long getRecordCount() {
+        return cursor.get();
+    }
+
+}
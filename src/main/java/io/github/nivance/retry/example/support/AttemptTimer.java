@@ -0,0 +1,99 @@
+package io.github.nivance.retry.example.support;
+
+import org.springframework.retry.RetryContext;
+
+/**
+ * Start of a retry and of its current attempt, shared by every listener and backoff policy of the
+ * retry under one context attribute. Timing a retry costs this one object, created when the retry
+ * opens; attempts only update its primitive fields.
+ * <p>
+ * Listeners do not see the end of a backoff, so whoever runs the backoff marks the next attempt with
+ * {@link #attemptStarted(RetryContext)}: {@link AdaptiveBackOffPolicy} once it has slept,
+ * {@link AsyncRetryTemplate} and {@link BatchRetryTemplate} when the scheduled attempt or round
+ * starts. With any other backoff, a retried attempt is measured from the failure before it, backoff
+ * included.
+ * <p>
+ * The listeners of one retry run one after the other, so the fields need no synchronization beyond
+ * their visibility across the threads of an asynchronous retry.
+ */
+public final class AttemptTimer {
+
+    private static final String ATTRIBUTE = "timer.attempts";
+
+    private final long retryStarted;
+    private volatile long attemptStarted;
+    private volatile long lastAttempt;
+    private volatile int failures;
+
+    private AttemptTimer(long now) {
+        this.retryStarted = now;
+        this.attemptStarted = now;
+    }
+
+    /**
+     * To be called when the retry opens, by every listener that needs the timer; the first one
+     * creates it. A stateful retry opens again for every attempt, which then starts.
+     */
+    public static AttemptTimer open(RetryContext context) {
+        long now = System.nanoTime();
+        Object timer = context.getAttribute(ATTRIBUTE);
+        if (timer instanceof AttemptTimer) {
+            AttemptTimer existing = (AttemptTimer) timer;
+            existing.attemptStarted = now;
+            return existing;
+        }
+        AttemptTimer created = new AttemptTimer(now);
+        context.setAttribute(ATTRIBUTE, created);
+        return created;
+    }
+
+    /**
+     * @return the timer of the retry, or {@code null} if no listener opened one
+     */
+    public static AttemptTimer of(RetryContext context) {
+        Object timer = context.getAttribute(ATTRIBUTE);
+        return timer instanceof AttemptTimer ? (AttemptTimer) timer : null;
+    }
+
+    /**
+     * Marks the start of the next attempt, once its backoff is over.
+     */
+    public static void attemptStarted(RetryContext context) {
+        AttemptTimer timer = of(context);
+        if (timer != null) {
+            timer.attemptStarted = System.nanoTime();
+        }
+    }
+
+    /**
+     * For {@link org.springframework.retry.RetryListener#onError}: the first listener to ask ends the
+     * attempt that just failed, the others get the same latency.
+     *
+     * @return nanoseconds the failed attempt took
+     */
+    public long failedAttemptNanos(RetryContext context) {
+        int count = context.getRetryCount();
+        if (count != failures) {
+            long now = System.nanoTime();
+            lastAttempt = now - attemptStarted;
+            attemptStarted = now;
+            failures = count;
+        }
+        return lastAttempt;
+    }
+
+    /**
+     * @return nanoseconds the attempt in flight has taken so far, e.g. one that just succeeded
+     */
+    public long attemptNanos() {
+        return System.nanoTime() - attemptStarted;
+    }
+
+    /**
+     * @return nanoseconds since the retry opened
+     */
+    public long retryNanos() {
+        return System.nanoTime() - retryStarted;
+    }
+
+}
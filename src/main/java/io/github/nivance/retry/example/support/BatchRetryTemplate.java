@@ -0,0 +1,348 @@
+package io.github.nivance.retry.example.support;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+import org.springframework.retry.RetryCallback;
+import org.springframework.retry.RetryContext;
+import org.springframework.retry.RetryListener;
+import org.springframework.retry.TerminatedRetryException;
+import org.springframework.retry.backoff.BackOffContext;
+import org.springframework.retry.backoff.BackOffPolicy;
+import org.springframework.retry.backoff.ExponentialRandomBackOffPolicy;
+import org.springframework.retry.backoff.SleepingBackOffPolicy;
+import org.springframework.retry.context.RetryContextSupport;
+import org.springframework.retry.support.RetrySynchronizationManager;
+
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Retries a batch of calls in rounds. Each round runs the items that are still failing on at most
+ * {@code parallelism} workers; then the whole batch backs off once, instead of every item sleeping on
+ * its own timer, and only the failed subset runs again. Items that still fail after
+ * {@code maxAttempts} rounds, or whose failure is not retryable, are recovered one by one at the end.
+ * <p>
+ * Like {@link AsyncRetryTemplate}, no thread is parked during a backoff: the next round is scheduled
+ * on a shared timer. Workers see the batch's {@link RetryContext}, so label based settings such as
+ * per-label timeouts apply to every item.
+ * <p>
+ * The {@link Deadline} of the calling thread applies to the whole batch: no round starts that could
+ * not finish before it, and a batch whose deadline has passed is recovered without any call.
+ * Cancelling the returned future stops the batch after the calls in flight, without recovery.
+ * <p>
+ * Listeners see the batch as one retry: it opens before the first round, every round with a
+ * retryable failure is one error, and it closes once every item has its outcome. A round the
+ * executor rejects is not run; its items are recovered with the {@link RejectedExecutionException}.
+ */
+@Slf4j
+public class BatchRetryTemplate {
+
+    private static final RetryCallback<Void, RuntimeException> BATCH_CALLBACK = new BatchCallback();
+
+    private final ScheduledExecutorService scheduler;
+    private final Executor executor;
+    private final DelayCapturingSleeper sleeper = new DelayCapturingSleeper();
+
+    private int parallelism = 8;
+    private int maxAttempts = 3;
+    private BackOffPolicy backOffPolicy = new ExponentialRandomBackOffPolicy().withSleeper(sleeper);
+    private Predicate<Throwable> retryable = throwable -> true;
+    private RetryListener[] listeners = new RetryListener[0];
+
+    public BatchRetryTemplate(ScheduledExecutorService scheduler, Executor executor) {
+        this.scheduler = scheduler;
+        this.executor = executor;
+    }
+
+    /**
+     * @param parallelism most calls of one batch in flight at the same time
+     */
+    public void setParallelism(int parallelism) {
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * @param maxAttempts rounds, including the first one
+     */
+    public void setMaxAttempts(int maxAttempts) {
+        this.maxAttempts = maxAttempts;
+    }
+
+    public void setBackOffPolicy(SleepingBackOffPolicy<?> backOffPolicy) {
+        this.backOffPolicy = backOffPolicy.withSleeper(sleeper);
+    }
+
+    /**
+     * @param retryable whether an item that failed with the given exception runs again in the next round
+     */
+    public void setRetryable(Predicate<Throwable> retryable) {
+        this.retryable = retryable;
+    }
+
+    public void setListeners(RetryListener[] listeners) {
+        this.listeners = listeners.clone();
+    }
+
+    /**
+     * @return one outcome per item, in the order of {@code items}
+     */
+    public <I, R> CompletableFuture<List<Outcome<R>>> execute(String label, List<I> items, Function<? super I, ? extends R> call,
+                                                             BiFunction<? super I, Throwable, ? extends R> recoverer) {
+        RetryContextSupport context = new RetryContextSupport(null);
+        context.setAttribute(RetryContext.NAME, label);
+        Deadline deadline = Deadline.current();
+        if (deadline != null) {
+            context.setAttribute(Deadline.ATTRIBUTE, deadline);
+        }
+        Batch<I, R> batch = new Batch<>(context, backOffPolicy.start(context), items, call, recoverer);
+        for (RetryListener listener : listeners) {
+            if (!listener.open(context, BATCH_CALLBACK)) {
+                batch.result.completeExceptionally(new TerminatedRetryException("Batch terminated by listener before first round"));
+                return batch.result;
+            }
+        }
+        batch.result.whenComplete((value, e) -> {
+            if (batch.result.isCancelled()) {
+                close(batch, new RetryCancelledException("Batch cancelled by caller"));
+            }
+        });
+        if (context.isExhaustedOnly() || deadline != null && deadline.isExpired()) {
+            // e.g. rejected by the bulkhead, or the deadline has passed
+            Throwable error = context.getLastThrowable() != null ? context.getLastThrowable() : new DeadlineExceededException(label);
+            for (int i = 0; i < items.size(); i++) {
+                batch.errors.set(i, error);
+            }
+            complete(batch);
+            return batch.result;
+        }
+        List<Integer> all = new ArrayList<>(items.size());
+        for (int i = 0; i < items.size(); i++) {
+            all.add(i);
+        }
+        runRound(batch, all);
+        return batch.result;
+    }
+
+    private <I, R> void runRound(Batch<I, R> batch, List<Integer> indexes) {
+        if (batch.result.isCancelled()) {
+            return;
+        }
+        if (indexes.isEmpty()) {
+            complete(batch);
+            return;
+        }
+        batch.rounds++;
+        AttemptTimer.attemptStarted(batch.context);
+        // every round has its own queue and count, so a worker still leaving the previous round
+        // cannot pick up items of this one
+        Queue<Integer> pending = new ConcurrentLinkedQueue<>(indexes);
+        AtomicInteger remaining = new AtomicInteger(indexes.size());
+        int workers = 0;
+        try {
+            for (int i = Math.min(parallelism, indexes.size()); i > 0; i--) {
+                executor.execute(() -> drain(batch, pending, remaining));
+                workers++;
+            }
+        } catch (RejectedExecutionException e) {
+            if (workers > 0) {
+                // the workers that were accepted drain the whole round
+                return;
+            }
+            log.warn("Round {} of {} rejected by the executor", batch.rounds, batch.context.getAttribute(RetryContext.NAME));
+            for (Integer index : indexes) {
+                batch.errors.set(index, e);
+            }
+            complete(batch);
+        }
+    }
+
+    private <I, R> void drain(Batch<I, R> batch, Queue<Integer> pending, AtomicInteger remaining) {
+        RetrySynchronizationManager.register(batch.context);
+        try {
+            Integer index;
+            while (!batch.result.isCancelled() && (index = pending.poll()) != null) {
+                attempt(batch, index);
+                if (remaining.decrementAndGet() == 0) {
+                    roundDone(batch);
+                }
+            }
+        } finally {
+            RetrySynchronizationManager.clear();
+        }
+    }
+
+    private <I, R> void attempt(Batch<I, R> batch, int index) {
+        try {
+            batch.values.set(index, batch.call.apply(batch.items.get(index)));
+            batch.errors.set(index, null);
+        } catch (Throwable e) {
+            batch.errors.set(index, e);
+        }
+        batch.attempts.incrementAndGet(index);
+    }
+
+    private <I, R> void roundDone(Batch<I, R> batch) {
+        if (batch.result.isCancelled()) {
+            return;
+        }
+        List<Integer> failed = new ArrayList<>();
+        for (int i = 0; i < batch.items.size(); i++) {
+            Throwable error = batch.errors.get(i);
+            if (error != null && retryable.test(error)) {
+                failed.add(i);
+            }
+        }
+        if (failed.isEmpty()) {
+            complete(batch);
+            return;
+        }
+        Throwable error = batch.errors.get(failed.get(0));
+        batch.context.registerThrowable(error);
+        try {
+            for (int i = listeners.length; i-- > 0; ) {
+                listeners[i].onError(batch.context, BATCH_CALLBACK, error);
+            }
+        } catch (RuntimeException stopped) {
+            close(batch, stopped);
+            batch.result.completeExceptionally(stopped);
+            return;
+        }
+        if (batch.rounds >= maxAttempts || batch.context.isExhaustedOnly()) {
+            complete(batch);
+            return;
+        }
+        long delay;
+        try {
+            backOffPolicy.backOff(batch.backOffContext);
+            delay = sleeper.take();
+        } catch (RuntimeException backOffFailure) {
+            complete(batch);
+            return;
+        }
+        if (Deadline.expiresWithin(batch.context, delay)) {
+            DeadlineRetryListener.exceeded(batch.context);
+            complete(batch);
+            return;
+        }
+        log.debug("Retrying {} of {} items of {} in {} ms", failed.size(), batch.items.size(),
+                batch.context.getAttribute(RetryContext.NAME), delay);
+        try {
+            scheduler.schedule(() -> runRound(batch, failed), delay, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            log.warn("Retry of {} rejected by the scheduler", batch.context.getAttribute(RetryContext.NAME));
+            complete(batch);
+        }
+    }
+
+    private <I, R> void complete(Batch<I, R> batch) {
+        List<Outcome<R>> outcomes = new ArrayList<>(batch.items.size());
+        Throwable lastThrowable = null;
+        try {
+            for (int i = 0; i < batch.items.size(); i++) {
+                Throwable error = batch.errors.get(i);
+                if (error == null) {
+                    outcomes.add(new Outcome<>(batch.values.get(i), batch.attempts.get(i), false));
+                } else {
+                    lastThrowable = error;
+                    outcomes.add(new Outcome<>(batch.recoverer.apply(batch.items.get(i), error), batch.attempts.get(i), true));
+                }
+            }
+        } catch (Throwable e) {
+            batch.context.setAttribute(RetryContext.EXHAUSTED, true);
+            close(batch, e);
+            batch.result.completeExceptionally(e);
+            return;
+        }
+        if (lastThrowable != null) {
+            batch.context.setAttribute(RetryContext.EXHAUSTED, true);
+            batch.context.setAttribute(RetryContext.RECOVERED, true);
+        }
+        close(batch, lastThrowable);
+        batch.result.complete(outcomes);
+    }
+
+    private <I, R> void close(Batch<I, R> batch, Throwable lastThrowable) {
+        if (!batch.closed.compareAndSet(false, true)) {
+            // a cancellation racing with the end of the batch
+            return;
+        }
+        batch.context.setAttribute(RetryContext.CLOSED, true);
+        for (int i = listeners.length; i-- > 0; ) {
+            listeners[i].close(batch.context, BATCH_CALLBACK, lastThrowable);
+        }
+    }
+
+    /**
+     * Result of one item of a batch.
+     */
+    @Value
+    public static class Outcome<R> {
+        R value;
+        int attempts;
+        /**
+         * Whether {@link #getValue()} comes from the recoverer.
+         */
+        boolean recovered;
+    }
+
+    private static final class Batch<I, R> {
+
+        private final RetryContextSupport context;
+        private final BackOffContext backOffContext;
+        private final List<I> items;
+        private final Function<? super I, ? extends R> call;
+        private final BiFunction<? super I, Throwable, ? extends R> recoverer;
+        private final AtomicReferenceArray<R> values;
+        private final AtomicReferenceArray<Throwable> errors;
+        private final AtomicIntegerArray attempts;
+        private final CompletableFuture<List<Outcome<R>>> result = new CompletableFuture<>();
+        private final AtomicBoolean closed = new AtomicBoolean();
+        /**
+         * Only changed between rounds, published to the workers by the executor hand-off.
+         */
+        private int rounds;
+
+        private Batch(RetryContextSupport context, BackOffContext backOffContext, List<I> items, Function<? super I, ? extends R> call,
+                      BiFunction<? super I, Throwable, ? extends R> recoverer) {
+            this.context = context;
+            this.backOffContext = backOffContext;
+            this.items = items;
+            this.call = call;
+            this.recoverer = recoverer;
+            this.values = new AtomicReferenceArray<>(items.size());
+            this.errors = new AtomicReferenceArray<>(items.size());
+            this.attempts = new AtomicIntegerArray(items.size());
+        }
+    }
+
+    /**
+     * The callback listeners see, which only see the batch as a whole: items are called one by one,
+     * so calling it does nothing. Listeners that need to can tell a batch by this type.
+     */
+    public static final class BatchCallback implements RetryCallback<Void, RuntimeException> {
+
+        private BatchCallback() {
+        }
+
+        @Override
+        public Void doWithRetry(RetryContext context) {
+            return null;
+        }
+    }
+
+}
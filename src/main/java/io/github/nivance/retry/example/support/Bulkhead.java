@@ -0,0 +1,22 @@
+package io.github.nivance.retry.example.support;
+
+/**
+ * Limits concurrent calls without queueing: a call either gets a permit immediately or is rejected.
+ */
+public interface Bulkhead {
+
+    /**
+     * @return {@code true} if the call may proceed; it must then be followed by {@link #release(long)}
+     */
+    boolean tryAcquire();
+
+    /**
+     * @param durationNanos how long the permit was held
+     */
+    void release(long durationNanos);
+
+    int getLimit();
+
+    int getInFlight();
+
+}
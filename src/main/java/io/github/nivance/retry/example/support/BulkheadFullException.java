@@ -0,0 +1,15 @@
+package io.github.nivance.retry.example.support;
+
+/**
+ * Signals that a call was rejected by a full {@link Bulkhead}. Like
+ * {@link CircuitBreakerOpenException} it is thrown under overload, so no stack trace is captured.
+ */
+public class BulkheadFullException extends RuntimeException {
+
+    private static final long serialVersionUID = 2893716430563052842L;
+
+    public BulkheadFullException(String name) {
+        super("Bulkhead '" + name + "' is full", null, false, false);
+    }
+
+}
@@ -0,0 +1,75 @@
+package io.github.nivance.retry.example.support;
+
+import java.util.Map;
+
+import org.springframework.retry.RetryCallback;
+import org.springframework.retry.RetryContext;
+import org.springframework.retry.context.RetryContextSupport;
+import org.springframework.retry.interceptor.MethodInvocationRetryCallback;
+import org.springframework.retry.listener.RetryListenerSupport;
+
+/**
+ * Applies a {@link Bulkhead} to annotated retries, selected by label, around the whole call
+ * including its retries. Add it to the {@code listeners} of {@code @Retryable} (or to the listeners
+ * of a template); labels without a bulkhead are left alone. A call over the limit does not wait: it
+ * registers a {@link BulkheadFullException} and goes straight to its {@code @Recover} method.
+ */
+public class BulkheadListener extends RetryListenerSupport {
+
+    public static final String REJECTED = "bulkhead.rejected";
+
+    private static final String ACQUIRED = "bulkhead.acquired";
+    private static final String ACQUIRED_AT = "bulkhead.acquiredAt";
+
+    private final Map<String, Bulkhead> bulkheads;
+
+    public BulkheadListener(Map<String, Bulkhead> bulkheads) {
+        this.bulkheads = bulkheads;
+    }
+
+    public Map<String, Bulkhead> getBulkheads() {
+        return bulkheads;
+    }
+
+    @Override
+    public <T, E extends Throwable> boolean open(RetryContext context, RetryCallback<T, E> callback) {
+        String label = labelOf(context, callback);
+        Bulkhead bulkhead = label == null ? null : bulkheads.get(label);
+        if (bulkhead == null) {
+            return true;
+        }
+        if (bulkhead.tryAcquire()) {
+            context.setAttribute(ACQUIRED, bulkhead);
+            context.setAttribute(ACQUIRED_AT, System.nanoTime());
+            return true;
+        }
+        context.setAttribute(REJECTED, true);
+        if (context instanceof RetryContextSupport) {
+            ((RetryContextSupport) context).registerThrowable(new BulkheadFullException(label));
+        }
+        context.setExhaustedOnly();
+        return true;
+    }
+
+    @Override
+    public <T, E extends Throwable> void close(RetryContext context, RetryCallback<T, E> callback, Throwable throwable) {
+        Bulkhead bulkhead = (Bulkhead) context.getAttribute(ACQUIRED);
+        if (bulkhead != null) {
+            context.removeAttribute(ACQUIRED);
+            bulkhead.release(System.nanoTime() - (Long) context.getAttribute(ACQUIRED_AT));
+        }
+    }
+
+    /**
+     * The interceptor path only names the context once the first attempt runs, but its callback
+     * already carries the label.
+     */
+    private static String labelOf(RetryContext context, RetryCallback<?, ?> callback) {
+        Object name = context.getAttribute(RetryContext.NAME);
+        if (name == null && callback instanceof MethodInvocationRetryCallback) {
+            name = ((MethodInvocationRetryCallback<?, ?>) callback).getLabel();
+        }
+        return name == null ? null : name.toString();
+    }
+
+}
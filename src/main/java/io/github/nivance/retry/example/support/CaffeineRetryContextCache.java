@@ -0,0 +1,68 @@
+package io.github.nivance.retry.example.support;
+
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.retry.RetryContext;
+import org.springframework.retry.policy.RetryContextCache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+
+/**
+ * Concurrent replacement for {@link org.springframework.retry.policy.MapRetryContextCache}. Instead
+ * of failing with {@link org.springframework.retry.policy.RetryCacheCapacityExceededException} when
+ * full, it evicts by W-TinyLFU, and contexts not touched for {@code expireAfterAccess} are dropped.
+ * Evicting a context forgets the state of that key, e.g. a stateful circuit restarts closed.
+ * <p>
+ * Hits and misses are counted by {@link #containsKey(Object)}, which is how
+ * {@link org.springframework.retry.support.RetryTemplate} looks up a key before getting it.
+ */
+public class CaffeineRetryContextCache implements RetryContextCache {
+
+    private final Cache<Object, RetryContext> cache;
+
+    public CaffeineRetryContextCache(long maximumSize, long expireAfterAccess, TimeUnit unit) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterAccess(expireAfterAccess, unit)
+                .recordStats()
+                .build();
+    }
+
+    @Override
+    public RetryContext get(Object key) {
+        return cache.asMap().get(key);
+    }
+
+    @Override
+    public void put(Object key, RetryContext context) {
+        cache.put(key, context);
+    }
+
+    @Override
+    public void remove(Object key) {
+        cache.invalidate(key);
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return cache.getIfPresent(key) != null;
+    }
+
+    public long size() {
+        return cache.estimatedSize();
+    }
+
+    public CacheStats getStats() {
+        return cache.stats();
+    }
+
+    /**
+     * Runs pending evictions now instead of on the next cache operations.
+     */
+    public void cleanUp() {
+        cache.cleanUp();
+    }
+
+}
@@ -0,0 +1,136 @@
+package io.github.nivance.retry.example.support;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.springframework.retry.RetryCallback;
+import org.springframework.retry.RetryContext;
+import org.springframework.retry.backoff.Sleeper;
+import org.springframework.retry.listener.RetryListenerSupport;
+import org.springframework.retry.support.RetrySynchronizationManager;
+
+/**
+ * Stops retries whose caller is gone and drains the rest on shutdown.
+ * <ul>
+ * <li>A retry on an interrupted thread, e.g. a request cancelled because it timed out, does not
+ * start, and one interrupted while running ends with a {@link RetryCancelledException} at
+ * its next failure instead of retrying. Neither is recovered.</li>
+ * <li>Used as the {@link Sleeper} of a backoff policy, backoffs can be interrupted and end early once
+ * draining starts.</li>
+ * <li>{@link #drain(long, TimeUnit)} lets no retry back off again: retries that already failed and
+ * any retry failing from then on go to recovery right away, and it waits for the retries in flight
+ * to finish.</li>
+ * </ul>
+ * Draining only flips a flag. Each retry reads it on its own thread, at its next failure or when its
+ * backoff is cut short, and stops itself; contexts are never touched by the draining thread. An
+ * attempt already scheduled on a timer, e.g. by {@link AsyncRetryTemplate}, still runs first.
+ * Add it to the listeners of every template, first, so its error handling runs after the others.
+ * <p>
+ * It waits with a {@link ReentrantLock} rather than a monitor, so a retry on a virtual thread that
+ * closes while draining does not pin its carrier.
+ */
+public class CancellationListener extends RetryListenerSupport implements Sleeper {
+
+    /**
+     * Set when a retry was sent to recovery early because the application is shutting down.
+     */
+    public static final String DRAINED = "cancellation.drained";
+
+    private static final long serialVersionUID = -2231468297640526410L;
+
+    private static final String IN_FLIGHT = "cancellation.inFlight";
+
+    /**
+     * A token per retry: contexts compare by their attributes, which keep changing.
+     */
+    private final Set<Object> inFlight = ConcurrentHashMap.newKeySet();
+    private final CountDownLatch draining = new CountDownLatch(1);
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition drained = lock.newCondition();
+
+    @Override
+    public <T, E extends Throwable> boolean open(RetryContext context, RetryCallback<T, E> callback) {
+        if (Thread.currentThread().isInterrupted()) {
+            return false;
+        }
+        Object key = new Object();
+        context.setAttribute(IN_FLIGHT, key);
+        inFlight.add(key);
+        return true;
+    }
+
+    @Override
+    public <T, E extends Throwable> void onError(RetryContext context, RetryCallback<T, E> callback, Throwable throwable) {
+        if (Thread.currentThread().isInterrupted()) {
+            throw new RetryCancelledException("Retry cancelled after " + context.getRetryCount() + " attempts");
+        }
+        if (isDraining()) {
+            stop(context);
+        }
+    }
+
+    @Override
+    public <T, E extends Throwable> void close(RetryContext context, RetryCallback<T, E> callback, Throwable throwable) {
+        Object key = context.getAttribute(IN_FLIGHT);
+        if (key != null && inFlight.remove(key) && isDraining()) {
+            lock.lock();
+            try {
+                drained.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Sleeps for {@code backOffPeriod} milliseconds, or until draining starts.
+     */
+    @Override
+    public void sleep(long backOffPeriod) throws InterruptedException {
+        if (draining.await(backOffPeriod, TimeUnit.MILLISECONDS)) {
+            RetryContext context = RetrySynchronizationManager.getContext();
+            if (context != null) {
+                stop(context);
+            }
+        }
+    }
+
+    /**
+     * Sends the retries in flight to recovery at their next backoff and waits for them to finish.
+     *
+     * @return the number of retries still in flight after {@code timeout}
+     */
+    public int drain(long timeout, TimeUnit unit) throws InterruptedException {
+        // wakes the retries backing off, which stop themselves
+        draining.countDown();
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        lock.lock();
+        try {
+            long remaining;
+            while (!inFlight.isEmpty() && (remaining = deadline - System.nanoTime()) > 0) {
+                drained.awaitNanos(remaining);
+            }
+        } finally {
+            lock.unlock();
+        }
+        return inFlight.size();
+    }
+
+    public boolean isDraining() {
+        return draining.getCount() == 0;
+    }
+
+    public int getInFlightCount() {
+        return inFlight.size();
+    }
+
+    private static void stop(RetryContext context) {
+        context.setAttribute(DRAINED, true);
+        context.setExhaustedOnly();
+    }
+
+}
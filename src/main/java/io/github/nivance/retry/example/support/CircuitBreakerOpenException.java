@@ -0,0 +1,15 @@
+package io.github.nivance.retry.example.support;
+
+/**
+ * Signals that a call was rejected by an open {@link SlidingWindowCircuitBreaker}. Rejections are
+ * frequent while a breaker is open, so no stack trace is captured.
+ */
+public class CircuitBreakerOpenException extends RuntimeException {
+
+    private static final long serialVersionUID = -3370462436105213071L;
+
+    public CircuitBreakerOpenException(String name) {
+        super("Circuit breaker '" + name + "' is open", null, false, false);
+    }
+
+}
@@ -0,0 +1,161 @@
+package io.github.nivance.retry.example.support;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * {@link SlidingWindowCircuitBreaker}s created on demand per key, e.g. per upstream host or path,
+ * so one failing endpoint does not open the breaker of every other one. Breakers not used for
+ * {@code idleTimeout} are dropped by {@link #evictIdle()}; the timeout should be well above the
+ * breakers' wait duration in open state, so an evicted breaker would have closed again anyway.
+ * Breakers restored from a snapshot count as just used; those of keys not accepted any more are skipped.
+ * <p>
+ * Keys usually come from requests, so the registry only creates breakers for the configured
+ * {@link #setKeys keys}, if any, and for at most {@code maxSize} keys at a time; other keys are
+ * rejected with an {@link IllegalArgumentException} or {@link IllegalStateException}. Breakers are
+ * named {@code namePrefix + key}, which must not collide with the names of other breakers.
+ */
+public class CircuitBreakerRegistry implements Snapshottable {
+
+    /**
+     * Last-use timestamps are only written when they moved by more than this, so hot keys do not
+     * write to a shared cache line on every call.
+     */
+    private static final long TOUCH_GRANULARITY = TimeUnit.SECONDS.toNanos(1);
+
+    private final String namePrefix;
+    private final Function<String, SlidingWindowCircuitBreaker> factory;
+    private final int maxSize;
+    private final long idleTimeout;
+    private final ConcurrentMap<String, Registration> circuitBreakers = new ConcurrentHashMap<>();
+    private volatile Set<String> keys = Collections.emptySet();
+
+    public CircuitBreakerRegistry(String namePrefix, Function<String, SlidingWindowCircuitBreaker> factory, int maxSize,
+                                  long idleTimeout, TimeUnit unit) {
+        this.namePrefix = namePrefix;
+        this.factory = factory;
+        this.maxSize = maxSize;
+        this.idleTimeout = unit.toNanos(idleTimeout);
+    }
+
+    /**
+     * @param keys the only keys breakers are created for, any key if empty
+     */
+    public void setKeys(Collection<String> keys) {
+        this.keys = Collections.unmodifiableSet(new HashSet<>(keys));
+    }
+
+    public boolean accepts(String key) {
+        Set<String> accepted = keys;
+        return accepted.isEmpty() || accepted.contains(key);
+    }
+
+    /**
+     * @throws IllegalArgumentException if {@code key} is not {@link #accepts accepted}
+     * @throws IllegalStateException if the registry already holds {@code maxSize} breakers; concurrent
+     * calls for new keys may each add one more
+     */
+    public SlidingWindowCircuitBreaker circuitBreaker(String key) {
+        Registration registration = circuitBreakers.get(key);
+        if (registration == null) {
+            if (!accepts(key)) {
+                throw new IllegalArgumentException("No circuit breaker for key " + key);
+            }
+            if (circuitBreakers.size() >= maxSize) {
+                throw new IllegalStateException("Too many circuit breakers, no room for key " + key);
+            }
+            registration = circuitBreakers.computeIfAbsent(key, k -> new Registration(factory.apply(namePrefix + k)));
+        }
+        long now = System.nanoTime();
+        if (now - registration.lastUsed > TOUCH_GRANULARITY) {
+            registration.lastUsed = now;
+        }
+        return registration.circuitBreaker;
+    }
+
+    /**
+     * @return the breaker of the registry named {@code name}, or {@code null} if the name is not one
+     * of this registry's
+     */
+    public SlidingWindowCircuitBreaker circuitBreakerNamed(String name) {
+        return name.startsWith(namePrefix) ? circuitBreaker(name.substring(namePrefix.length())) : null;
+    }
+
+    /**
+     * @return the number of evicted breakers
+     */
+    public int evictIdle() {
+        long now = System.nanoTime();
+        int evicted = 0;
+        for (Map.Entry<String, Registration> candidate : circuitBreakers.entrySet()) {
+            if (now - candidate.getValue().lastUsed > idleTimeout
+                    && circuitBreakers.remove(candidate.getKey(), candidate.getValue())) {
+                evicted++;
+            }
+        }
+        return evicted;
+    }
+
+    public int size() {
+        return circuitBreakers.size();
+    }
+
+    public int getOpenCount() {
+        int open = 0;
+        for (Registration registration : circuitBreakers.values()) {
+            if (registration.circuitBreaker.getState() == SlidingWindowCircuitBreaker.State.OPEN) {
+                open++;
+            }
+        }
+        return open;
+    }
+
+    @Override
+    public String getSnapshotName() {
+        return "circuitBreakers";
+    }
+
+    @Override
+    public void writeSnapshot(DataOutput out) throws IOException {
+        List<Map.Entry<String, Registration>> snapshot = new ArrayList<>(circuitBreakers.entrySet());
+        out.writeInt(snapshot.size());
+        for (Map.Entry<String, Registration> entry : snapshot) {
+            out.writeUTF(entry.getKey());
+            entry.getValue().circuitBreaker.writeSnapshot(out);
+        }
+    }
+
+    @Override
+    public void readSnapshot(DataInput in) throws IOException {
+        int count = in.readInt();
+        for (int i = 0; i < count; i++) {
+            String key = in.readUTF();
+            SlidingWindowCircuitBreaker circuitBreaker = accepts(key) && circuitBreakers.size() < maxSize
+                    ? circuitBreaker(key) : factory.apply(namePrefix + key);
+            circuitBreaker.readSnapshot(in);
+        }
+    }
+
+    private static final class Registration {
+
+        private final SlidingWindowCircuitBreaker circuitBreaker;
+        private volatile long lastUsed = System.nanoTime();
+
+        private Registration(SlidingWindowCircuitBreaker circuitBreaker) {
+            this.circuitBreaker = circuitBreaker;
+        }
+    }
+
+}
@@ -0,0 +1,199 @@
+package io.github.nivance.retry.example.support;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import io.github.nivance.retry.example.support.SlidingWindowCircuitBreaker.State;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Shares the state of registered {@link SlidingWindowCircuitBreaker}s between instances through a
+ * {@link GossipTransport}. Every local transition is published right away and applied by the peers'
+ * breaker of the same name:
+ * <ul>
+ * <li>a peer opening opens the local breaker, or restarts its wait if it is open already;</li>
+ * <li>a peer probing in half-open state keeps the local breaker open, so only one instance
+ * probes;</li>
+ * <li>a peer closing after successful probes closes the local breaker.</li>
+ * </ul>
+ * Heartbeats with every breaker's state and failure rates are published periodically by
+ * {@link #publishHeartbeats()} and update {@link #getPeerStates()}. Every message also carries the
+ * time of the sender's last own transition, and a peer's transition is applied only if it is newer
+ * than the last one applied from that peer. So a lost transition is applied from the next heartbeat,
+ * while heartbeats reporting a transition that was already applied change nothing.
+ * <p>
+ * Messages are not authenticated: anyone who can reach the gossip port can open or close the
+ * breakers. The transport has to be bound to an interface only the cluster can reach.
+ */
+@Slf4j
+public class ClusteredCircuitBreakers {
+
+    private static final short MAGIC = 0x4342;
+    private static final byte TRANSITION = 1;
+    private static final byte HEARTBEAT = 2;
+
+    private static final ThreadLocal<Boolean> APPLYING = new ThreadLocal<>();
+
+    private final String nodeId;
+    private final GossipTransport transport;
+    private final ConcurrentMap<String, SlidingWindowCircuitBreaker> circuitBreakers = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, PeerState> peerStates = new ConcurrentHashMap<>();
+    /**
+     * Time of the last own transition per breaker, strictly increasing.
+     */
+    private final ConcurrentMap<String, Long> localTransitions = new ConcurrentHashMap<>();
+    /**
+     * Time of the last transition applied per {@code node/breaker}.
+     */
+    private final ConcurrentMap<String, Long> appliedTransitions = new ConcurrentHashMap<>();
+
+    public ClusteredCircuitBreakers(String nodeId, GossipTransport transport) {
+        this.nodeId = nodeId;
+        this.transport = transport;
+    }
+
+    public void register(SlidingWindowCircuitBreaker circuitBreaker) {
+        circuitBreakers.put(circuitBreaker.getName(), circuitBreaker);
+        circuitBreaker.addStateTransitionListener(this::onStateTransition);
+    }
+
+    public void start() {
+        transport.start(this::onMessage);
+    }
+
+    public void publishHeartbeats() {
+        circuitBreakers.values().forEach(circuitBreaker -> publish(HEARTBEAT, circuitBreaker, circuitBreaker.getState(),
+                localTransitions.getOrDefault(circuitBreaker.getName(), 0L)));
+    }
+
+    /**
+     * @return the last state received per {@code node/breaker}
+     */
+    public Map<String, PeerState> getPeerStates() {
+        return Collections.unmodifiableMap(peerStates);
+    }
+
+    private void onStateTransition(SlidingWindowCircuitBreaker circuitBreaker, State from, State to) {
+        if (APPLYING.get() == null) {
+            long now = System.currentTimeMillis();
+            publish(TRANSITION, circuitBreaker, to, localTransitions.merge(circuitBreaker.getName(), now,
+                    (previous, current) -> Math.max(previous + 1, current)));
+        }
+    }
+
+    private void publish(byte type, SlidingWindowCircuitBreaker circuitBreaker, State state, long transitionAt) {
+        byte[] node = nodeId.getBytes(StandardCharsets.UTF_8);
+        byte[] name = circuitBreaker.getName().getBytes(StandardCharsets.UTF_8);
+        ByteBuffer buffer = ByteBuffer.allocate(2 + 1 + 2 + node.length + 2 + name.length + 1 + 4 + 4 + 8 + 8);
+        buffer.putShort(MAGIC).put(type)
+                .putShort((short) node.length).put(node)
+                .putShort((short) name.length).put(name)
+                .put((byte) state.ordinal())
+                .putFloat(circuitBreaker.getFailureRate())
+                .putFloat(circuitBreaker.getSlowCallRate())
+                .putLong(System.currentTimeMillis())
+                .putLong(transitionAt);
+        try {
+            transport.publish(buffer.array());
+        } catch (RuntimeException e) {
+            log.warn("Could not publish state of {}: {}", circuitBreaker.getName(), e.toString());
+        }
+    }
+
+    void onMessage(byte[] message) {
+        ByteBuffer buffer = ByteBuffer.wrap(message);
+        try {
+            if (buffer.getShort() != MAGIC) {
+                return;
+            }
+            byte type = buffer.get();
+            String node = readString(buffer);
+            String name = readString(buffer);
+            State state = State.values()[buffer.get()];
+            PeerState peerState = new PeerState(node, state, buffer.getFloat(), buffer.getFloat(), buffer.getLong());
+            long transitionAt = buffer.getLong();
+            if (nodeId.equals(node)) {
+                return;
+            }
+            String key = node + "/" + name;
+            record(key, peerState);
+            SlidingWindowCircuitBreaker circuitBreaker = circuitBreakers.get(name);
+            if (circuitBreaker != null && transitionAt > 0 && newerTransition(key, transitionAt)) {
+                if (type == TRANSITION) {
+                    log.info("Peer {} moved {} to {}", node, name, state);
+                } else {
+                    log.info("Peer {} moved {} to {}, learnt from its heartbeat", node, name, state);
+                }
+                apply(circuitBreaker, state);
+            }
+        } catch (BufferUnderflowException | ArrayIndexOutOfBoundsException e) {
+            log.warn("Dropping malformed gossip message");
+        }
+    }
+
+    private void record(String key, PeerState peerState) {
+        PeerState previous = peerStates.get(key);
+        while (previous == null || previous.getSentAt() <= peerState.getSentAt()) {
+            if (previous == null ? peerStates.putIfAbsent(key, peerState) == null : peerStates.replace(key, previous, peerState)) {
+                return;
+            }
+            previous = peerStates.get(key);
+        }
+    }
+
+    private boolean newerTransition(String key, long transitionAt) {
+        Long previous = appliedTransitions.get(key);
+        while (previous == null || previous < transitionAt) {
+            if (previous == null ? appliedTransitions.putIfAbsent(key, transitionAt) == null
+                    : appliedTransitions.replace(key, previous, transitionAt)) {
+                return true;
+            }
+            previous = appliedTransitions.get(key);
+        }
+        return false;
+    }
+
+    private static void apply(SlidingWindowCircuitBreaker circuitBreaker, State state) {
+        APPLYING.set(Boolean.TRUE);
+        try {
+            switch (state) {
+                case OPEN:
+                    if (circuitBreaker.getState() == State.OPEN) {
+                        circuitBreaker.holdOpen();
+                    } else {
+                        circuitBreaker.transitionToOpen();
+                    }
+                    break;
+                case HALF_OPEN:
+                    circuitBreaker.holdOpen();
+                    break;
+                default:
+                    circuitBreaker.transitionToClosed();
+            }
+        } finally {
+            APPLYING.remove();
+        }
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.getShort()];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    @Value
+    public static class PeerState {
+        String nodeId;
+        State state;
+        float failureRate;
+        float slowCallRate;
+        long sentAt;
+    }
+
+}
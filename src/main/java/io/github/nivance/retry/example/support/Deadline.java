@@ -0,0 +1,91 @@
+package io.github.nivance.retry.example.support;
+
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.retry.RetryContext;
+
+/**
+ * Point in time by which a caller needs its answer, on the {@link System#nanoTime()} clock. The
+ * deadline of the request being served is bound to the thread by {@link DeadlineInterceptor} and
+ * copied into each {@link RetryContext} by {@link DeadlineRetryListener}, from where attempts on any
+ * thread read it.
+ * <p>
+ * On the wire it travels as a relative timeout in the {@value #HEADER} header, so clock skew between
+ * hosts does not matter.
+ */
+public final class Deadline {
+
+    /**
+     * Remaining budget in milliseconds, read from incoming and set on outgoing requests.
+     */
+    public static final String HEADER = "X-Request-Timeout";
+    public static final String ATTRIBUTE = "deadline";
+    /**
+     * Set when a retry was cut short because its deadline could not be met.
+     */
+    public static final String EXCEEDED = "deadline.exceeded";
+
+    /**
+     * Far enough that nothing waits for it, close enough that {@code nanoTime} differences do not overflow.
+     */
+    private static final long MAX_TIMEOUT_NANOS = Long.MAX_VALUE >> 2;
+    private static final ThreadLocal<Deadline> CURRENT = new ThreadLocal<>();
+
+    private final long deadlineNanos;
+
+    private Deadline(long deadlineNanos) {
+        this.deadlineNanos = deadlineNanos;
+    }
+
+    public static Deadline after(long timeout, TimeUnit unit) {
+        return new Deadline(System.nanoTime() + Math.min(unit.toNanos(Math.max(timeout, 0L)), MAX_TIMEOUT_NANOS));
+    }
+
+    /**
+     * @return the time left, negative once the deadline has passed
+     */
+    public long remaining(TimeUnit unit) {
+        return unit.convert(deadlineNanos - System.nanoTime(), TimeUnit.NANOSECONDS);
+    }
+
+    public boolean isExpired() {
+        return deadlineNanos - System.nanoTime() <= 0;
+    }
+
+    /**
+     * @return the deadline of the request served by the current thread, or {@code null}
+     */
+    public static Deadline current() {
+        return CURRENT.get();
+    }
+
+    public static void setCurrent(Deadline deadline) {
+        CURRENT.set(deadline);
+    }
+
+    public static void clearCurrent() {
+        CURRENT.remove();
+    }
+
+    /**
+     * @return the deadline of a retry, or {@code null} if it has none
+     */
+    public static Deadline of(RetryContext context) {
+        return (Deadline) context.getAttribute(ATTRIBUTE);
+    }
+
+    /**
+     * @return {@code true} if the retry has a deadline that passes within {@code delay} milliseconds,
+     * i.e. an attempt after that backoff could not finish in time
+     */
+    public static boolean expiresWithin(RetryContext context, long delay) {
+        Deadline deadline = of(context);
+        return deadline != null && deadline.remaining(TimeUnit.MILLISECONDS) <= delay;
+    }
+
+    @Override
+    public String toString() {
+        return "Deadline[remaining=" + remaining(TimeUnit.MILLISECONDS) + " ms]";
+    }
+
+}
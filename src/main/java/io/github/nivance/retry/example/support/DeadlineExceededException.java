@@ -0,0 +1,23 @@
+package io.github.nivance.retry.example.support;
+
+import org.springframework.remoting.RemoteAccessException;
+
+/**
+ * Signals that a call was not made because the caller's {@link Deadline} had already passed. It is a
+ * {@link RemoteAccessException} so the usual {@code @Recover} methods handle it, and like
+ * {@link BulkheadFullException} it carries no stack trace.
+ */
+public class DeadlineExceededException extends RemoteAccessException {
+
+    private static final long serialVersionUID = -4410927756371523386L;
+
+    public DeadlineExceededException(String name) {
+        super("Deadline of '" + name + "' exceeded");
+    }
+
+    @Override
+    public synchronized Throwable fillInStackTrace() {
+        return this;
+    }
+
+}
@@ -0,0 +1,69 @@
+package io.github.nivance.retry.example.support;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+/**
+ * Binds the {@link Deadline} given by the {@value Deadline#HEADER} header of an incoming request to
+ * the thread handling it, and to the thread running its {@link Callable} if the handler returns one.
+ * Requests without the header have no deadline.
+ */
+public class DeadlineInterceptor implements AsyncHandlerInterceptor, CallableProcessingInterceptor {
+
+    private static final String ATTRIBUTE = DeadlineInterceptor.class.getName() + ".deadline";
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        String timeout = request.getHeader(Deadline.HEADER);
+        if (timeout == null) {
+            return true;
+        }
+        Deadline deadline;
+        try {
+            deadline = Deadline.after(Long.parseLong(timeout.trim()), TimeUnit.MILLISECONDS);
+        } catch (NumberFormatException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, Deadline.HEADER + " must be a number of milliseconds");
+        }
+        Deadline.setCurrent(deadline);
+        request.setAttribute(ATTRIBUTE, deadline);
+        return true;
+    }
+
+    /**
+     * Asynchronous handlers have captured the deadline in their retry context by now, and the
+     * thread goes back to the container.
+     */
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        Deadline.clearCurrent();
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        Deadline.clearCurrent();
+    }
+
+    @Override
+    public <T> void preProcess(NativeWebRequest request, Callable<T> task) {
+        Deadline deadline = (Deadline) request.getAttribute(ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        if (deadline != null) {
+            Deadline.setCurrent(deadline);
+        }
+    }
+
+    @Override
+    public <T> void postProcess(NativeWebRequest request, Callable<T> task, Object concurrentResult) {
+        Deadline.clearCurrent();
+    }
+
+}
@@ -0,0 +1,56 @@
+package io.github.nivance.retry.example.support;
+
+import org.springframework.retry.RetryCallback;
+import org.springframework.retry.RetryContext;
+import org.springframework.retry.context.RetryContextSupport;
+import org.springframework.retry.interceptor.MethodInvocationRetryCallback;
+import org.springframework.retry.listener.RetryListenerSupport;
+
+/**
+ * Copies the {@link Deadline} of the current request into the {@link RetryContext} when a retry
+ * opens, so attempts and backoffs on other threads see it too. A retry whose deadline has already
+ * passed registers a {@link DeadlineExceededException} and goes straight to recovery without a single
+ * attempt; one whose deadline passes during an attempt is not retried.
+ * <p>
+ * Should come early in the listeners of a template, so later ones see the deadline.
+ */
+public class DeadlineRetryListener extends RetryListenerSupport {
+
+    @Override
+    public <T, E extends Throwable> boolean open(RetryContext context, RetryCallback<T, E> callback) {
+        Deadline deadline = Deadline.current();
+        if (deadline == null) {
+            return true;
+        }
+        context.setAttribute(Deadline.ATTRIBUTE, deadline);
+        if (deadline.isExpired()) {
+            if (context instanceof RetryContextSupport) {
+                ((RetryContextSupport) context).registerThrowable(new DeadlineExceededException(labelOf(context, callback)));
+            }
+            exceeded(context);
+        }
+        return true;
+    }
+
+    @Override
+    public <T, E extends Throwable> void onError(RetryContext context, RetryCallback<T, E> callback, Throwable throwable) {
+        Deadline deadline = Deadline.of(context);
+        if (deadline != null && deadline.isExpired()) {
+            exceeded(context);
+        }
+    }
+
+    static void exceeded(RetryContext context) {
+        context.setAttribute(Deadline.EXCEEDED, true);
+        context.setExhaustedOnly();
+    }
+
+    private static String labelOf(RetryContext context, RetryCallback<?, ?> callback) {
+        Object name = context.getAttribute(RetryContext.NAME);
+        if (name == null && callback instanceof MethodInvocationRetryCallback) {
+            name = ((MethodInvocationRetryCallback<?, ?>) callback).getLabel();
+        }
+        return String.valueOf(name);
+    }
+
+}
@@ -0,0 +1,29 @@
+package io.github.nivance.retry.example.support;
+
+import org.springframework.retry.backoff.Sleeper;
+
+/**
+ * {@link Sleeper} that records the requested period instead of blocking, so that any
+ * {@link org.springframework.retry.backoff.SleepingBackOffPolicy} can be used to compute delays
+ * which are then scheduled on a timer. The period is kept per thread because the policy is
+ * invoked synchronously by the thread that handled the failed attempt.
+ */
+class DelayCapturingSleeper implements Sleeper {
+
+    private static final long serialVersionUID = 4079151735012397316L;
+
+    private static final ThreadLocal<long[]> LAST_PERIOD = ThreadLocal.withInitial(() -> new long[1]);
+
+    @Override
+    public void sleep(long backOffPeriod) {
+        LAST_PERIOD.get()[0] = backOffPeriod;
+    }
+
+    long take() {
+        long[] holder = LAST_PERIOD.get();
+        long period = holder[0];
+        holder[0] = 0L;
+        return period;
+    }
+
+}
@@ -0,0 +1,345 @@
+package io.github.nivance.retry.example.support;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.CRC32;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Persistent queue of retry payloads, stored in an append-only log of memory-mapped segment files.
+ * <p>
+ * A record is {@code length | crc32 | status | replays | payload}. Appends only copy into the mapped
+ * segment; nothing is forced to disk on the caller's thread, {@link #flush()} is meant to be called
+ * periodically and forces every segment written since, so concurrent appends share one flush. A
+ * completed record is marked in place, and a segment is deleted once all of its records are
+ * completed. On startup pending records are read back from all segments, stopping at the first torn
+ * record of a segment, and appends continue in a new segment.
+ * <p>
+ * The queue holds at most {@code capacity} pending records: an append beyond it completes the oldest
+ * record not handed out by {@link #poll(int)}. A payload equal to one still pending is not appended
+ * again; pending payloads are kept on the heap for that, so they should be small, e.g. a URL.
+ */
+@Slf4j
+public class DurableRetryQueue implements Closeable {
+
+    private static final int HEADER_SIZE = 10;
+    private static final int STATUS_OFFSET = 8;
+    private static final int REPLAYS_OFFSET = 9;
+    private static final byte PENDING = 1;
+    private static final byte COMPLETED = 2;
+    private static final String SUFFIX = ".log";
+
+    private final Path directory;
+    private final int segmentSize;
+    private final int capacity;
+    private final ReentrantLock appendLock = new ReentrantLock();
+    private final ConcurrentSkipListMap<Long, Segment> segments = new ConcurrentSkipListMap<>();
+    private final ConcurrentLinkedQueue<Entry> pending = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pendingCount = new AtomicInteger();
+    private final Set<ByteBuffer> pendingPayloads = ConcurrentHashMap.newKeySet();
+    private final AtomicLong dropped = new AtomicLong();
+    private Segment active;
+
+    public DurableRetryQueue(Path directory, int segmentSize, int capacity) throws IOException {
+        this.directory = Files.createDirectories(directory);
+        this.segmentSize = segmentSize;
+        this.capacity = capacity;
+        long lastId = recover();
+        this.active = openSegment(lastId + 1);
+        dropOverCapacity();
+    }
+
+    /**
+     * Appends a payload; it is durable after the next {@link #flush()}.
+     *
+     * @return {@code false} if an equal payload is already pending
+     */
+    public boolean append(byte[] payload) {
+        int recordSize = HEADER_SIZE + payload.length;
+        if (recordSize > segmentSize) {
+            throw new IllegalArgumentException("Payload of " + payload.length + " bytes does not fit into a segment");
+        }
+        ByteBuffer key = ByteBuffer.wrap(payload.clone());
+        if (!pendingPayloads.add(key)) {
+            return false;
+        }
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        Entry entry;
+        appendLock.lock();
+        try {
+            if (active.writePosition + recordSize > segmentSize) {
+                roll();
+            }
+            Segment segment = active;
+            int position = segment.writePosition;
+            ByteBuffer buffer = segment.buffer.duplicate();
+            buffer.position(position + HEADER_SIZE);
+            buffer.put(payload);
+            buffer.putInt(position + 4, (int) crc.getValue());
+            buffer.put(position + STATUS_OFFSET, PENDING);
+            buffer.put(position + REPLAYS_OFFSET, (byte) 0);
+            // written last, so a record is not visible before its payload is
+            buffer.putInt(position, payload.length);
+            segment.writePosition = position + recordSize;
+            segment.live.incrementAndGet();
+            segment.dirty.set(true);
+            entry = new Entry(segment, position, key);
+        } catch (RuntimeException e) {
+            pendingPayloads.remove(key);
+            throw e;
+        } finally {
+            appendLock.unlock();
+        }
+        pendingCount.incrementAndGet();
+        pending.add(entry);
+        dropOverCapacity();
+        return true;
+    }
+
+    /**
+     * Takes up to {@code max} pending entries, oldest first. Each must be handed back with
+     * {@link #complete(Entry)} or {@link #retryLater(Entry)}.
+     */
+    public List<Entry> poll(int max) {
+        List<Entry> batch = new ArrayList<>(max);
+        Entry entry;
+        while (batch.size() < max && (entry = pending.poll()) != null) {
+            batch.add(entry);
+        }
+        return batch;
+    }
+
+    public void complete(Entry entry) {
+        Segment segment = entry.segment;
+        segment.buffer.put(entry.position + STATUS_OFFSET, COMPLETED);
+        segment.dirty.set(true);
+        pendingPayloads.remove(entry.key);
+        pendingCount.decrementAndGet();
+        if (segment.live.decrementAndGet() == 0 && segment.sealed) {
+            delete(segment);
+        }
+    }
+
+    public void retryLater(Entry entry) {
+        int replays = entry.getReplays();
+        entry.segment.buffer.put(entry.position + REPLAYS_OFFSET, (byte) Math.min(replays + 1, Byte.MAX_VALUE));
+        entry.segment.dirty.set(true);
+        pending.add(entry);
+    }
+
+    /**
+     * Forces every segment changed since the last flush to disk.
+     */
+    public void flush() {
+        for (Segment segment : segments.values()) {
+            if (segment.dirty.getAndSet(false)) {
+                segment.buffer.force();
+            }
+        }
+    }
+
+    public int size() {
+        return pendingCount.get();
+    }
+
+    public int getSegmentCount() {
+        return segments.size();
+    }
+
+    /**
+     * @return the number of records completed unreplayed to stay within the capacity
+     */
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    @Override
+    public void close() {
+        flush();
+    }
+
+    private void dropOverCapacity() {
+        Entry oldest;
+        while (pendingCount.get() > capacity && (oldest = pending.poll()) != null) {
+            complete(oldest);
+            if (dropped.incrementAndGet() % 1000 == 1) {
+                log.warn("Retry queue is full, dropped {} retries so far", dropped.get());
+            }
+        }
+    }
+
+    private void roll() {
+        Segment previous = active;
+        try {
+            active = openSegment(previous.id + 1);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not create retry queue segment " + (previous.id + 1), e);
+        }
+        previous.sealed = true;
+        if (previous.live.get() == 0) {
+            delete(previous);
+        }
+    }
+
+    private Segment openSegment(long id) throws IOException {
+        Segment segment = new Segment(id, map(directory.resolve(String.format("%020d%s", id, SUFFIX))));
+        segments.put(id, segment);
+        return segment;
+    }
+
+    private MappedByteBuffer map(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            return channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+        }
+    }
+
+    private void delete(Segment segment) {
+        if (!segments.remove(segment.id, segment)) {
+            return;
+        }
+        // the mapping itself is released once the buffer is garbage collected
+        try {
+            Files.deleteIfExists(segment.file());
+        } catch (IOException e) {
+            log.warn("Could not delete retry queue segment {}", segment.file(), e);
+        }
+    }
+
+    /**
+     * @return the id of the last existing segment, or -1
+     */
+    private long recover() throws IOException {
+        Map<Long, Path> files = new TreeMap<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "*" + SUFFIX)) {
+            for (Path file : stream) {
+                String name = file.getFileName().toString();
+                try {
+                    files.put(Long.parseLong(name.substring(0, name.length() - SUFFIX.length())), file);
+                } catch (NumberFormatException e) {
+                    log.warn("Ignoring unexpected file {} in retry queue", file);
+                }
+            }
+        }
+        long lastId = -1L;
+        for (Map.Entry<Long, Path> file : files.entrySet()) {
+            lastId = file.getKey();
+            Segment segment = new Segment(file.getKey(), map(file.getValue()));
+            segment.sealed = true;
+            segments.put(segment.id, segment);
+            scan(segment);
+            if (segment.live.get() == 0) {
+                delete(segment);
+            }
+        }
+        if (pendingCount.get() > 0) {
+            log.info("Recovered {} pending retries from {}", pendingCount.get(), directory);
+        }
+        return lastId;
+    }
+
+    private void scan(Segment segment) {
+        ByteBuffer buffer = segment.buffer;
+        int position = 0;
+        while (position + HEADER_SIZE <= segmentSize) {
+            int length = buffer.getInt(position);
+            if (length <= 0 || position + HEADER_SIZE + length > segmentSize) {
+                break;
+            }
+            byte[] payload = new byte[length];
+            ByteBuffer record = buffer.duplicate();
+            record.position(position + HEADER_SIZE);
+            record.get(payload);
+            CRC32 crc = new CRC32();
+            crc.update(payload);
+            if ((int) crc.getValue() != buffer.getInt(position + 4)) {
+                log.warn("Torn record at {} of {}, ignoring the rest of the segment", position, segment.file());
+                break;
+            }
+            if (buffer.get(position + STATUS_OFFSET) == PENDING) {
+                ByteBuffer key = ByteBuffer.wrap(payload);
+                if (pendingPayloads.add(key)) {
+                    segment.live.incrementAndGet();
+                    pendingCount.incrementAndGet();
+                    pending.add(new Entry(segment, position, key));
+                } else {
+                    buffer.put(position + STATUS_OFFSET, COMPLETED);
+                    segment.dirty.set(true);
+                }
+            }
+            position += HEADER_SIZE + length;
+        }
+        segment.writePosition = position;
+    }
+
+    /**
+     * A record handed out by {@link #poll(int)}.
+     */
+    public static final class Entry {
+
+        private final Segment segment;
+        private final int position;
+        /**
+         * The payload, also its entry in {@code pendingPayloads}.
+         */
+        private final ByteBuffer key;
+
+        private Entry(Segment segment, int position, ByteBuffer key) {
+            this.segment = segment;
+            this.position = position;
+            this.key = key;
+        }
+
+        public byte[] getPayload() {
+            return key.array().clone();
+        }
+
+        /**
+         * @return how often the record was handed back with {@link #retryLater(Entry)}, across restarts
+         */
+        public int getReplays() {
+            return segment.buffer.get(position + REPLAYS_OFFSET);
+        }
+    }
+
+    private final class Segment {
+
+        private final long id;
+        private final MappedByteBuffer buffer;
+        private final AtomicInteger live = new AtomicInteger();
+        private final AtomicBoolean dirty = new AtomicBoolean();
+        private volatile boolean sealed;
+        private int writePosition;
+
+        private Segment(long id, MappedByteBuffer buffer) {
+            this.id = id;
+            this.buffer = buffer;
+        }
+
+        private Path file() {
+            return directory.resolve(String.format("%020d%s", id, SUFFIX));
+        }
+    }
+
+}
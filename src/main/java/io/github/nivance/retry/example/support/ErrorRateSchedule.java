@@ -0,0 +1,42 @@
+package io.github.nivance.retry.example.support;
+
+/**
+ * Error rate of {@link FaultInjector} as a function of the time since it was started.
+ */
+@FunctionalInterface
+public interface ErrorRateSchedule {
+
+    /**
+     * @return probability between 0 and 1 that a request at {@code elapsedMillis} fails
+     */
+    double rateAt(long elapsedMillis);
+
+    static ErrorRateSchedule constant(double rate) {
+        return elapsedMillis -> rate;
+    }
+
+    /**
+     * {@code before} until {@code atMillis}, {@code after} from then on, e.g. an upstream going down.
+     */
+    static ErrorRateSchedule step(double before, double after, long atMillis) {
+        return elapsedMillis -> elapsedMillis < atMillis ? before : after;
+    }
+
+    /**
+     * Linear from {@code from} to {@code to} over {@code durationMillis}, then stays at {@code to},
+     * e.g. an upstream degrading under a slowly growing backlog.
+     */
+    static ErrorRateSchedule ramp(double from, double to, long durationMillis) {
+        return elapsedMillis -> elapsedMillis >= durationMillis ? to
+                : from + (to - from) * elapsedMillis / durationMillis;
+    }
+
+    /**
+     * Alternates between {@code low} and {@code high} every half {@code periodMillis}, starting with
+     * {@code low}; the shape that makes a breaker open and close over and over.
+     */
+    static ErrorRateSchedule flapping(double low, double high, long periodMillis) {
+        return elapsedMillis -> (elapsedMillis % periodMillis) * 2 < periodMillis ? low : high;
+    }
+
+}
@@ -0,0 +1,114 @@
+package io.github.nivance.retry.example.support;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import lombok.Value;
+
+/**
+ * Decides how a request to the unstable upstream misbehaves: how long it is delayed and whether it
+ * fails, hangs until the caller times out or loses its connection.
+ * <p>
+ * Every request gets its own random, derived from the seed and the request's sequence number, so the
+ * n-th request gets the same fault in every run with the same seed, no matter how requests
+ * interleave across threads. Only the error rate depends on wall-clock time, through its schedule.
+ */
+public class FaultInjector {
+
+    private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+
+    public enum Type {
+        NONE, ERROR, TIMEOUT, RESET
+    }
+
+    @Value
+    public static class Fault {
+        long delayMillis;
+        Type type;
+        /**
+         * HTTP status of an {@link Type#ERROR}.
+         */
+        int status;
+    }
+
+    private final long seed;
+    private final LatencyDistribution latency;
+    private final ErrorRateSchedule errorRate;
+    private final int errorStatus;
+    private final double timeoutRate;
+    private final long timeoutMillis;
+    private final double resetRate;
+
+    private final AtomicLong sequence = new AtomicLong();
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder timeouts = new LongAdder();
+    private final LongAdder resets = new LongAdder();
+    private volatile long startedAt = System.nanoTime();
+
+    /**
+     * @param timeoutRate   probability that a request hangs for {@code timeoutMillis}
+     * @param timeoutMillis should be longer than the callers' read timeout
+     * @param resetRate     probability that the connection is dropped mid-response
+     */
+    public FaultInjector(long seed, LatencyDistribution latency, ErrorRateSchedule errorRate, int errorStatus,
+                         double timeoutRate, long timeoutMillis, double resetRate) {
+        this.seed = seed;
+        this.latency = latency;
+        this.errorRate = errorRate;
+        this.errorStatus = errorStatus;
+        this.timeoutRate = timeoutRate;
+        this.timeoutMillis = timeoutMillis;
+        this.resetRate = resetRate;
+    }
+
+    public Fault next() {
+        requests.increment();
+        SplittableRandom random = new SplittableRandom(seed + sequence.getAndIncrement() * GOLDEN_GAMMA);
+        long delay = latency.sampleMillis(random);
+        double p = random.nextDouble();
+        if (p < timeoutRate) {
+            timeouts.increment();
+            return new Fault(delay + timeoutMillis, Type.TIMEOUT, 0);
+        }
+        p -= timeoutRate;
+        if (p < resetRate) {
+            resets.increment();
+            return new Fault(delay, Type.RESET, 0);
+        }
+        p -= resetRate;
+        if (p < errorRate.rateAt(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt))) {
+            errors.increment();
+            return new Fault(delay, Type.ERROR, errorStatus);
+        }
+        return new Fault(delay, Type.NONE, 0);
+    }
+
+    /**
+     * Restarts the error rate schedule and the request sequence, so a run can be repeated without
+     * restarting the application. Counters keep counting.
+     */
+    public void reset() {
+        sequence.set(0L);
+        startedAt = System.nanoTime();
+    }
+
+    public long getRequestCount() {
+        return requests.sum();
+    }
+
+    public long getErrorCount() {
+        return errors.sum();
+    }
+
+    public long getTimeoutCount() {
+        return timeouts.sum();
+    }
+
+    public long getResetCount() {
+        return resets.sum();
+    }
+
+}
@@ -0,0 +1,20 @@
+package io.github.nivance.retry.example.support;
+
+import java.io.Closeable;
+import java.util.function.Consumer;
+
+/**
+ * Best-effort delivery of small messages to the other instances of the cluster, used by
+ * {@link ClusteredCircuitBreakers}. Messages may be lost, duplicated or reordered, and an instance
+ * may receive its own messages.
+ */
+public interface GossipTransport extends Closeable {
+
+    /**
+     * Starts delivering received messages to {@code receiver}, on a single thread.
+     */
+    void start(Consumer<byte[]> receiver);
+
+    void publish(byte[] message);
+
+}
@@ -0,0 +1,297 @@
+package io.github.nivance.retry.example.support;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.springframework.retry.RecoveryCallback;
+import org.springframework.retry.RetryCallback;
+import org.springframework.retry.RetryContext;
+import org.springframework.retry.RetryListener;
+import org.springframework.retry.context.RetryContextSupport;
+import org.springframework.retry.support.RetrySynchronizationManager;
+
+/**
+ * Issues speculative attempts instead of waiting for a failure: when an attempt has not finished
+ * within the given percentile of recently observed latency for its label, another one is launched in
+ * parallel, up to {@code maxHedges}. The delay never drops below {@code minHedgeDelay}, so an
+ * upstream that answers in no time is not hit with every hedge at once. A failed attempt launches the
+ * next hedge right away. The first success wins and the others are cancelled; when all attempts fail
+ * the recovery callback runs.
+ * <p>
+ * A cancelled attempt is interrupted, and the HTTP request it has in flight through
+ * {@link RetryAwareClientHttpRequestFactory} is aborted, see {@link AttemptAbort}. Any other blocking
+ * I/O ignores the interrupt, and such an attempt runs to completion before its result is dropped.
+ * <p>
+ * Listeners are notified like for a retry, with one error per failed attempt, and the number of
+ * hedges is left in the {@link #HEDGES} context attribute for statistics. Cancelling the returned
+ * future cancels the attempts in flight.
+ * <p>
+ * Attempts run in parallel, so each gets its own context: a copy of the attributes of the hedge's
+ * context, which is its parent. The hedge's context is only touched under its lock. The latency of
+ * every attempt that ran is recorded in microseconds, a cancelled loser at the time it was cancelled,
+ * so the hedging threshold is not biased towards the fast winners.
+ */
+public class HedgingTemplate {
+
+    public static final String HEDGES = "context.hedges";
+
+    private final ScheduledExecutorService scheduler;
+    private final ExecutorService executor;
+    private final ConcurrentMap<String, RecentLatencies> latencies = new ConcurrentHashMap<>();
+
+    private int maxHedges = 1;
+    private double hedgePercentile = 95d;
+    private long initialHedgeDelay = 100L;
+    private long minHedgeDelay = 10L;
+    private RetryListener[] listeners = new RetryListener[0];
+
+    public HedgingTemplate(ScheduledExecutorService scheduler, ExecutorService executor) {
+        this.scheduler = scheduler;
+        this.executor = executor;
+    }
+
+    public void setMaxHedges(int maxHedges) {
+        this.maxHedges = maxHedges;
+    }
+
+    public void setHedgePercentile(double hedgePercentile) {
+        this.hedgePercentile = hedgePercentile;
+    }
+
+    /**
+     * @param initialHedgeDelay delay in milliseconds used until enough latencies were observed
+     */
+    public void setInitialHedgeDelay(long initialHedgeDelay) {
+        this.initialHedgeDelay = initialHedgeDelay;
+    }
+
+    /**
+     * @param minHedgeDelay shortest delay in milliseconds before a hedge, whatever the observed latencies
+     */
+    public void setMinHedgeDelay(long minHedgeDelay) {
+        this.minHedgeDelay = minHedgeDelay;
+    }
+
+    public void setListeners(RetryListener[] listeners) {
+        this.listeners = listeners.clone();
+    }
+
+    public <T> CompletableFuture<T> execute(String label, RetryCallback<T, ? extends Throwable> callback,
+                                            RecoveryCallback<T> recoveryCallback) {
+        RetryContextSupport context = new RetryContextSupport(null);
+        context.setAttribute(RetryContext.NAME, label);
+        CompletableFuture<T> result = new CompletableFuture<>();
+        for (RetryListener listener : listeners) {
+            if (!listener.open(context, callback)) {
+                result.completeExceptionally(new IllegalStateException("Hedging terminated by listener before first attempt"));
+                return result;
+            }
+        }
+        Hedge<T> hedge = new Hedge<>(context, callback, recoveryCallback, result,
+                latencies.computeIfAbsent(label, key -> new RecentLatencies(hedgePercentile)), maxHedges + 1);
+        result.whenComplete((value, e) -> {
+            if (result.isCancelled()) {
+                cancelled(hedge);
+            }
+        });
+        if (context.isExhaustedOnly()) {
+            // e.g. rejected by a listener because the deadline has passed
+            exhausted(hedge);
+            return result;
+        }
+        launch(hedge);
+        return result;
+    }
+
+    private <T> void launch(Hedge<T> hedge) {
+        int index;
+        do {
+            index = hedge.launched.get();
+            if (index >= hedge.attempts.length() || hedge.result.isDone()) {
+                return;
+            }
+        } while (!hedge.launched.compareAndSet(index, index + 1));
+        int attempt = index;
+        RetryContextSupport attemptContext = attemptContext(hedge);
+        hedge.aborts.set(index, AttemptAbort.of(attemptContext));
+        hedge.attempts.set(index, executor.submit(() -> attempt(hedge, attemptContext, attempt)));
+        if (index + 1 < hedge.attempts.length()) {
+            hedge.timer = scheduler.schedule(() -> launch(hedge), hedgeDelay(hedge), TimeUnit.MICROSECONDS);
+        }
+    }
+
+    /**
+     * @return microseconds to wait for an attempt before launching the next one
+     */
+    private long hedgeDelay(Hedge<?> hedge) {
+        long threshold = hedge.latencies.getThreshold();
+        long delay = threshold < 0 ? TimeUnit.MILLISECONDS.toMicros(initialHedgeDelay) : threshold;
+        return Math.max(delay, TimeUnit.MILLISECONDS.toMicros(minHedgeDelay));
+    }
+
+    private <T> RetryContextSupport attemptContext(Hedge<T> hedge) {
+        hedge.lock.lock();
+        try {
+            RetryContextSupport context = new RetryContextSupport(hedge.context);
+            for (String name : hedge.context.attributeNames()) {
+                context.setAttribute(name, hedge.context.getAttribute(name));
+            }
+            return context;
+        } finally {
+            hedge.lock.unlock();
+        }
+    }
+
+    private <T> void attempt(Hedge<T> hedge, RetryContextSupport context, int index) {
+        long start = System.nanoTime();
+        RetrySynchronizationManager.register(context);
+        try {
+            T value = hedge.callback.doWithRetry(context);
+            if (hedge.result.isDone()) {
+                return;
+            }
+            hedge.lock.lock();
+            try {
+                if (!hedge.result.isDone()) {
+                    close(hedge, null);
+                    hedge.result.complete(value);
+                }
+            } finally {
+                hedge.lock.unlock();
+            }
+            cancelOthers(hedge, index);
+        } catch (Throwable e) {
+            onError(hedge, index, e);
+        } finally {
+            hedge.latencies.record(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start));
+            RetrySynchronizationManager.clear();
+        }
+    }
+
+    private <T> void onError(Hedge<T> hedge, int index, Throwable e) {
+        boolean exhausted;
+        hedge.lock.lock();
+        try {
+            if (hedge.result.isDone()) {
+                return;
+            }
+            hedge.context.registerThrowable(e);
+            for (int i = listeners.length; i-- > 0; ) {
+                listeners[i].onError(hedge.context, hedge.callback, e);
+            }
+            exhausted = hedge.failed.incrementAndGet() == hedge.attempts.length() || hedge.context.isExhaustedOnly();
+            if (exhausted) {
+                exhausted(hedge);
+            }
+        } finally {
+            hedge.lock.unlock();
+        }
+        if (!exhausted) {
+            ScheduledFuture<?> timer = hedge.timer;
+            if (timer != null) {
+                timer.cancel(false);
+            }
+            launch(hedge);
+        } else {
+            cancelOthers(hedge, index);
+        }
+    }
+
+    private <T> void exhausted(Hedge<T> hedge) {
+        RetryContext context = hedge.context;
+        context.setAttribute(RetryContext.EXHAUSTED, true);
+        Throwable lastThrowable = context.getLastThrowable();
+        if (hedge.recoveryCallback == null) {
+            close(hedge, lastThrowable);
+            hedge.result.completeExceptionally(lastThrowable);
+            return;
+        }
+        try {
+            T value = hedge.recoveryCallback.recover(context);
+            context.setAttribute(RetryContext.RECOVERED, true);
+            close(hedge, lastThrowable);
+            hedge.result.complete(value);
+        } catch (Throwable e) {
+            close(hedge, e);
+            hedge.result.completeExceptionally(e);
+        }
+    }
+
+    /**
+     * Attempts in flight are cancelled and no further hedges are launched.
+     */
+    private <T> void cancelled(Hedge<T> hedge) {
+        hedge.lock.lock();
+        try {
+            close(hedge, new RetryCancelledException("Hedging cancelled by caller"));
+        } finally {
+            hedge.lock.unlock();
+        }
+        cancelOthers(hedge, -1);
+    }
+
+    private <T> void close(Hedge<T> hedge, Throwable lastThrowable) {
+        if (!hedge.closed.compareAndSet(false, true)) {
+            // a winner completing concurrently with a cancellation
+            return;
+        }
+        RetryContext context = hedge.context;
+        context.setAttribute(HEDGES, Math.max(0, hedge.launched.get() - 1));
+        context.setAttribute(RetryContext.CLOSED, true);
+        for (int i = listeners.length; i-- > 0; ) {
+            listeners[i].close(context, hedge.callback, lastThrowable);
+        }
+    }
+
+    private <T> void cancelOthers(Hedge<T> hedge, int index) {
+        ScheduledFuture<?> timer = hedge.timer;
+        if (timer != null) {
+            timer.cancel(false);
+        }
+        for (int i = 0; i < hedge.attempts.length(); i++) {
+            Future<?> attempt = hedge.attempts.get(i);
+            if (i != index && attempt != null) {
+                attempt.cancel(true);
+                hedge.aborts.get(i).abort();
+            }
+        }
+    }
+
+    private static final class Hedge<T> {
+
+        private final RetryContextSupport context;
+        private final RetryCallback<T, ? extends Throwable> callback;
+        private final RecoveryCallback<T> recoveryCallback;
+        private final CompletableFuture<T> result;
+        private final RecentLatencies latencies;
+        private final AtomicReferenceArray<Future<?>> attempts;
+        private final AtomicReferenceArray<AttemptAbort> aborts;
+        private final AtomicInteger launched = new AtomicInteger();
+        private final AtomicInteger failed = new AtomicInteger();
+        private final AtomicBoolean closed = new AtomicBoolean();
+        private final ReentrantLock lock = new ReentrantLock();
+        private volatile ScheduledFuture<?> timer;
+
+        private Hedge(RetryContextSupport context, RetryCallback<T, ? extends Throwable> callback, RecoveryCallback<T> recoveryCallback,
+                      CompletableFuture<T> result, RecentLatencies latencies, int maxAttempts) {
+            this.context = context;
+            this.callback = callback;
+            this.recoveryCallback = recoveryCallback;
+            this.result = result;
+            this.latencies = latencies;
+            this.attempts = new AtomicReferenceArray<>(maxAttempts);
+            this.aborts = new AtomicReferenceArray<>(maxAttempts);
+        }
+    }
+
+}
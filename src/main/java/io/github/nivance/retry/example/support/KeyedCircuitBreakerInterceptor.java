@@ -0,0 +1,73 @@
+package io.github.nivance.retry.example.support;
+
+import java.lang.reflect.Method;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.context.expression.MethodBasedEvaluationContext;
+import org.springframework.core.DefaultParameterNameDiscoverer;
+import org.springframework.core.ParameterNameDiscoverer;
+import org.springframework.expression.Expression;
+import org.springframework.expression.spel.SpelCompilerMode;
+import org.springframework.expression.spel.SpelParserConfiguration;
+import org.springframework.expression.spel.standard.SpelExpressionParser;
+import org.springframework.retry.RetryListener;
+import org.springframework.retry.RetryPolicy;
+import org.springframework.retry.support.RetryTemplate;
+
+/**
+ * Like a {@link RecoverAwareRetryInterceptor} over a {@link SlidingWindowCircuitBreakerRetryPolicy},
+ * but the breaker is looked up in a {@link CircuitBreakerRegistry} for every call, by a SpEL key
+ * expression evaluated against the invocation: method arguments are available as {@code #p0},
+ * {@code #a0} or by name, the invocation itself as {@code #root}. The expression is compiled to
+ * bytecode once it has been interpreted a few times.
+ */
+public class KeyedCircuitBreakerInterceptor implements MethodInterceptor {
+
+    private static final ParameterNameDiscoverer PARAMETER_NAMES = new DefaultParameterNameDiscoverer();
+
+    private final CircuitBreakerRegistry registry;
+    private final Expression keyExpression;
+    private final ThreadLocal<SlidingWindowCircuitBreaker> current = new ThreadLocal<>();
+    private final RecoverAwareRetryInterceptor delegate;
+
+    public KeyedCircuitBreakerInterceptor(CircuitBreakerRegistry registry, String keyExpression, String label,
+                                          RetryPolicy retryPolicy, RetryListener... listeners) {
+        this.registry = registry;
+        this.keyExpression = new SpelExpressionParser(new SpelParserConfiguration(SpelCompilerMode.MIXED,
+                getClass().getClassLoader())).parseExpression(keyExpression);
+        RetryTemplate template = new RetryTemplate();
+        template.setRetryPolicy(new SlidingWindowCircuitBreakerRetryPolicy(current::get, retryPolicy));
+        template.setListeners(listeners);
+        this.delegate = new RecoverAwareRetryInterceptor(template, label);
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        SlidingWindowCircuitBreaker previous = current.get();
+        current.set(registry.circuitBreaker(keyOf(invocation)));
+        try {
+            return delegate.invoke(invocation);
+        } finally {
+            if (previous == null) {
+                current.remove();
+            } else {
+                current.set(previous);
+            }
+        }
+    }
+
+    /**
+     * @see RecoverAwareRetryInterceptor#prepare(Object, Method)
+     */
+    public void prepare(Object target, Method method) {
+        delegate.prepare(target, method);
+    }
+
+    private String keyOf(MethodInvocation invocation) {
+        MethodBasedEvaluationContext context = new MethodBasedEvaluationContext(invocation, invocation.getMethod(),
+                invocation.getArguments(), PARAMETER_NAMES);
+        return String.valueOf(keyExpression.getValue(context));
+    }
+
+}
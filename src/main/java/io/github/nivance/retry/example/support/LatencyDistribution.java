@@ -0,0 +1,51 @@
+package io.github.nivance.retry.example.support;
+
+import java.util.SplittableRandom;
+
+/**
+ * Latency added by {@link FaultInjector}, sampled from the per-request random so that a seed
+ * reproduces the same sequence.
+ */
+@FunctionalInterface
+public interface LatencyDistribution {
+
+    /**
+     * @return a delay in milliseconds, never negative
+     */
+    long sampleMillis(SplittableRandom random);
+
+    static LatencyDistribution none() {
+        return random -> 0L;
+    }
+
+    static LatencyDistribution fixed(long millis) {
+        return random -> millis;
+    }
+
+    static LatencyDistribution uniform(long minMillis, long maxMillis) {
+        if (maxMillis < minMillis) {
+            throw new IllegalArgumentException("maxMillis must not be less than minMillis");
+        }
+        return random -> random.nextLong(minMillis, maxMillis + 1);
+    }
+
+    static LatencyDistribution exponential(long meanMillis) {
+        return random -> (long) (-meanMillis * Math.log(1d - random.nextDouble()));
+    }
+
+    /**
+     * Heavy-tailed latency as usually seen in production: most requests take about {@code minMillis},
+     * a few take orders of magnitude longer. The smaller {@code shape}, the heavier the tail.
+     */
+    static LatencyDistribution pareto(long minMillis, double shape) {
+        if (shape <= 0d) {
+            throw new IllegalArgumentException("shape must be positive");
+        }
+        return random -> (long) (minMillis / Math.pow(1d - random.nextDouble(), 1d / shape));
+    }
+
+    default LatencyDistribution cappedAt(long maxMillis) {
+        return random -> Math.min(sampleMillis(random), maxMillis);
+    }
+
+}
@@ -0,0 +1,182 @@
+package io.github.nivance.retry.example.support;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.retry.RetryStatistics;
+
+/**
+ * Per-label {@link RetryStatistics} backed by striped {@link LongAdder} counters, plus attempt and
+ * total latency histograms, and the same counts over each {@link StatisticsWindow}. The counters
+ * cover the lifetime of the statistics, which includes earlier runs if they were restored from a
+ * snapshot.
+ */
+public class LatencyRetryStatistics implements RetryStatistics {
+
+    public static final int STARTED = 0;
+    public static final int COMPLETE = 1;
+    public static final int RECOVERY = 2;
+    public static final int ERROR = 3;
+    public static final int ABORT = 4;
+    public static final int HEDGES = 5;
+    public static final int ATTEMPTS = 6;
+
+    private static final int COUNTERS = 7;
+    private static final StatisticsWindow[] WINDOWS = StatisticsWindow.values();
+
+    private final String name;
+    private final LongAdder started = new LongAdder();
+    private final LongAdder complete = new LongAdder();
+    private final LongAdder recovery = new LongAdder();
+    private final LongAdder error = new LongAdder();
+    private final LongAdder abort = new LongAdder();
+    private final LongAdder hedges = new LongAdder();
+    private final LogLinearHistogram attemptLatency = new LogLinearHistogram();
+    private final LogLinearHistogram totalLatency = new LogLinearHistogram();
+    private final RollingWindow[] windows = new RollingWindow[WINDOWS.length];
+
+    public LatencyRetryStatistics(String name) {
+        this.name = name;
+        for (StatisticsWindow window : WINDOWS) {
+            windows[window.ordinal()] = window.newWindow(COUNTERS);
+        }
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public int getCompleteCount() {
+        return complete.intValue();
+    }
+
+    @Override
+    public int getStartedCount() {
+        return started.intValue();
+    }
+
+    @Override
+    public int getErrorCount() {
+        return error.intValue();
+    }
+
+    @Override
+    public int getAbortCount() {
+        return abort.intValue();
+    }
+
+    @Override
+    public int getRecoveryCount() {
+        return recovery.intValue();
+    }
+
+    /**
+     * @return number of speculative attempts launched by {@link HedgingTemplate}
+     */
+    public long getHedgeCount() {
+        return hedges.sum();
+    }
+
+    public LogLinearHistogram getAttemptLatency() {
+        return attemptLatency;
+    }
+
+    public LogLinearHistogram getTotalLatency() {
+        return totalLatency;
+    }
+
+    /**
+     * @return the counts over {@code window} up to now, indexed by {@link #STARTED}, {@link #COMPLETE},
+     * {@link #RECOVERY}, {@link #ERROR}, {@link #ABORT}, {@link #HEDGES} and {@link #ATTEMPTS}
+     */
+    public long[] getWindowCounts(StatisticsWindow window) {
+        return windows[window.ordinal()].sum(System.currentTimeMillis());
+    }
+
+    void incrementStarted() {
+        started.increment();
+        addToWindows(STARTED, 1L);
+    }
+
+    void incrementComplete() {
+        complete.increment();
+        addToWindows(COMPLETE, 1L);
+    }
+
+    void incrementRecovery() {
+        recovery.increment();
+        addToWindows(RECOVERY, 1L);
+    }
+
+    void incrementError() {
+        error.increment();
+        addToWindows(ERROR, 1L);
+    }
+
+    void incrementAbort() {
+        abort.increment();
+        addToWindows(ABORT, 1L);
+    }
+
+    void addHedges(int count) {
+        hedges.add(count);
+        addToWindows(HEDGES, count);
+    }
+
+    void addAttemptLatency(long nanos) {
+        attemptLatency.recordNanos(nanos);
+        addToWindows(ATTEMPTS, 1L);
+    }
+
+    void writeTo(DataOutput out) throws IOException {
+        for (LongAdder counter : counters()) {
+            out.writeLong(counter.sum());
+        }
+        attemptLatency.writeTo(out);
+        totalLatency.writeTo(out);
+        out.writeInt(windows.length);
+        for (RollingWindow window : windows) {
+            window.writeTo(out);
+        }
+    }
+
+    /**
+     * Adds the counts written by {@link #writeTo(DataOutput)} to these statistics.
+     */
+    void readFrom(DataInput in) throws IOException {
+        for (LongAdder counter : counters()) {
+            counter.add(in.readLong());
+        }
+        attemptLatency.readFrom(in);
+        totalLatency.readFrom(in);
+        int count = in.readInt();
+        for (int i = 0; i < count; i++) {
+            // windows no longer kept are read and dropped
+            RollingWindow window = i < windows.length ? windows[i] : WINDOWS[0].newWindow(COUNTERS);
+            window.readFrom(in);
+        }
+    }
+
+    private LongAdder[] counters() {
+        return new LongAdder[]{started, complete, recovery, error, abort, hedges};
+    }
+
+    private void addToWindows(int counter, long delta) {
+        long now = System.currentTimeMillis();
+        for (RollingWindow window : windows) {
+            window.add(counter, delta, now);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "LatencyRetryStatistics[name=" + name + ", started=" + started + ", complete=" + complete
+                + ", error=" + error + ", abort=" + abort + ", recovery=" + recovery + ", hedges=" + hedges
+                + ", attemptLatency=" + attemptLatency + ", totalLatency=" + totalLatency + "]";
+    }
+
+}
@@ -0,0 +1,55 @@
+package io.github.nivance.retry.example.support;
+
+import org.springframework.retry.RetryCallback;
+import org.springframework.retry.RetryContext;
+import org.springframework.retry.stats.StatisticsListener;
+
+/**
+ * {@link StatisticsListener} that additionally records attempt and total latency, and the hedges
+ * launched by {@link HedgingTemplate}, per label. Attempts are timed with the retry's
+ * {@link AttemptTimer}, so the latency of a retried attempt leaves out the backoff before it
+ * wherever the backoff marks its end.
+ */
+public class LatencyStatisticsListener extends StatisticsListener {
+
+    private final LatencyStatisticsRepository repository;
+
+    public LatencyStatisticsListener(LatencyStatisticsRepository repository) {
+        super(repository);
+        this.repository = repository;
+    }
+
+    @Override
+    public <T, E extends Throwable> boolean open(RetryContext context, RetryCallback<T, E> callback) {
+        AttemptTimer.open(context);
+        return super.open(context, callback);
+    }
+
+    @Override
+    public <T, E extends Throwable> void onError(RetryContext context, RetryCallback<T, E> callback, Throwable throwable) {
+        super.onError(context, callback, throwable);
+        String name = (String) context.getAttribute(RetryContext.NAME);
+        AttemptTimer timer = AttemptTimer.of(context);
+        if (name != null && timer != null) {
+            repository.addAttemptLatency(name, timer.failedAttemptNanos(context));
+        }
+    }
+
+    @Override
+    public <T, E extends Throwable> void close(RetryContext context, RetryCallback<T, E> callback, Throwable throwable) {
+        super.close(context, callback, throwable);
+        String name = (String) context.getAttribute(RetryContext.NAME);
+        AttemptTimer timer = AttemptTimer.of(context);
+        if (name != null && timer != null) {
+            if (throwable == null) {
+                repository.addAttemptLatency(name, timer.attemptNanos());
+            }
+            repository.addTotalLatency(name, timer.retryNanos());
+        }
+        Object hedges = context.getAttribute(HedgingTemplate.HEDGES);
+        if (name != null && hedges instanceof Integer) {
+            repository.addHedges(name, (Integer) hedges);
+        }
+    }
+
+}
@@ -0,0 +1,103 @@
+package io.github.nivance.retry.example.support;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.springframework.retry.RetryStatistics;
+import org.springframework.retry.stats.StatisticsRepository;
+
+/**
+ * Drop-in replacement for {@link org.springframework.retry.stats.DefaultStatisticsRepository}
+ * that never contends on shared counters and also tracks latency. Once a label has been seen, every
+ * record call is a lock-free map lookup plus a striped increment and one increment per
+ * {@link StatisticsWindow}, without allocation; the per-retry state of
+ * {@link LatencyStatisticsListener} does allocate.
+ */
+public class LatencyStatisticsRepository implements StatisticsRepository, Snapshottable {
+
+    private final ConcurrentMap<String, LatencyRetryStatistics> statistics = new ConcurrentHashMap<>();
+
+    @Override
+    public LatencyRetryStatistics findOne(String name) {
+        return statistics.get(name);
+    }
+
+    @Override
+    public Iterable<RetryStatistics> findAll() {
+        return new ArrayList<>(statistics.values());
+    }
+
+    @Override
+    public void addStarted(String name) {
+        getStatistics(name).incrementStarted();
+    }
+
+    @Override
+    public void addError(String name) {
+        getStatistics(name).incrementError();
+    }
+
+    @Override
+    public void addRecovery(String name) {
+        getStatistics(name).incrementRecovery();
+    }
+
+    @Override
+    public void addComplete(String name) {
+        getStatistics(name).incrementComplete();
+    }
+
+    @Override
+    public void addAbort(String name) {
+        getStatistics(name).incrementAbort();
+    }
+
+    public void addHedges(String name, int count) {
+        getStatistics(name).addHedges(count);
+    }
+
+    public void addAttemptLatency(String name, long nanos) {
+        getStatistics(name).addAttemptLatency(nanos);
+    }
+
+    public void addTotalLatency(String name, long nanos) {
+        getStatistics(name).getTotalLatency().recordNanos(nanos);
+    }
+
+    @Override
+    public String getSnapshotName() {
+        return "statistics";
+    }
+
+    @Override
+    public void writeSnapshot(DataOutput out) throws IOException {
+        List<LatencyRetryStatistics> snapshot = new ArrayList<>(statistics.values());
+        out.writeInt(snapshot.size());
+        for (LatencyRetryStatistics labelStatistics : snapshot) {
+            out.writeUTF(labelStatistics.getName());
+            labelStatistics.writeTo(out);
+        }
+    }
+
+    @Override
+    public void readSnapshot(DataInput in) throws IOException {
+        int count = in.readInt();
+        for (int i = 0; i < count; i++) {
+            getStatistics(in.readUTF()).readFrom(in);
+        }
+    }
+
+    private LatencyRetryStatistics getStatistics(String name) {
+        LatencyRetryStatistics result = statistics.get(name);
+        if (result == null) {
+            result = statistics.computeIfAbsent(name, LatencyRetryStatistics::new);
+        }
+        return result;
+    }
+
+}
@@ -0,0 +1,122 @@
+package io.github.nivance.retry.example.support;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Fixed-size latency histogram with log-linear buckets: every power of two is split into
+ * {@value #SUB_BUCKETS} linear sub-buckets, which bounds the relative error to about 6%. Values are
+ * kept in microseconds up to roughly 70 minutes; larger values land in the last bucket. Recording is
+ * a single atomic increment and never allocates.
+ */
+public class LogLinearHistogram {
+
+    private static final int SUB_BUCKET_BITS = 4;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int MAX_EXPONENT = 32;
+    private static final int BUCKETS = (MAX_EXPONENT - SUB_BUCKET_BITS + 1) * SUB_BUCKETS;
+    private static final long MAX_VALUE = (1L << MAX_EXPONENT) - 1;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+
+    public void recordNanos(long nanos) {
+        record(TimeUnit.NANOSECONDS.toMicros(nanos));
+    }
+
+    public void record(long micros) {
+        buckets.incrementAndGet(indexOf(Math.min(Math.max(micros, 0L), MAX_VALUE)));
+    }
+
+    public long getCount() {
+        long count = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            count += buckets.get(i);
+        }
+        return count;
+    }
+
+    /**
+     * @param percentile between 0 and 100
+     * @return the lower bound, in microseconds, of the bucket holding the given percentile, or 0 if
+     * nothing was recorded yet
+     */
+    public long getPercentile(double percentile) {
+        long count = getCount();
+        if (count == 0) {
+            return 0L;
+        }
+        long rank = Math.max(1L, (long) Math.ceil(count * percentile / 100d));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += buckets.get(i);
+            if (seen >= rank) {
+                return lowerBoundOf(i);
+            }
+        }
+        return lowerBoundOf(BUCKETS - 1);
+    }
+
+    /**
+     * Writes the non-empty buckets as index and count pairs.
+     */
+    void writeTo(DataOutput out) throws IOException {
+        long[] counts = new long[BUCKETS];
+        int used = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] = buckets.get(i);
+            if (counts[i] != 0) {
+                used++;
+            }
+        }
+        out.writeShort(used);
+        for (int i = 0; i < BUCKETS; i++) {
+            if (counts[i] != 0) {
+                out.writeShort(i);
+                out.writeLong(counts[i]);
+            }
+        }
+    }
+
+    /**
+     * Adds the buckets written by {@link #writeTo(DataOutput)} to this histogram.
+     */
+    void readFrom(DataInput in) throws IOException {
+        int used = in.readUnsignedShort();
+        for (int i = 0; i < used; i++) {
+            int index = in.readUnsignedShort();
+            long count = in.readLong();
+            if (index >= BUCKETS) {
+                throw new IOException("Histogram bucket " + index + " out of range");
+            }
+            buckets.addAndGet(index, count);
+        }
+    }
+
+    static int indexOf(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket;
+    }
+
+    static long lowerBoundOf(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        int exponent = index / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+        long subBucket = index & (SUB_BUCKETS - 1);
+        return (1L << exponent) | (subBucket << (exponent - SUB_BUCKET_BITS));
+    }
+
+    @Override
+    public String toString() {
+        return "[count=" + getCount() + ", p50=" + getPercentile(50) + "us, p99=" + getPercentile(99)
+                + "us, p999=" + getPercentile(99.9) + "us]";
+    }
+
+}
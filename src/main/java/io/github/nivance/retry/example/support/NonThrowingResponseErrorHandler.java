@@ -0,0 +1,19 @@
+package io.github.nivance.retry.example.support;
+
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.web.client.DefaultResponseErrorHandler;
+
+/**
+ * Hands every response back to the caller, whatever its status, so a retry can classify it with
+ * {@link UpstreamStatusException#of(org.springframework.http.ResponseEntity)} instead of catching
+ * an {@link org.springframework.web.client.HttpStatusCodeException} with a copied body and a full
+ * stack trace.
+ */
+public class NonThrowingResponseErrorHandler extends DefaultResponseErrorHandler {
+
+    @Override
+    public boolean hasError(ClientHttpResponse response) {
+        return false;
+    }
+
+}
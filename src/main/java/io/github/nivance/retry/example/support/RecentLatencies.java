@@ -0,0 +1,51 @@
+package io.github.nivance.retry.example.support;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Ring buffer of the most recent latencies. The requested percentile is recomputed from a snapshot
+ * every {@value #REFRESH_INTERVAL} samples, so reading it is a volatile read.
+ */
+class RecentLatencies {
+
+    private static final int CAPACITY = 1024;
+    private static final int REFRESH_INTERVAL = 64;
+    private static final int MIN_SAMPLES = 20;
+
+    private final double percentile;
+    private final AtomicLongArray samples = new AtomicLongArray(CAPACITY);
+    private final AtomicLong cursor = new AtomicLong();
+    private volatile long threshold = -1L;
+
+    RecentLatencies(double percentile) {
+        this.percentile = percentile;
+    }
+
+    void record(long micros) {
+        long index = cursor.getAndIncrement();
+        samples.set((int) (index % CAPACITY), micros);
+        long count = index + 1;
+        if (count >= MIN_SAMPLES && (count == MIN_SAMPLES || count % REFRESH_INTERVAL == 0)) {
+            refresh((int) Math.min(count, CAPACITY));
+        }
+    }
+
+    /**
+     * @return latency in microseconds at the configured percentile, or -1 until enough samples were recorded
+     */
+    long getThreshold() {
+        return threshold;
+    }
+
+    private void refresh(int size) {
+        long[] snapshot = new long[size];
+        for (int i = 0; i < size; i++) {
+            snapshot[i] = samples.get(i);
+        }
+        Arrays.sort(snapshot);
+        threshold = snapshot[(int) Math.min(size - 1, Math.ceil(size * percentile / 100d) - 1)];
+    }
+
+}
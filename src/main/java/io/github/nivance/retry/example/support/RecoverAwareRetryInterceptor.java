@@ -0,0 +1,72 @@
+package io.github.nivance.retry.example.support;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.aop.ProxyMethodInvocation;
+import org.springframework.retry.RetryOperations;
+import org.springframework.retry.annotation.RecoverAnnotationRecoveryHandler;
+import org.springframework.retry.interceptor.RetryOperationsInterceptor;
+
+/**
+ * Stateless retry interceptor meant to be referenced from
+ * {@code @Retryable(interceptor = "...")}. Spring retry ignores {@code @Recover} methods once an
+ * interceptor bean is named, so this one binds them itself, once per method, against the target of
+ * the first invocation or ahead of time by {@link #prepare(Object, Method)}.
+ * <p>
+ * An optional result classifier makes results retryable too: a result it maps to a failure is
+ * raised as that failure, e.g. {@link UpstreamStatusException#ofResult(Object)} for error responses.
+ */
+public class RecoverAwareRetryInterceptor implements MethodInterceptor {
+
+    private final RetryOperations retryOperations;
+    private final String label;
+    private final Function<Object, ? extends RuntimeException> resultClassifier;
+    private final ConcurrentMap<Method, RetryOperationsInterceptor> delegates = new ConcurrentHashMap<>();
+
+    public RecoverAwareRetryInterceptor(RetryOperations retryOperations, String label) {
+        this(retryOperations, label, null);
+    }
+
+    /**
+     * @param resultClassifier the failure a result stands for, or {@code null} if the result is good
+     */
+    public RecoverAwareRetryInterceptor(RetryOperations retryOperations, String label,
+                                        Function<Object, ? extends RuntimeException> resultClassifier) {
+        this.retryOperations = retryOperations;
+        this.label = label;
+        this.resultClassifier = resultClassifier;
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        RetryOperationsInterceptor delegate = delegates.get(invocation.getMethod());
+        if (delegate == null) {
+            delegate = delegates.computeIfAbsent(invocation.getMethod(), method -> createDelegate(invocation.getThis(), method));
+        }
+        if (resultClassifier != null && invocation instanceof ProxyMethodInvocation) {
+            return delegate.invoke(new ResultCheckingMethodInvocation((ProxyMethodInvocation) invocation, resultClassifier));
+        }
+        return delegate.invoke(invocation);
+    }
+
+    /**
+     * Binds the {@code @Recover} methods of {@code method} now instead of on its first invocation.
+     */
+    public void prepare(Object target, Method method) {
+        delegates.computeIfAbsent(method, key -> createDelegate(target, key));
+    }
+
+    private RetryOperationsInterceptor createDelegate(Object target, Method method) {
+        RetryOperationsInterceptor delegate = new RetryOperationsInterceptor();
+        delegate.setRetryOperations(retryOperations);
+        delegate.setLabel(label);
+        delegate.setRecoverer(new RecoverAnnotationRecoveryHandler<>(target, method));
+        return delegate;
+    }
+
+}
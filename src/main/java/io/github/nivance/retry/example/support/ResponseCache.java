@@ -0,0 +1,138 @@
+package io.github.nivance.retry.example.support;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Last good response per key of one retry label, served by its {@code @Recover} method instead of
+ * calling the failing upstream once more. Entries expire {@code timeToLive} after they were stored
+ * and the least valuable ones are evicted beyond {@code maximumSize}.
+ * <p>
+ * Stale-while-revalidate: an entry older than {@code refreshAfter} is still served, and one
+ * background call per entry and interval, run on {@code executor}, tries to replace it. A failed
+ * refresh leaves the entry as it was, so it still expires on time.
+ * <p>
+ * With {@link #setOffHeap(Codec, int)}, values encoding to at least the given number of bytes are
+ * kept in direct buffers outside the heap, released once their entry is evicted and garbage
+ * collected.
+ */
+@Slf4j
+public class ResponseCache<K, V> {
+
+    /**
+     * Binary form of values kept off-heap.
+     */
+    public interface Codec<V> {
+
+        byte[] encode(V value);
+
+        V decode(ByteBuffer bytes);
+    }
+
+    private final Cache<K, Entry<V>> cache;
+    private final long refreshAfter;
+    private final Executor executor;
+    private volatile Codec<V> codec;
+    private volatile int offHeapThreshold = Integer.MAX_VALUE;
+
+    public ResponseCache(long maximumSize, long refreshAfter, long timeToLive, TimeUnit unit, Executor executor) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(timeToLive, unit)
+                .recordStats()
+                .build();
+        this.refreshAfter = unit.toNanos(refreshAfter);
+        this.executor = executor;
+    }
+
+    public void setOffHeap(Codec<V> codec, int threshold) {
+        this.codec = codec;
+        this.offHeapThreshold = threshold;
+    }
+
+    public void put(K key, V value) {
+        cache.put(key, entryOf(value));
+    }
+
+    /**
+     * @param refresher called in the background for an entry due for refresh, throws if it cannot
+     *                  get a good response
+     * @return the cached value, or {@code null}
+     */
+    public V get(K key, Function<? super K, ? extends V> refresher) {
+        Entry<V> entry = cache.getIfPresent(key);
+        if (entry == null) {
+            return null;
+        }
+        if (System.nanoTime() - entry.storedAt > refreshAfter && entry.refreshing.compareAndSet(false, true)) {
+            try {
+                executor.execute(() -> refresh(key, entry, refresher));
+            } catch (RejectedExecutionException e) {
+                entry.refreshing.set(false);
+            }
+        }
+        return entry.value();
+    }
+
+    public long size() {
+        return cache.estimatedSize();
+    }
+
+    public CacheStats getStats() {
+        return cache.stats();
+    }
+
+    private void refresh(K key, Entry<V> entry, Function<? super K, ? extends V> refresher) {
+        try {
+            // unless a call that succeeded on its own replaced it in the meantime
+            cache.asMap().replace(key, entry, entryOf(refresher.apply(key)));
+        } catch (RuntimeException e) {
+            log.debug("Refresh of {} failed: {}", key, e.toString());
+        } finally {
+            entry.refreshing.set(false);
+        }
+    }
+
+    private Entry<V> entryOf(V value) {
+        Codec<V> offHeapCodec = codec;
+        if (offHeapCodec != null) {
+            byte[] bytes = offHeapCodec.encode(value);
+            if (bytes.length >= offHeapThreshold) {
+                ByteBuffer buffer = ByteBuffer.allocateDirect(bytes.length);
+                buffer.put(bytes).flip();
+                return new Entry<>(null, buffer, offHeapCodec);
+            }
+        }
+        return new Entry<>(value, null, null);
+    }
+
+    private static final class Entry<V> {
+
+        private final V value;
+        private final ByteBuffer offHeap;
+        private final Codec<V> codec;
+        private final long storedAt = System.nanoTime();
+        private final AtomicBoolean refreshing = new AtomicBoolean();
+
+        private Entry(V value, ByteBuffer offHeap, Codec<V> codec) {
+            this.value = value;
+            this.offHeap = offHeap;
+            this.codec = codec;
+        }
+
+        private V value() {
+            return offHeap == null ? value : codec.decode(offHeap.duplicate());
+        }
+    }
+
+}
@@ -0,0 +1,43 @@
+package io.github.nivance.retry.example.support;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+
+/**
+ * Off-heap form of a text response for {@link ResponseCache}:
+ * {@code status | content type length | content type | body}, in UTF-8. Other headers are dropped.
+ */
+public class ResponseEntityCodec implements ResponseCache.Codec<ResponseEntity<String>> {
+
+    @Override
+    public byte[] encode(ResponseEntity<String> response) {
+        MediaType contentType = response.getHeaders().getContentType();
+        byte[] type = contentType == null ? new byte[0] : contentType.toString().getBytes(StandardCharsets.UTF_8);
+        byte[] body = response.getBody() == null ? new byte[0] : response.getBody().getBytes(StandardCharsets.UTF_8);
+        ByteBuffer buffer = ByteBuffer.allocate(8 + type.length + body.length);
+        buffer.putInt(response.getStatusCodeValue());
+        buffer.putInt(type.length);
+        buffer.put(type);
+        buffer.put(body);
+        return buffer.array();
+    }
+
+    @Override
+    public ResponseEntity<String> decode(ByteBuffer bytes) {
+        int status = bytes.getInt();
+        byte[] type = new byte[bytes.getInt()];
+        bytes.get(type);
+        byte[] body = new byte[bytes.remaining()];
+        bytes.get(body);
+        HttpHeaders headers = new HttpHeaders();
+        if (type.length > 0) {
+            headers.setContentType(MediaType.parseMediaType(new String(type, StandardCharsets.UTF_8)));
+        }
+        return ResponseEntity.status(status).headers(headers).body(new String(body, StandardCharsets.UTF_8));
+    }
+
+}
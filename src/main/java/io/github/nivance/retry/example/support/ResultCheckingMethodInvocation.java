@@ -0,0 +1,83 @@
+package io.github.nivance.retry.example.support;
+
+import java.lang.reflect.AccessibleObject;
+import java.lang.reflect.Method;
+import java.util.function.Function;
+
+import org.springframework.aop.ProxyMethodInvocation;
+
+/**
+ * Raises the failure a result stands for from {@link #proceed()}, including on the clones the retry
+ * interceptor proceeds with for each attempt.
+ */
+final class ResultCheckingMethodInvocation implements ProxyMethodInvocation {
+
+    private final ProxyMethodInvocation delegate;
+    private final Function<Object, ? extends RuntimeException> classifier;
+
+    ResultCheckingMethodInvocation(ProxyMethodInvocation delegate, Function<Object, ? extends RuntimeException> classifier) {
+        this.delegate = delegate;
+        this.classifier = classifier;
+    }
+
+    @Override
+    public Object proceed() throws Throwable {
+        Object result = delegate.proceed();
+        RuntimeException failure = classifier.apply(result);
+        if (failure != null) {
+            throw failure;
+        }
+        return result;
+    }
+
+    @Override
+    public ProxyMethodInvocation invocableClone() {
+        return new ResultCheckingMethodInvocation((ProxyMethodInvocation) delegate.invocableClone(), classifier);
+    }
+
+    @Override
+    public ProxyMethodInvocation invocableClone(Object... arguments) {
+        return new ResultCheckingMethodInvocation((ProxyMethodInvocation) delegate.invocableClone(arguments), classifier);
+    }
+
+    @Override
+    public Object getProxy() {
+        return delegate.getProxy();
+    }
+
+    @Override
+    public void setArguments(Object... arguments) {
+        delegate.setArguments(arguments);
+    }
+
+    @Override
+    public void setUserAttribute(String key, Object value) {
+        delegate.setUserAttribute(key, value);
+    }
+
+    @Override
+    public Object getUserAttribute(String key) {
+        return delegate.getUserAttribute(key);
+    }
+
+    @Override
+    public Method getMethod() {
+        return delegate.getMethod();
+    }
+
+    @Override
+    public Object[] getArguments() {
+        return delegate.getArguments();
+    }
+
+    @Override
+    public Object getThis() {
+        return delegate.getThis();
+    }
+
+    @Override
+    public AccessibleObject getStaticPart() {
+        return delegate.getStaticPart();
+    }
+
+}
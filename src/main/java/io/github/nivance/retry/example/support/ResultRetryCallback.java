@@ -0,0 +1,47 @@
+package io.github.nivance.retry.example.support;
+
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+import org.springframework.retry.RetryCallback;
+import org.springframework.retry.RetryContext;
+
+/**
+ * Retries on results as well as on exceptions, e.g.
+ * {@code template.execute(ResultRetryCallback.retryIfResult(callback, result -> !result.contains("good")))}.
+ * A result the classifier rejects is raised as the stackless exception it maps to, so the retry
+ * policy, backoff, listeners and recovery of the template apply to it unchanged.
+ */
+public class ResultRetryCallback<T, E extends Throwable> implements RetryCallback<T, E> {
+
+    private final RetryCallback<T, E> delegate;
+    private final Function<? super T, ? extends RuntimeException> classifier;
+
+    /**
+     * @param classifier the failure a result stands for, or {@code null} if the result is good
+     */
+    public ResultRetryCallback(RetryCallback<T, E> delegate, Function<? super T, ? extends RuntimeException> classifier) {
+        this.delegate = delegate;
+        this.classifier = classifier;
+    }
+
+    /**
+     * Retries while {@code predicate} matches the result; once retries are exhausted the last result
+     * is available from {@link RetryableResultException#lastResult(RetryContext)}.
+     */
+    public static <T, E extends Throwable> ResultRetryCallback<T, E> retryIfResult(RetryCallback<T, E> delegate,
+                                                                                  Predicate<? super T> predicate) {
+        return new ResultRetryCallback<>(delegate, result -> predicate.test(result) ? new RetryableResultException(result) : null);
+    }
+
+    @Override
+    public T doWithRetry(RetryContext context) throws E {
+        T result = delegate.doWithRetry(context);
+        RuntimeException failure = classifier.apply(result);
+        if (failure != null) {
+            throw failure;
+        }
+        return result;
+    }
+
+}
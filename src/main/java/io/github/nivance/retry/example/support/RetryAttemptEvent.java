@@ -0,0 +1,60 @@
+package io.github.nivance.retry.example.support;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * Flight recorder counterpart of {@link AttemptRecord}. Only loaded by
+ * {@link AttemptRecordingListener} on JVMs that ship {@code jdk.jfr}.
+ */
+@Name("io.github.nivance.retry.Attempt")
+@Label("Retry Attempt")
+@Category("Spring Retry")
+@Description("A retry attempt, or the end of a retry that failed")
+@StackTrace(false)
+class RetryAttemptEvent extends Event {
+
+    @Label("Label")
+    String label;
+
+    @Label("Attempt")
+    int attempt;
+
+    @Label("Backoff")
+    @Timespan(Timespan.MILLISECONDS)
+    long backoff;
+
+    @Label("Latency")
+    @Timespan(Timespan.MICROSECONDS)
+    long latency;
+
+    @Label("Exception")
+    String exception;
+
+    @Label("Circuit Breaker State")
+    String circuitBreakerState;
+
+    @Label("Outcome")
+    String outcome;
+
+    static void commit(AttemptRecord record) {
+        RetryAttemptEvent event = new RetryAttemptEvent();
+        if (!event.isEnabled()) {
+            return;
+        }
+        event.label = record.getLabel();
+        event.attempt = record.getAttempt();
+        event.backoff = record.getBackoffMillis();
+        event.latency = record.getLatencyMicros();
+        event.exception = record.getException();
+        event.circuitBreakerState = record.getCircuitBreakerState();
+        event.outcome = record.getOutcome().name();
+        event.commit();
+    }
+
+}
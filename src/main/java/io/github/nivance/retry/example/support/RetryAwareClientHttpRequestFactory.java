@@ -0,0 +1,119 @@
+package io.github.nivance.retry.example.support;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.http.client.HttpClient;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.methods.HttpUriRequest;
+import org.apache.http.client.protocol.HttpClientContext;
+import org.apache.http.protocol.HttpContext;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.client.ClientHttpRequest;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.retry.RetryContext;
+import org.springframework.retry.support.RetrySynchronizationManager;
+
+/**
+ * Pooled request factory that applies per-label timeouts. The label is taken from the
+ * {@link RetryContext} bound to the current thread, so any call made from inside a
+ * {@code @Retryable} method or a retry callback picks up the timeouts configured for it.
+ * <p>
+ * If the retry has a {@link Deadline}, no timeout is longer than the time left, and the remaining
+ * budget is passed on in the {@value Deadline#HEADER} header. An attempt whose deadline has already
+ * passed fails with a {@link DeadlineExceededException} without sending anything. Recovery, which
+ * runs once the retry is exhausted, is not bound by the deadline.
+ * <p>
+ * Requests are registered with the attempt's {@link AttemptAbort}, if it has one, so a template that
+ * gives up on the attempt can abort the request in flight.
+ */
+public class RetryAwareClientHttpRequestFactory extends HttpComponentsClientHttpRequestFactory {
+
+    private final Map<String, RequestConfig> requestConfigs;
+
+    public RetryAwareClientHttpRequestFactory(HttpClient httpClient, Map<String, RequestConfig> requestConfigs) {
+        super(httpClient);
+        this.requestConfigs = requestConfigs;
+    }
+
+    @Override
+    public ClientHttpRequest createRequest(URI uri, HttpMethod httpMethod) throws IOException {
+        RetryContext retryContext = RetrySynchronizationManager.getContext();
+        Deadline deadline = retryContext == null ? null : attemptDeadline(retryContext);
+        if (deadline == null) {
+            return super.createRequest(uri, httpMethod);
+        }
+        long remaining = deadline.remaining(TimeUnit.MILLISECONDS);
+        if (remaining <= 0) {
+            throw new DeadlineExceededException(String.valueOf(retryContext.getAttribute(RetryContext.NAME)));
+        }
+        ClientHttpRequest request = super.createRequest(uri, httpMethod);
+        request.getHeaders().set(Deadline.HEADER, Long.toString(remaining));
+        return request;
+    }
+
+    @Override
+    protected HttpUriRequest createHttpUriRequest(HttpMethod httpMethod, URI uri) {
+        HttpUriRequest request = super.createHttpUriRequest(httpMethod, uri);
+        RetryContext retryContext = RetrySynchronizationManager.getContext();
+        if (retryContext != null) {
+            AttemptAbort.register(retryContext, request::abort);
+        }
+        return request;
+    }
+
+    @Override
+    protected HttpContext createHttpContext(HttpMethod httpMethod, URI uri) {
+        RetryContext retryContext = RetrySynchronizationManager.getContext();
+        if (retryContext == null) {
+            return null;
+        }
+        RequestConfig requestConfig = requestConfigs.get(retryContext.getAttribute(RetryContext.NAME));
+        Deadline deadline = attemptDeadline(retryContext);
+        if (deadline != null) {
+            requestConfig = withDeadline(requestConfig != null ? requestConfig : defaultRequestConfig(), deadline);
+        }
+        if (requestConfig == null) {
+            return null;
+        }
+        HttpClientContext context = HttpClientContext.create();
+        context.setRequestConfig(requestConfig);
+        return context;
+    }
+
+    private RequestConfig defaultRequestConfig() {
+        RequestConfig requestConfig = createRequestConfig(getHttpClient());
+        return requestConfig != null ? requestConfig : RequestConfig.DEFAULT;
+    }
+
+    /**
+     * @return the deadline that bounds calls made by an attempt, {@code null} during recovery
+     */
+    private static Deadline attemptDeadline(RetryContext retryContext) {
+        return retryContext.hasAttribute(RetryContext.EXHAUSTED) ? null : Deadline.of(retryContext);
+    }
+
+    /**
+     * The socket timeout bounds each read rather than the whole exchange, which is as close as the
+     * client gets; a response trickling in past the deadline still fails the attempt, and the
+     * retry is then not continued.
+     */
+    private static RequestConfig withDeadline(RequestConfig requestConfig, Deadline deadline) {
+        int remaining = (int) Math.max(1L, Math.min(Integer.MAX_VALUE, deadline.remaining(TimeUnit.MILLISECONDS)));
+        return RequestConfig.copy(requestConfig)
+                .setConnectionRequestTimeout(bounded(requestConfig.getConnectionRequestTimeout(), remaining))
+                .setConnectTimeout(bounded(requestConfig.getConnectTimeout(), remaining))
+                .setSocketTimeout(bounded(requestConfig.getSocketTimeout(), remaining))
+                .build();
+    }
+
+    /**
+     * @param timeout 0 for infinite, negative for the system default
+     */
+    private static int bounded(int timeout, int remaining) {
+        return timeout <= 0 ? remaining : Math.min(timeout, remaining);
+    }
+
+}
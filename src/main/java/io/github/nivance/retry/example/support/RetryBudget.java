@@ -0,0 +1,100 @@
+package io.github.nivance.retry.example.support;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Token bucket that caps retries at a percentage of first attempts. Every first attempt deposits
+ * {@code percentCanRetry / 100} of a token, every retry withdraws one, and deposits expire after
+ * {@code ttlSeconds}. A reserve of {@code minRetriesPerSecond} keeps low-traffic callers able to
+ * retry at all.
+ * <p>
+ * Deposits and withdrawals are counted in one-second slots of a primitive ring buffer, so the bucket
+ * is lock-free; concurrent withdrawals may overshoot the budget by at most the number of racing
+ * threads. Each slot packs the second it counts (high 32 bits) with the count (low 32 bits), so
+ * rolling a slot over to a new second and counting in it is a single compare-and-set.
+ */
+public class RetryBudget {
+
+    private final int ttlSeconds;
+    private final int percentCanRetry;
+    private final long reserve;
+    private final AtomicLongArray deposits;
+    private final AtomicLongArray withdrawals;
+
+    public RetryBudget(int ttlSeconds, int percentCanRetry, int minRetriesPerSecond) {
+        this.ttlSeconds = ttlSeconds;
+        this.percentCanRetry = percentCanRetry;
+        this.reserve = (long) minRetriesPerSecond * ttlSeconds;
+        this.deposits = new AtomicLongArray(ttlSeconds);
+        this.withdrawals = new AtomicLongArray(ttlSeconds);
+    }
+
+    public void deposit() {
+        add(deposits, currentSecond(), 1);
+    }
+
+    /**
+     * @return {@code true} if the caller may retry; the withdrawal can be undone with {@link #refund()}
+     */
+    public boolean tryWithdraw() {
+        int now = currentSecond();
+        add(withdrawals, now, 1);
+        if (balance() < 0) {
+            add(withdrawals, now, -1);
+            return false;
+        }
+        return true;
+    }
+
+    public void refund() {
+        add(withdrawals, currentSecond(), -1);
+    }
+
+    /**
+     * @return retries still allowed in the current window
+     */
+    public long balance() {
+        int now = currentSecond();
+        long deposited = 0;
+        long withdrawn = 0;
+        for (int i = 0; i < ttlSeconds; i++) {
+            deposited += live(deposits.get(i), now);
+            withdrawn += live(withdrawals.get(i), now);
+        }
+        return reserve + deposited * percentCanRetry / 100 - withdrawn;
+    }
+
+    private void add(AtomicLongArray counters, int now, int delta) {
+        int slot = Math.floorMod(now, ttlSeconds);
+        long current;
+        long next;
+        do {
+            current = counters.get(slot);
+            int count = epoch(current) == now ? count(current) : 0;
+            next = pack(now, count + delta);
+        } while (!counters.compareAndSet(slot, current, next));
+    }
+
+    private int live(long packed, int now) {
+        int age = now - epoch(packed);
+        return age >= 0 && age < ttlSeconds ? count(packed) : 0;
+    }
+
+    private static long pack(int epoch, int count) {
+        return (long) epoch << 32 | count & 0xFFFFFFFFL;
+    }
+
+    private static int epoch(long packed) {
+        return (int) (packed >>> 32);
+    }
+
+    private static int count(long packed) {
+        return (int) packed;
+    }
+
+    private static int currentSecond() {
+        return (int) TimeUnit.NANOSECONDS.toSeconds(System.nanoTime());
+    }
+
+}
@@ -0,0 +1,61 @@
+package io.github.nivance.retry.example.support;
+
+import java.util.Map;
+
+import org.springframework.retry.RetryCallback;
+import org.springframework.retry.RetryContext;
+import org.springframework.retry.listener.RetryListenerSupport;
+
+/**
+ * Applies a {@link RetryBudget} to annotated retries, selected by label. Add it to the
+ * {@code listeners} of {@code @Retryable} (or to the listeners of a template); labels without a
+ * budget are left alone. When the budget is spent the context is marked exhausted, so the call goes
+ * straight to its {@code @Recover} method instead of retrying.
+ */
+public class RetryBudgetListener extends RetryListenerSupport {
+
+    private static final String DEPOSITED = "budget.deposited";
+    private static final String WITHDRAWN = "budget.withdrawn";
+    private static final String DENIED = "budget.denied";
+
+    private final Map<String, RetryBudget> budgets;
+
+    public RetryBudgetListener(Map<String, RetryBudget> budgets) {
+        this.budgets = budgets;
+    }
+
+    @Override
+    public <T, E extends Throwable> void onError(RetryContext context, RetryCallback<T, E> callback, Throwable throwable) {
+        RetryBudget budget = budgetOf(context);
+        if (budget == null) {
+            return;
+        }
+        if (budget.tryWithdraw()) {
+            context.setAttribute(WITHDRAWN, true);
+        } else {
+            context.removeAttribute(WITHDRAWN);
+            context.setAttribute(DENIED, true);
+            context.setExhaustedOnly();
+        }
+    }
+
+    @Override
+    public <T, E extends Throwable> void close(RetryContext context, RetryCallback<T, E> callback, Throwable throwable) {
+        RetryBudget budget = budgetOf(context);
+        if (budget != null && throwable != null && context.hasAttribute(WITHDRAWN)) {
+            // the retry policy gave up after the last failure, so that withdrawal was never used
+            budget.refund();
+        }
+    }
+
+    private RetryBudget budgetOf(RetryContext context) {
+        Object name = context.getAttribute(RetryContext.NAME);
+        RetryBudget budget = name == null ? null : budgets.get(name);
+        if (budget != null && !context.hasAttribute(DEPOSITED)) {
+            context.setAttribute(DEPOSITED, true);
+            budget.deposit();
+        }
+        return budget;
+    }
+
+}
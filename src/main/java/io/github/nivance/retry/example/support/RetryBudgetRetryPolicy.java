@@ -0,0 +1,56 @@
+package io.github.nivance.retry.example.support;
+
+import org.springframework.retry.RetryContext;
+import org.springframework.retry.RetryPolicy;
+
+/**
+ * Wraps any {@link RetryPolicy} so that retries, but never first attempts, also need a token from a
+ * shared {@link RetryBudget}.
+ */
+public class RetryBudgetRetryPolicy implements RetryPolicy {
+
+    private static final long serialVersionUID = -1938561270435934720L;
+
+    private static final String WITHDRAWN_FOR = "budget.withdrawnFor";
+
+    private final RetryBudget retryBudget;
+    private final RetryPolicy delegate;
+
+    public RetryBudgetRetryPolicy(RetryBudget retryBudget, RetryPolicy delegate) {
+        this.retryBudget = retryBudget;
+        this.delegate = delegate;
+    }
+
+    @Override
+    public boolean canRetry(RetryContext context) {
+        if (!delegate.canRetry(context)) {
+            return false;
+        }
+        int retryCount = context.getRetryCount();
+        if (retryCount == 0 || Integer.valueOf(retryCount).equals(context.getAttribute(WITHDRAWN_FOR))) {
+            return true;
+        }
+        if (!retryBudget.tryWithdraw()) {
+            return false;
+        }
+        context.setAttribute(WITHDRAWN_FOR, retryCount);
+        return true;
+    }
+
+    @Override
+    public RetryContext open(RetryContext parent) {
+        retryBudget.deposit();
+        return delegate.open(parent);
+    }
+
+    @Override
+    public void close(RetryContext context) {
+        delegate.close(context);
+    }
+
+    @Override
+    public void registerThrowable(RetryContext context, Throwable throwable) {
+        delegate.registerThrowable(context, throwable);
+    }
+
+}
@@ -0,0 +1,17 @@
+package io.github.nivance.retry.example.support;
+
+import org.springframework.retry.TerminatedRetryException;
+
+/**
+ * Ends a retry whose caller is gone, e.g. because the thread running it was interrupted or the
+ * future of an asynchronous retry was cancelled. Unlike an exhausted retry it is not recovered.
+ */
+public class RetryCancelledException extends TerminatedRetryException {
+
+    private static final long serialVersionUID = 6187361845720951746L;
+
+    public RetryCancelledException(String message) {
+        super(message);
+    }
+
+}
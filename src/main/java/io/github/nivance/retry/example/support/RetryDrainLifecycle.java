@@ -0,0 +1,75 @@
+package io.github.nivance.retry.example.support;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.context.SmartLifecycle;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Drains the retries of a {@link CancellationListener} when the application context stops. It
+ * stops in the same phase as the web server's graceful shutdown, so requests waiting for a backoff
+ * are recovered and answered while the server waits for them, instead of holding up the shutdown.
+ */
+@Slf4j
+public class RetryDrainLifecycle implements SmartLifecycle {
+
+    private final CancellationListener cancellationListener;
+    private final Duration timeout;
+    private volatile boolean running;
+
+    public RetryDrainLifecycle(CancellationListener cancellationListener, Duration timeout) {
+        this.cancellationListener = cancellationListener;
+        this.timeout = timeout;
+    }
+
+    @Override
+    public void start() {
+        running = true;
+    }
+
+    @Override
+    public void stop() {
+        int remaining;
+        try {
+            remaining = cancellationListener.drain(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            remaining = cancellationListener.getInFlightCount();
+        }
+        if (remaining > 0) {
+            log.warn("{} retries still in flight after draining for {}", remaining, timeout);
+        }
+        running = false;
+    }
+
+    /**
+     * Drains on a thread of its own, so other beans of the phase stop meanwhile.
+     */
+    @Override
+    public void stop(Runnable callback) {
+        Thread drainer = new Thread(() -> {
+            try {
+                stop();
+            } finally {
+                callback.run();
+            }
+        }, "retry-drain");
+        drainer.start();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * That of {@code WebServerGracefulShutdownLifecycle}.
+     */
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE;
+    }
+
+}
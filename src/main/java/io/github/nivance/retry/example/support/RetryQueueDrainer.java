@@ -0,0 +1,103 @@
+package io.github.nivance.retry.example.support;
+
+import java.util.List;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Replays the entries of a {@link DurableRetryQueue} in batches on a scheduler. A batch in which
+ * every replay succeeded is followed by the next one after {@code minPause}, so a long backlog is
+ * replayed at no more than {@code batchSize} calls per pause instead of back-to-back against an
+ * upstream that just recovered; any failure doubles the pause before the next batch, up to
+ * {@code maxBackoff}. Entries that failed {@code maxReplays} times are dropped.
+ */
+@Slf4j
+public class RetryQueueDrainer {
+
+    private final DurableRetryQueue queue;
+    private final Predicate<byte[]> handler;
+    private final ScheduledExecutorService scheduler;
+    private final int batchSize;
+    private final long minPause;
+    private final long initialBackoff;
+    private final long maxBackoff;
+    private final int maxReplays;
+
+    private long backoff;
+
+    /**
+     * @param handler replays a payload, returning {@code true} when it is done
+     */
+    public RetryQueueDrainer(DurableRetryQueue queue, Predicate<byte[]> handler, ScheduledExecutorService scheduler,
+                             int batchSize, long minPause, long initialBackoff, long maxBackoff, int maxReplays) {
+        this.queue = queue;
+        this.handler = handler;
+        this.scheduler = scheduler;
+        this.batchSize = batchSize;
+        this.minPause = minPause;
+        this.initialBackoff = initialBackoff;
+        this.maxBackoff = maxBackoff;
+        this.maxReplays = maxReplays;
+        this.backoff = initialBackoff;
+    }
+
+    public void start() {
+        scheduler.schedule(this::drain, initialBackoff, TimeUnit.MILLISECONDS);
+    }
+
+    private void drain() {
+        long delay;
+        try {
+            delay = drainBatch();
+        } catch (RuntimeException e) {
+            log.error("Draining the retry queue failed", e);
+            delay = maxBackoff;
+        }
+        if (!scheduler.isShutdown()) {
+            scheduler.schedule(this::drain, delay, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * @return the delay before the next batch
+     */
+    long drainBatch() {
+        List<DurableRetryQueue.Entry> batch = queue.poll(batchSize);
+        if (batch.isEmpty()) {
+            return initialBackoff;
+        }
+        int failures = 0;
+        for (DurableRetryQueue.Entry entry : batch) {
+            if (replay(entry)) {
+                queue.complete(entry);
+            } else if (entry.getReplays() + 1 >= maxReplays) {
+                log.warn("Dropping retry after {} replays", maxReplays);
+                queue.complete(entry);
+                failures++;
+            } else {
+                queue.retryLater(entry);
+                failures++;
+            }
+        }
+        if (failures == 0) {
+            backoff = initialBackoff;
+            return minPause;
+        }
+        long delay = backoff;
+        backoff = Math.min(backoff * 2, maxBackoff);
+        return delay;
+    }
+
+    private boolean replay(DurableRetryQueue.Entry entry) {
+        try {
+            return handler.test(entry.getPayload());
+        } catch (RuntimeException e) {
+            log.info("Replay failed: {}", e.toString());
+            return false;
+        }
+    }
+
+}
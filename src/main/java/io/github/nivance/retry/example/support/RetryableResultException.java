@@ -0,0 +1,34 @@
+package io.github.nivance.retry.example.support;
+
+import org.springframework.retry.RetryContext;
+
+/**
+ * Carries a result that {@link ResultRetryCallback} decided to retry through the exception based
+ * retry loop of {@link org.springframework.retry.support.RetryTemplate}. No stack trace is
+ * captured, so retrying on a result costs one allocation.
+ */
+public class RetryableResultException extends RuntimeException {
+
+    private static final long serialVersionUID = 6613542918301739126L;
+
+    private final transient Object result;
+
+    public RetryableResultException(Object result) {
+        super("Retrying on result", null, false, false);
+        this.result = result;
+    }
+
+    public Object getResult() {
+        return result;
+    }
+
+    /**
+     * @return the last result that was retried, e.g. for a recovery callback, or {@code null}
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> T lastResult(RetryContext context) {
+        Throwable lastThrowable = context.getLastThrowable();
+        return lastThrowable instanceof RetryableResultException ? (T) ((RetryableResultException) lastThrowable).result : null;
+    }
+
+}
@@ -0,0 +1,174 @@
+package io.github.nivance.retry.example.support;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A fixed number of counters summed over a sliding time window. The window is a ring of
+ * {@code buckets} time slots, each holding one value per counter in a flat primitive array. Every
+ * value packs the epoch of the slot it counts (high 32 bits) with the count (low 32 bits), so rolling
+ * a value over to a new slot and counting in it is a single compare-and-set: a rollover never drops
+ * a count or moves it to another slot. Adding never blocks or allocates, and readers never block
+ * writers either.
+ * <p>
+ * Times are wall-clock milliseconds, so a window restored from a snapshot lines up with the current
+ * one and buckets older than the window are simply ignored. Epochs are compared modulo 2^32, which
+ * with buckets of a second or more never wraps within a window.
+ */
+public class RollingWindow {
+
+    private final int counters;
+    private final long bucketMillis;
+    private final int buckets;
+    /**
+     * bucket * counters + counter -> epoch | count.
+     */
+    private final AtomicLongArray counts;
+
+    public RollingWindow(int counters, long bucketMillis, int buckets) {
+        if (counters <= 0 || bucketMillis <= 0 || buckets <= 0) {
+            throw new IllegalArgumentException("counters, bucketMillis and buckets must be positive");
+        }
+        this.counters = counters;
+        this.bucketMillis = bucketMillis;
+        this.buckets = buckets;
+        this.counts = new AtomicLongArray(buckets * counters);
+    }
+
+    public void add(int counter, long delta, long now) {
+        add(counter, (int) delta, now / bucketMillis);
+    }
+
+    /**
+     * @return the sum of every counter over the window ending at {@code now}
+     */
+    public long[] sum(long now) {
+        long current = now / bucketMillis;
+        long[] sum = new long[counters];
+        for (int bucket = 0; bucket < buckets; bucket++) {
+            for (int counter = 0; counter < counters; counter++) {
+                long packed = counts.get(bucket * counters + counter);
+                int age = age(current, packed);
+                if (age >= 0 && age < buckets) {
+                    sum[counter] += count(packed);
+                }
+            }
+        }
+        return sum;
+    }
+
+    public long getWindowMillis() {
+        return bucketMillis * buckets;
+    }
+
+    /**
+     * Writes the shape of the window and its used buckets.
+     */
+    void writeTo(DataOutput out) throws IOException {
+        out.writeInt(counters);
+        out.writeLong(bucketMillis);
+        out.writeInt(buckets);
+        long[] snapshot = new long[buckets * counters];
+        int used = 0;
+        for (int bucket = 0; bucket < buckets; bucket++) {
+            for (int counter = 0; counter < counters; counter++) {
+                snapshot[bucket * counters + counter] = counts.get(bucket * counters + counter);
+            }
+            if (latest(snapshot, bucket) != 0L) {
+                used++;
+            }
+        }
+        out.writeInt(used);
+        for (int bucket = 0; bucket < buckets; bucket++) {
+            long latest = latest(snapshot, bucket);
+            if (latest == 0L) {
+                continue;
+            }
+            // counters not touched since an earlier slot count nothing in this one
+            out.writeLong(epoch(latest));
+            for (int counter = 0; counter < counters; counter++) {
+                long packed = snapshot[bucket * counters + counter];
+                out.writeLong(epoch(packed) == epoch(latest) ? count(packed) : 0L);
+            }
+        }
+    }
+
+    /**
+     * Adds the buckets written by {@link #writeTo(DataOutput)} to this window; they are read but
+     * dropped if the window was written with another shape.
+     */
+    void readFrom(DataInput in) throws IOException {
+        int writtenCounters = in.readInt();
+        long writtenBucketMillis = in.readLong();
+        in.readInt();
+        int used = in.readInt();
+        boolean compatible = writtenCounters == counters && writtenBucketMillis == bucketMillis;
+        long[] values = new long[writtenCounters];
+        for (int i = 0; i < used; i++) {
+            long epoch = in.readLong();
+            for (int counter = 0; counter < writtenCounters; counter++) {
+                values[counter] = in.readLong();
+            }
+            if (compatible && epoch >= 0) {
+                for (int counter = 0; counter < counters; counter++) {
+                    add(counter, (int) values[counter], epoch);
+                }
+            }
+        }
+    }
+
+    /**
+     * Counts {@code delta} in the slot of {@code epoch}, taking the slot over from an older epoch. A
+     * slot that has already moved on to a later epoch, e.g. because a restored bucket is older than
+     * the live one or the clock stepped back, keeps its count and the delta is dropped.
+     */
+    private void add(int counter, int delta, long epoch) {
+        int index = (int) (epoch % buckets) * counters + counter;
+        long current;
+        long next;
+        do {
+            current = counts.get(index);
+            int age = age(epoch, current);
+            if (age < 0 && current != 0L) {
+                return;
+            }
+            next = pack(epoch, age == 0 ? count(current) + delta : delta);
+        } while (!counts.compareAndSet(index, current, next));
+    }
+
+    /**
+     * @return the value of the counter of {@code bucket} that counts the latest epoch, 0 if none was used
+     */
+    private long latest(long[] snapshot, int bucket) {
+        long latest = 0L;
+        for (int counter = 0; counter < counters; counter++) {
+            long packed = snapshot[bucket * counters + counter];
+            if (packed != 0L && (latest == 0L || (int) (epoch(packed) - epoch(latest)) > 0)) {
+                latest = packed;
+            }
+        }
+        return latest;
+    }
+
+    /**
+     * @return how many slots {@code packed} counts before {@code epoch}, modulo 2^32
+     */
+    private static int age(long epoch, long packed) {
+        return (int) epoch - (int) (packed >>> 32);
+    }
+
+    private static long pack(long epoch, int count) {
+        return epoch << 32 | count & 0xFFFFFFFFL;
+    }
+
+    private static long epoch(long packed) {
+        return packed >>> 32;
+    }
+
+    private static int count(long packed) {
+        return (int) packed;
+    }
+
+}
@@ -0,0 +1,44 @@
+package io.github.nivance.retry.example.support;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * {@link Bulkhead} with a fixed number of permits.
+ */
+public class SemaphoreBulkhead implements Bulkhead {
+
+    private final int maxConcurrentCalls;
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    public SemaphoreBulkhead(int maxConcurrentCalls) {
+        this.maxConcurrentCalls = maxConcurrentCalls;
+    }
+
+    @Override
+    public boolean tryAcquire() {
+        int current;
+        do {
+            current = inFlight.get();
+            if (current >= maxConcurrentCalls) {
+                return false;
+            }
+        } while (!inFlight.compareAndSet(current, current + 1));
+        return true;
+    }
+
+    @Override
+    public void release(long durationNanos) {
+        inFlight.decrementAndGet();
+    }
+
+    @Override
+    public int getLimit() {
+        return maxConcurrentCalls;
+    }
+
+    @Override
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+}
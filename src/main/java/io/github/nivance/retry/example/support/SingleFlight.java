@@ -0,0 +1,128 @@
+package io.github.nivance.retry.example.support;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces concurrent calls by key: the first caller runs the call, including all of its retries
+ * and its recovery, and every caller arriving with the same key while it is in flight shares the
+ * outcome. Each caller gets its own dependent future, so cancelling one does not cancel the others;
+ * once the last of them is cancelled, nobody is waiting any more and the shared call is cancelled
+ * too. A caller arriving after that starts a new call.
+ */
+public class SingleFlight<K, V> {
+
+    private final ConcurrentMap<K, Flight<V>> inFlight = new ConcurrentHashMap<>();
+    private final LongAdder leaders = new LongAdder();
+    private final LongAdder followers = new LongAdder();
+
+    public CompletableFuture<V> execute(K key, Supplier<? extends CompletableFuture<V>> call) {
+        while (true) {
+            Flight<V> flight = inFlight.get(key);
+            if (flight == null) {
+                Flight<V> created = new Flight<>();
+                flight = inFlight.putIfAbsent(key, created);
+                if (flight == null) {
+                    leaders.increment();
+                    run(key, created, call);
+                    return waiter(key, created);
+                }
+            }
+            if (flight.join()) {
+                followers.increment();
+                return waiter(key, flight);
+            }
+            // its last waiter has just left, and it is being cancelled
+            inFlight.remove(key, flight);
+        }
+    }
+
+    private void run(K key, Flight<V> flight, Supplier<? extends CompletableFuture<V>> call) {
+        try {
+            CompletableFuture<V> future = call.get();
+            flight.call = future;
+            if (flight.promise.isCancelled()) {
+                // every waiter left while the call was being started
+                future.cancel(true);
+            }
+            future.whenComplete((value, e) -> {
+                inFlight.remove(key, flight);
+                if (e != null) {
+                    flight.promise.completeExceptionally(e);
+                } else {
+                    flight.promise.complete(value);
+                }
+            });
+        } catch (RuntimeException e) {
+            inFlight.remove(key, flight);
+            flight.promise.completeExceptionally(e);
+        }
+    }
+
+    private CompletableFuture<V> waiter(K key, Flight<V> flight) {
+        CompletableFuture<V> waiter = flight.promise.thenApply(Function.identity());
+        waiter.whenComplete((value, e) -> {
+            if (waiter.isCancelled() && flight.leave()) {
+                inFlight.remove(key, flight);
+                CompletableFuture<V> call = flight.call;
+                if (call != null) {
+                    call.cancel(true);
+                }
+                flight.promise.cancel(false);
+            }
+        });
+        return waiter;
+    }
+
+    public int getInFlightCount() {
+        return inFlight.size();
+    }
+
+    public long getLeaderCount() {
+        return leaders.sum();
+    }
+
+    /**
+     * @return callers that joined a call already in flight instead of issuing their own
+     */
+    public long getFollowerCount() {
+        return followers.sum();
+    }
+
+    private static final class Flight<V> {
+
+        private final CompletableFuture<V> promise = new CompletableFuture<>();
+        /**
+         * Callers waiting for the outcome, the leader included.
+         */
+        private final AtomicInteger waiters = new AtomicInteger(1);
+        private volatile CompletableFuture<V> call;
+
+        /**
+         * @return {@code false} if the last waiter has already left
+         */
+        private boolean join() {
+            int count;
+            do {
+                count = waiters.get();
+                if (count == 0) {
+                    return false;
+                }
+            } while (!waiters.compareAndSet(count, count + 1));
+            return true;
+        }
+
+        /**
+         * @return {@code true} if the last waiter left before the call completed
+         */
+        private boolean leave() {
+            return waiters.decrementAndGet() == 0 && !promise.isDone();
+        }
+    }
+
+}
@@ -0,0 +1,344 @@
+package io.github.nivance.retry.example.support;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Circuit breaker driven by the failure rate and slow-call rate over the last {@code windowSize}
+ * calls. Outcomes live in a primitive ring buffer and the aggregated counts are packed into a single
+ * {@link AtomicLong}, so recording a call is two atomic operations and never takes a lock.
+ * <p>
+ * After {@code waitDurationInOpenState} an open breaker moves to half-open and lets at most
+ * {@code permittedCallsInHalfOpenState} probe calls through; their outcome decides whether it closes
+ * again or re-opens.
+ * <p>
+ * A snapshot holds the window's outcomes, the state and the wall-clock time the breaker last opened.
+ * A breaker restored from one that was open or half-open starts open for what is left of its wait,
+ * or half-open if the wait ended while the application was down. Restoring does not notify the
+ * state transition listeners: nothing changed since the snapshot was written.
+ */
+public class SlidingWindowCircuitBreaker implements Snapshottable {
+
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    /**
+     * Called on the thread that caused a transition; must not block.
+     */
+    public interface StateTransitionListener {
+        void onStateTransition(SlidingWindowCircuitBreaker circuitBreaker, State from, State to);
+    }
+
+    private static final int EMPTY = 0;
+    private static final int SUCCESS = 1;
+    private static final int FAILURE = 2;
+    private static final int SLOW = 4;
+
+    private static final int FIELD_BITS = 21;
+    private static final long FIELD_MASK = (1L << FIELD_BITS) - 1;
+    private static final int FAILURE_SHIFT = FIELD_BITS;
+    private static final int CALL_SHIFT = FIELD_BITS * 2;
+
+    private static final int CLOSED = 0;
+    private static final int OPEN = 1;
+    private static final int HALF_OPEN = 2;
+
+    private final String name;
+    private final int windowSize;
+    private final AtomicIntegerArray outcomes;
+    private final AtomicLong cursor = new AtomicLong();
+    /**
+     * calls | failures | slow calls, {@value #FIELD_BITS} bits each.
+     */
+    private final AtomicLong counts = new AtomicLong();
+
+    private final AtomicInteger state = new AtomicInteger(CLOSED);
+    private final AtomicInteger halfOpenPermits = new AtomicInteger();
+    private final AtomicLong halfOpenCounts = new AtomicLong();
+    private volatile long openedAt;
+    private final CopyOnWriteArrayList<StateTransitionListener> listeners = new CopyOnWriteArrayList<>();
+
+    private int minimumNumberOfCalls = 10;
+    private int failureRateThreshold = 50;
+    private int slowCallRateThreshold = 100;
+    private long slowCallDurationThreshold = TimeUnit.SECONDS.toNanos(60);
+    private long waitDurationInOpenState = TimeUnit.SECONDS.toNanos(60);
+    private int permittedCallsInHalfOpenState = 5;
+
+    public SlidingWindowCircuitBreaker(String name, int windowSize) {
+        if (windowSize <= 0 || windowSize > FIELD_MASK) {
+            throw new IllegalArgumentException("windowSize must be between 1 and " + FIELD_MASK);
+        }
+        this.name = name;
+        this.windowSize = windowSize;
+        this.outcomes = new AtomicIntegerArray(windowSize);
+    }
+
+    public void setMinimumNumberOfCalls(int minimumNumberOfCalls) {
+        this.minimumNumberOfCalls = Math.min(minimumNumberOfCalls, windowSize);
+    }
+
+    /**
+     * @param failureRateThreshold percentage of failed calls in the window that opens the breaker
+     */
+    public void setFailureRateThreshold(int failureRateThreshold) {
+        this.failureRateThreshold = failureRateThreshold;
+    }
+
+    /**
+     * @param slowCallRateThreshold percentage of slow calls in the window that opens the breaker
+     */
+    public void setSlowCallRateThreshold(int slowCallRateThreshold) {
+        this.slowCallRateThreshold = slowCallRateThreshold;
+    }
+
+    public void setSlowCallDurationThreshold(long slowCallDurationThreshold, TimeUnit unit) {
+        this.slowCallDurationThreshold = unit.toNanos(slowCallDurationThreshold);
+    }
+
+    public void setWaitDurationInOpenState(long waitDurationInOpenState, TimeUnit unit) {
+        this.waitDurationInOpenState = unit.toNanos(waitDurationInOpenState);
+    }
+
+    public void setPermittedCallsInHalfOpenState(int permittedCallsInHalfOpenState) {
+        this.permittedCallsInHalfOpenState = permittedCallsInHalfOpenState;
+    }
+
+    public void addStateTransitionListener(StateTransitionListener listener) {
+        listeners.add(listener);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public State getState() {
+        return State.values()[state.get()];
+    }
+
+    /**
+     * @return {@code true} if a call may proceed; every granted permission must be followed by
+     * {@link #onSuccess(long)}, {@link #onError(long)} or {@link #releasePermission()}
+     */
+    public boolean tryAcquirePermission() {
+        int current = state.get();
+        if (current == CLOSED) {
+            return true;
+        }
+        if (current == OPEN) {
+            if (System.nanoTime() - openedAt < waitDurationInOpenState) {
+                return false;
+            }
+            transitionToHalfOpen();
+            current = state.get();
+        }
+        if (current == HALF_OPEN) {
+            return halfOpenPermits.getAndDecrement() > 0;
+        }
+        return current == CLOSED;
+    }
+
+    public void releasePermission() {
+        if (state.get() == HALF_OPEN) {
+            halfOpenPermits.incrementAndGet();
+        }
+    }
+
+    public void onSuccess(long durationNanos) {
+        record(SUCCESS, durationNanos);
+    }
+
+    public void onError(long durationNanos) {
+        record(FAILURE, durationNanos);
+    }
+
+    /**
+     * @return failure rate in percent, or -1 while fewer than the minimum number of calls were recorded
+     */
+    public float getFailureRate() {
+        long packed = counts.get();
+        long calls = field(packed, CALL_SHIFT);
+        return calls < minimumNumberOfCalls ? -1f : field(packed, FAILURE_SHIFT) * 100f / calls;
+    }
+
+    /**
+     * @return slow-call rate in percent, or -1 while fewer than the minimum number of calls were recorded
+     */
+    public float getSlowCallRate() {
+        long packed = counts.get();
+        long calls = field(packed, CALL_SHIFT);
+        return calls < minimumNumberOfCalls ? -1f : field(packed, 0) * 100f / calls;
+    }
+
+    public void transitionToOpen() {
+        int current = state.get();
+        if (current != OPEN && state.compareAndSet(current, OPEN)) {
+            openedAt = System.nanoTime();
+            fire(current, OPEN);
+        }
+    }
+
+    public void transitionToClosed() {
+        int current = state.get();
+        if (current != CLOSED && state.compareAndSet(current, CLOSED)) {
+            reset();
+            fire(current, CLOSED);
+        }
+    }
+
+    /**
+     * Restarts the wait of an open breaker, e.g. while another instance is already probing the
+     * upstream.
+     */
+    public void holdOpen() {
+        if (state.get() == OPEN) {
+            openedAt = System.nanoTime();
+        }
+    }
+
+    @Override
+    public String getSnapshotName() {
+        return "circuitBreaker." + name;
+    }
+
+    /**
+     * Writes the state, when it last opened in epoch milliseconds, and the window's outcomes, oldest
+     * first, one byte each.
+     */
+    @Override
+    public void writeSnapshot(DataOutput out) throws IOException {
+        out.writeByte(state.get());
+        out.writeLong(System.currentTimeMillis() - TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - openedAt));
+        out.writeInt(windowSize);
+        long next = cursor.get();
+        for (int i = 0; i < windowSize; i++) {
+            out.writeByte(outcomes.get((int) (((next + i) & Long.MAX_VALUE) % windowSize)));
+        }
+    }
+
+    /**
+     * Replays the outcomes of a snapshot, the most recent ones only if it was written with a larger
+     * window.
+     */
+    @Override
+    public void readSnapshot(DataInput in) throws IOException {
+        int restoredState = in.readByte();
+        long restoredOpenedAt = in.readLong();
+        int restoredSize = in.readInt();
+        for (int i = 0; i < restoredSize; i++) {
+            int outcome = in.readByte();
+            if (outcome != EMPTY && restoredSize - i <= windowSize && state.get() == CLOSED) {
+                int slot = (int) ((cursor.getAndIncrement() & Long.MAX_VALUE) % windowSize);
+                counts.addAndGet(weight(outcome) - weight(outcomes.getAndSet(slot, outcome)));
+            }
+        }
+        if (restoredState == CLOSED) {
+            return;
+        }
+        long openFor = TimeUnit.MILLISECONDS.toNanos(Math.max(0L, System.currentTimeMillis() - restoredOpenedAt));
+        if (openFor < waitDurationInOpenState) {
+            openedAt = System.nanoTime() - openFor;
+            state.compareAndSet(CLOSED, OPEN);
+        } else if (state.compareAndSet(CLOSED, HALF_OPEN)) {
+            halfOpenCounts.set(0L);
+            halfOpenPermits.set(permittedCallsInHalfOpenState);
+        }
+    }
+
+    private void transitionToHalfOpen() {
+        if (state.compareAndSet(OPEN, HALF_OPEN)) {
+            halfOpenCounts.set(0L);
+            halfOpenPermits.set(permittedCallsInHalfOpenState);
+            fire(OPEN, HALF_OPEN);
+        }
+    }
+
+    private void fire(int from, int to) {
+        for (StateTransitionListener listener : listeners) {
+            listener.onStateTransition(this, State.values()[from], State.values()[to]);
+        }
+    }
+
+    private void record(int result, long durationNanos) {
+        int outcome = durationNanos >= slowCallDurationThreshold ? result | SLOW : result;
+        int current = state.get();
+        if (current == HALF_OPEN) {
+            recordHalfOpen(outcome);
+        } else if (current == CLOSED) {
+            recordClosed(outcome);
+        }
+    }
+
+    private void recordClosed(int outcome) {
+        int slot = (int) ((cursor.getAndIncrement() & Long.MAX_VALUE) % windowSize);
+        int previous = outcomes.getAndSet(slot, outcome);
+        long packed = counts.addAndGet(weight(outcome) - weight(previous));
+        if (exceedsThresholds(packed, minimumNumberOfCalls)) {
+            transitionToOpen();
+        }
+    }
+
+    private void recordHalfOpen(int outcome) {
+        long packed = halfOpenCounts.addAndGet(weight(outcome));
+        if (field(packed, CALL_SHIFT) != permittedCallsInHalfOpenState) {
+            return;
+        }
+        if (exceedsThresholds(packed, 1)) {
+            if (state.compareAndSet(HALF_OPEN, OPEN)) {
+                openedAt = System.nanoTime();
+                fire(HALF_OPEN, OPEN);
+            }
+        } else if (state.compareAndSet(HALF_OPEN, CLOSED)) {
+            reset();
+            fire(HALF_OPEN, CLOSED);
+        }
+    }
+
+    private boolean exceedsThresholds(long packed, int minimumCalls) {
+        long calls = field(packed, CALL_SHIFT);
+        if (calls < minimumCalls) {
+            return false;
+        }
+        return field(packed, FAILURE_SHIFT) * 100 >= failureRateThreshold * calls
+                || field(packed, 0) * 100 >= slowCallRateThreshold * calls;
+    }
+
+    private void reset() {
+        for (int i = 0; i < windowSize; i++) {
+            outcomes.set(i, EMPTY);
+        }
+        counts.set(0L);
+    }
+
+    private static long weight(int outcome) {
+        if (outcome == EMPTY) {
+            return 0L;
+        }
+        long weight = 1L << CALL_SHIFT;
+        if ((outcome & FAILURE) != 0) {
+            weight += 1L << FAILURE_SHIFT;
+        }
+        if ((outcome & SLOW) != 0) {
+            weight += 1L;
+        }
+        return weight;
+    }
+
+    private static long field(long packed, int shift) {
+        return (packed >>> shift) & FIELD_MASK;
+    }
+
+    @Override
+    public String toString() {
+        return "SlidingWindowCircuitBreaker[name=" + name + ", state=" + getState()
+                + ", failureRate=" + getFailureRate() + ", slowCallRate=" + getSlowCallRate() + "]";
+    }
+
+}
@@ -0,0 +1,119 @@
+package io.github.nivance.retry.example.support;
+
+import java.util.function.Supplier;
+
+import org.springframework.retry.RetryContext;
+import org.springframework.retry.RetryPolicy;
+import org.springframework.retry.context.RetryContextSupport;
+import org.springframework.retry.policy.SimpleRetryPolicy;
+
+/**
+ * {@link RetryPolicy} that guards every attempt of a stateless retry with a
+ * {@link SlidingWindowCircuitBreaker}. Unlike
+ * {@link org.springframework.retry.policy.CircuitBreakerRetryPolicy} it does not need a
+ * {@link org.springframework.retry.RetryState} or a shared retry context: the breaker is the only
+ * shared state. A rejected attempt registers a {@link CircuitBreakerOpenException}, so the
+ * recovery path sees a cause.
+ * <p>
+ * The breaker can also be resolved per retry, when it is opened, e.g. from a
+ * {@link CircuitBreakerRegistry} by {@link KeyedCircuitBreakerInterceptor}.
+ */
+public class SlidingWindowCircuitBreakerRetryPolicy implements RetryPolicy {
+
+    public static final String CIRCUIT_OPEN = "circuit.open";
+
+    private static final long serialVersionUID = 8412264712391093410L;
+
+    private final Supplier<SlidingWindowCircuitBreaker> circuitBreakers;
+    private final RetryPolicy delegate;
+
+    public SlidingWindowCircuitBreakerRetryPolicy(SlidingWindowCircuitBreaker circuitBreaker) {
+        this(circuitBreaker, new SimpleRetryPolicy(1));
+    }
+
+    public SlidingWindowCircuitBreakerRetryPolicy(SlidingWindowCircuitBreaker circuitBreaker, RetryPolicy delegate) {
+        this(() -> circuitBreaker, delegate);
+    }
+
+    /**
+     * @param circuitBreakers called once per retry, on the thread opening it
+     */
+    public SlidingWindowCircuitBreakerRetryPolicy(Supplier<SlidingWindowCircuitBreaker> circuitBreakers, RetryPolicy delegate) {
+        this.circuitBreakers = circuitBreakers;
+        this.delegate = delegate;
+    }
+
+    /**
+     * @return the breaker guarding a retry opened by this policy, or {@code null} for other contexts
+     */
+    public static SlidingWindowCircuitBreaker circuitBreakerOf(RetryContext context) {
+        return context instanceof CircuitBreakerRetryContext ? ((CircuitBreakerRetryContext) context).circuitBreaker : null;
+    }
+
+    @Override
+    public boolean canRetry(RetryContext context) {
+        CircuitBreakerRetryContext circuit = (CircuitBreakerRetryContext) context;
+        if (circuit.permitted) {
+            circuit.attemptStartedAt = System.nanoTime();
+            return true;
+        }
+        if (circuit.isExhaustedOnly() || !delegate.canRetry(circuit.delegate)) {
+            return false;
+        }
+        if (!circuit.circuitBreaker.tryAcquirePermission()) {
+            circuit.setAttribute(CIRCUIT_OPEN, true);
+            circuit.registerThrowable(new CircuitBreakerOpenException(circuit.circuitBreaker.getName()));
+            return false;
+        }
+        circuit.permitted = true;
+        circuit.attemptStartedAt = System.nanoTime();
+        return true;
+    }
+
+    @Override
+    public RetryContext open(RetryContext parent) {
+        return new CircuitBreakerRetryContext(parent, circuitBreakers.get(), delegate.open(parent));
+    }
+
+    @Override
+    public void close(RetryContext context) {
+        CircuitBreakerRetryContext circuit = (CircuitBreakerRetryContext) context;
+        if (circuit.permitted) {
+            circuit.permitted = false;
+            if (circuit.hasAttribute(RetryContext.EXHAUSTED)) {
+                circuit.circuitBreaker.releasePermission();
+            } else {
+                circuit.circuitBreaker.onSuccess(System.nanoTime() - circuit.attemptStartedAt);
+            }
+        }
+        delegate.close(circuit.delegate);
+    }
+
+    @Override
+    public void registerThrowable(RetryContext context, Throwable throwable) {
+        CircuitBreakerRetryContext circuit = (CircuitBreakerRetryContext) context;
+        if (circuit.permitted) {
+            circuit.permitted = false;
+            circuit.circuitBreaker.onError(System.nanoTime() - circuit.attemptStartedAt);
+        }
+        delegate.registerThrowable(circuit.delegate, throwable);
+        circuit.registerThrowable(throwable);
+    }
+
+    private static final class CircuitBreakerRetryContext extends RetryContextSupport {
+
+        private static final long serialVersionUID = -2470335738467962386L;
+
+        private final SlidingWindowCircuitBreaker circuitBreaker;
+        private final RetryContext delegate;
+        private boolean permitted;
+        private long attemptStartedAt;
+
+        private CircuitBreakerRetryContext(RetryContext parent, SlidingWindowCircuitBreaker circuitBreaker, RetryContext delegate) {
+            super(parent);
+            this.circuitBreaker = circuitBreaker;
+            this.delegate = delegate;
+        }
+    }
+
+}
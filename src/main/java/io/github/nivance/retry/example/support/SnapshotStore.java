@@ -0,0 +1,174 @@
+package io.github.nivance.retry.example.support;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.CRC32;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Binary snapshot of {@link Snapshottable} state in a single local file.
+ * <p>
+ * The file is {@code magic | version | written at | sections | crc32}, and a section is
+ * {@code name | length | bytes}, so sections nobody claims any more are skipped. It is written to a
+ * temporary file first and moved over the previous snapshot, so a crash never leaves a torn one
+ * behind. Snapshots are best effort: a missing, corrupt or outdated file, or a section that cannot be
+ * read, is logged and its state starts cold. Saving and loading are serialized with a
+ * {@link ReentrantLock}, which does not pin a virtual thread while it waits for the file.
+ */
+@Slf4j
+public class SnapshotStore {
+
+    private static final int MAGIC = 0x52534e50;
+    private static final int VERSION = 2;
+
+    private final Path file;
+    private final List<Snapshottable> parts;
+    private final long maxAge;
+    private final ReentrantLock lock = new ReentrantLock();
+
+    /**
+     * @param maxAge age in milliseconds beyond which a snapshot is too old to be restored
+     */
+    public SnapshotStore(Path file, List<Snapshottable> parts, long maxAge) {
+        this.file = file;
+        this.parts = parts;
+        this.maxAge = maxAge;
+    }
+
+    public void save() {
+        lock.lock();
+        try {
+            write();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void write() {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(System.currentTimeMillis());
+            out.writeInt(parts.size());
+            ByteArrayOutputStream section = new ByteArrayOutputStream();
+            for (Snapshottable part : parts) {
+                section.reset();
+                part.writeSnapshot(new DataOutputStream(section));
+                out.writeUTF(part.getSnapshotName());
+                out.writeInt(section.size());
+                section.writeTo(out);
+            }
+            CRC32 crc = new CRC32();
+            crc.update(bytes.toByteArray());
+            out.writeInt((int) crc.getValue());
+
+            Path directory = file.toAbsolutePath().getParent();
+            Files.createDirectories(directory);
+            Path temporary = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+            try {
+                Files.write(temporary, bytes.toByteArray());
+                Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(temporary);
+            }
+        } catch (IOException e) {
+            log.warn("Could not write snapshot {}", file, e);
+        }
+    }
+
+    /**
+     * @return the number of restored sections
+     */
+    public int load() {
+        lock.lock();
+        try {
+            return restore();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private int restore() {
+        if (!Files.exists(file)) {
+            return 0;
+        }
+        Map<String, byte[]> sections;
+        try {
+            sections = read(Files.readAllBytes(file));
+        } catch (IOException e) {
+            log.warn("Ignoring unreadable snapshot {}", file, e);
+            return 0;
+        }
+        if (sections == null) {
+            return 0;
+        }
+        int restored = 0;
+        for (Snapshottable part : parts) {
+            byte[] section = sections.get(part.getSnapshotName());
+            if (section == null) {
+                continue;
+            }
+            try {
+                part.readSnapshot(new DataInputStream(new ByteArrayInputStream(section)));
+                restored++;
+            } catch (IOException | RuntimeException e) {
+                log.warn("Could not restore {} from snapshot {}", part.getSnapshotName(), file, e);
+            }
+        }
+        log.info("Restored {} of {} parts from snapshot {}", restored, parts.size(), file);
+        return restored;
+    }
+
+    /**
+     * @return the sections by name, or {@code null} if the snapshot should not be restored
+     */
+    private Map<String, byte[]> read(byte[] bytes) throws IOException {
+        if (bytes.length < 4) {
+            throw new EOFException("Snapshot of " + bytes.length + " bytes");
+        }
+        CRC32 crc = new CRC32();
+        crc.update(bytes, 0, bytes.length - 4);
+        if ((int) crc.getValue() != ByteBuffer.wrap(bytes, bytes.length - 4, 4).getInt()) {
+            throw new IOException("Checksum mismatch");
+        }
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes, 0, bytes.length - 4));
+        if (in.readInt() != MAGIC) {
+            throw new IOException("Not a snapshot");
+        }
+        int version = in.readInt();
+        if (version != VERSION) {
+            log.warn("Ignoring snapshot {} of unsupported version {}", file, version);
+            return null;
+        }
+        long age = System.currentTimeMillis() - in.readLong();
+        if (age > maxAge) {
+            log.info("Ignoring snapshot {} written {} ms ago", file, age);
+            return null;
+        }
+        int count = in.readInt();
+        Map<String, byte[]> sections = new HashMap<>();
+        for (int i = 0; i < count; i++) {
+            String name = in.readUTF();
+            byte[] section = new byte[in.readInt()];
+            in.readFully(section);
+            sections.put(name, section);
+        }
+        return sections;
+    }
+
+}
@@ -0,0 +1,26 @@
+package io.github.nivance.retry.example.support;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * State that {@link SnapshotStore} writes to disk periodically and restores on startup, so it does
+ * not have to be learnt again after a restart.
+ */
+public interface Snapshottable {
+
+    /**
+     * @return the name of the section holding this state, unique and stable across restarts
+     */
+    String getSnapshotName();
+
+    void writeSnapshot(DataOutput out) throws IOException;
+
+    /**
+     * Called at most once, before the state is used, with what {@link #writeSnapshot(DataOutput)}
+     * wrote in an earlier run.
+     */
+    void readSnapshot(DataInput in) throws IOException;
+
+}
@@ -0,0 +1,33 @@
+package io.github.nivance.retry.example.support;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The rolling windows kept per retry label by {@link LatencyRetryStatistics}, each a ring of
+ * {@value #BUCKETS} buckets.
+ */
+public enum StatisticsWindow {
+
+    ONE_MINUTE("1m", TimeUnit.SECONDS.toMillis(1)),
+    FIVE_MINUTES("5m", TimeUnit.SECONDS.toMillis(5)),
+    ONE_HOUR("1h", TimeUnit.MINUTES.toMillis(1));
+
+    private static final int BUCKETS = 60;
+
+    private final String label;
+    private final long bucketMillis;
+
+    StatisticsWindow(String label, long bucketMillis) {
+        this.label = label;
+        this.bucketMillis = bucketMillis;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    RollingWindow newWindow(int counters) {
+        return new RollingWindow(counters, bucketMillis, BUCKETS);
+    }
+
+}
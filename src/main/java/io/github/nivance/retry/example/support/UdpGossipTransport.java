@@ -0,0 +1,95 @@
+package io.github.nivance.retry.example.support;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.DatagramChannel;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * {@link GossipTransport} over UDP unicast: every message is sent to every peer as one datagram.
+ * Several instances can run on one host, each bound to its own port.
+ * <p>
+ * Datagrams from addresses other than the peers are dropped. That is no authentication, source
+ * addresses are easily spoofed, so bind to an interface that only the cluster can reach.
+ */
+@Slf4j
+public class UdpGossipTransport implements GossipTransport {
+
+    private static final int MAX_DATAGRAM_SIZE = 1024;
+
+    private final DatagramChannel channel;
+    private final List<InetSocketAddress> peers = new CopyOnWriteArrayList<>();
+    private Thread receiverThread;
+
+    public UdpGossipTransport(InetSocketAddress bindAddress, List<InetSocketAddress> peers) throws IOException {
+        this.channel = DatagramChannel.open().bind(bindAddress);
+        this.peers.addAll(peers);
+    }
+
+    public InetSocketAddress getLocalAddress() throws IOException {
+        return (InetSocketAddress) channel.getLocalAddress();
+    }
+
+    public void addPeer(InetSocketAddress peer) {
+        peers.add(peer);
+    }
+
+    @Override
+    public void start(Consumer<byte[]> receiver) {
+        receiverThread = new Thread(() -> receive(receiver), "gossip-receiver");
+        receiverThread.setDaemon(true);
+        receiverThread.start();
+    }
+
+    private void receive(Consumer<byte[]> receiver) {
+        ByteBuffer buffer = ByteBuffer.allocate(MAX_DATAGRAM_SIZE);
+        while (channel.isOpen()) {
+            try {
+                buffer.clear();
+                SocketAddress sender = channel.receive(buffer);
+                if (sender == null) {
+                    continue;
+                }
+                if (!peers.contains(sender)) {
+                    log.debug("Dropping gossip message from unknown sender {}", sender);
+                    continue;
+                }
+                buffer.flip();
+                byte[] message = new byte[buffer.remaining()];
+                buffer.get(message);
+                receiver.accept(message);
+            } catch (ClosedChannelException e) {
+                return;
+            } catch (IOException | RuntimeException e) {
+                log.warn("Dropping gossip message: {}", e.toString());
+            }
+        }
+    }
+
+    @Override
+    public void publish(byte[] message) {
+        if (message.length > MAX_DATAGRAM_SIZE) {
+            throw new IllegalArgumentException("Gossip message of " + message.length + " bytes is too large");
+        }
+        for (InetSocketAddress peer : peers) {
+            try {
+                channel.send(ByteBuffer.wrap(message), peer);
+            } catch (IOException e) {
+                log.debug("Could not send gossip to {}: {}", peer, e.toString());
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+}
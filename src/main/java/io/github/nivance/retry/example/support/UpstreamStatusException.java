@@ -0,0 +1,83 @@
+package io.github.nivance.retry.example.support;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.remoting.RemoteAccessException;
+
+/**
+ * Failed upstream call, created from a response instead of thrown by the HTTP client. It is raised
+ * on every 5xx of a struggling upstream, so it captures no stack trace and builds its message only
+ * when asked for it.
+ * <p>
+ * A failure is retryable if the upstream did not respond at all or responded with 5xx, 408 or 429;
+ * other 4xx would fail the same way again.
+ */
+public class UpstreamStatusException extends RemoteAccessException {
+
+    private static final long serialVersionUID = -3206117914522731190L;
+
+    /**
+     * Status of a call that got no response.
+     */
+    public static final int NO_RESPONSE = 0;
+
+    private final int statusCode;
+    private final transient HttpHeaders headers;
+
+    public UpstreamStatusException(int statusCode, HttpHeaders headers) {
+        super(null);
+        this.statusCode = statusCode;
+        this.headers = headers;
+    }
+
+    public UpstreamStatusException(Throwable cause) {
+        super(null, cause);
+        this.statusCode = NO_RESPONSE;
+        this.headers = HttpHeaders.EMPTY;
+    }
+
+    /**
+     * @return the failure {@code response} stands for, or {@code null} if it is not an error response
+     */
+    public static UpstreamStatusException of(ResponseEntity<?> response) {
+        int statusCode = response.getStatusCodeValue();
+        return statusCode < 400 ? null : new UpstreamStatusException(statusCode, response.getHeaders());
+    }
+
+    /**
+     * Result classifier for {@link RecoverAwareRetryInterceptor}: {@link #of(ResponseEntity)} for
+     * responses, {@code null} for anything else.
+     */
+    public static UpstreamStatusException ofResult(Object result) {
+        return result instanceof ResponseEntity ? of((ResponseEntity<?>) result) : null;
+    }
+
+    public static boolean isRetryable(int statusCode) {
+        return statusCode == NO_RESPONSE || statusCode >= 500
+                || statusCode == HttpStatus.REQUEST_TIMEOUT.value() || statusCode == HttpStatus.TOO_MANY_REQUESTS.value();
+    }
+
+    public boolean isRetryable() {
+        return isRetryable(statusCode);
+    }
+
+    public int getStatusCode() {
+        return statusCode;
+    }
+
+    public HttpHeaders getHeaders() {
+        return headers;
+    }
+
+    @Override
+    public String getMessage() {
+        return statusCode == NO_RESPONSE ? "Upstream did not respond" : "Upstream responded with status " + statusCode;
+    }
+
+    @Override
+    public synchronized Throwable fillInStackTrace() {
+        return this;
+    }
+
+}
@@ -0,0 +1,21 @@
+package io.github.nivance.retry.example.support;
+
+import org.springframework.retry.RetryPolicy;
+import org.springframework.retry.policy.ExceptionClassifierRetryPolicy;
+import org.springframework.retry.policy.NeverRetryPolicy;
+
+/**
+ * Gives up at once on an {@link UpstreamStatusException} that is not retryable, and leaves every
+ * other failure to {@code delegate}.
+ */
+public class UpstreamStatusRetryPolicy extends ExceptionClassifierRetryPolicy {
+
+    private static final long serialVersionUID = 4173309927151367022L;
+
+    public UpstreamStatusRetryPolicy(RetryPolicy delegate) {
+        RetryPolicy never = new NeverRetryPolicy();
+        setExceptionClassifier(throwable -> throwable instanceof UpstreamStatusException
+                && !((UpstreamStatusException) throwable).isRetryable() ? never : delegate);
+    }
+
+}
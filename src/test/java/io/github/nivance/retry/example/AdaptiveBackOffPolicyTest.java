@@ -0,0 +1,96 @@
+package io.github.nivance.retry.example;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.remoting.RemoteAccessException;
+import org.springframework.retry.RetryContext;
+import org.springframework.retry.backoff.BackOffContext;
+import org.springframework.retry.context.RetryContextSupport;
+import org.springframework.web.client.HttpServerErrorException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import io.github.nivance.retry.example.support.AdaptiveBackOffPolicy;
+
+public class AdaptiveBackOffPolicyTest {
+
+    private final List<Long> sleeps = new ArrayList<>();
+    private final AdaptiveBackOffPolicy policy = new AdaptiveBackOffPolicy(100, 1000, 5000).withSleeper(sleeps::add);
+
+    @Test
+    public void delayGrowsOnFailuresAndDecaysOnSuccess() {
+        assertEquals(100, policy.getDelay("label"));
+        fail(context("label"), new RemoteAccessException("500"));
+        fail(context("label"), new RemoteAccessException("500"));
+        assertEquals(400, policy.getDelay("label"));
+        assertEquals(100, policy.getDelay("other"));
+
+        succeed(context("label"));
+        assertEquals(300, policy.getDelay("label"));
+    }
+
+    @Test
+    public void overloadedResponsesBackOffHarder() {
+        fail(context("label"), new RemoteAccessException("503", overloaded(null)));
+        assertEquals(400, policy.getDelay("label"));
+    }
+
+    @Test
+    public void sleepsWithJitterWithinBounds() {
+        RetryContext context = context("label");
+        BackOffContext backOffContext = policy.start(context);
+        for (int i = 0; i < 20; i++) {
+            policy.backOff(backOffContext);
+        }
+        sleeps.forEach(sleep -> assertTrue(sleep >= 100 && sleep <= 1000, "sleep " + sleep));
+    }
+
+    @Test
+    public void honorsRetryAfter() {
+        RetryContext context = context("label");
+        fail(context, new RemoteAccessException("503", overloaded("2")));
+        policy.backOff(policy.start(context));
+        assertTrue(sleeps.get(0) >= 2000);
+        assertFalse(context.isExhaustedOnly());
+    }
+
+    @Test
+    public void givesUpWhenRetryAfterIsTooLong() {
+        RetryContext context = context("label");
+        fail(context, new RemoteAccessException("503", overloaded("60")));
+        policy.backOff(policy.start(context));
+        assertTrue(sleeps.isEmpty());
+        assertTrue(context.isExhaustedOnly());
+        assertEquals(60000L, context.getAttribute(AdaptiveBackOffPolicy.RETRY_AFTER));
+    }
+
+    private RetryContext context(String label) {
+        RetryContextSupport context = new RetryContextSupport(null);
+        context.setAttribute(RetryContext.NAME, label);
+        policy.open(context, null);
+        return context;
+    }
+
+    private void fail(RetryContext context, Throwable throwable) {
+        ((RetryContextSupport) context).registerThrowable(throwable);
+        policy.onError(context, null, throwable);
+    }
+
+    private void succeed(RetryContext context) {
+        policy.close(context, null, null);
+    }
+
+    private static HttpServerErrorException overloaded(String retryAfter) {
+        HttpHeaders headers = new HttpHeaders();
+        if (retryAfter != null) {
+            headers.set(HttpHeaders.RETRY_AFTER, retryAfter);
+        }
+        return HttpServerErrorException.create(HttpStatus.SERVICE_UNAVAILABLE, "Service Unavailable", headers, null, null);
+    }
+
+}
@@ -0,0 +1,94 @@
+package io.github.nivance.retry.example;
+
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.retry.backoff.FixedBackOffPolicy;
+import org.springframework.retry.policy.SimpleRetryPolicy;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import io.github.nivance.retry.example.support.AsyncRetryTemplate;
+
+public class AsyncRetryTemplateTest {
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+    private final ExecutorService executor = Executors.newFixedThreadPool(2, new CustomizableThreadFactory("retry-worker-"));
+    private final AsyncRetryTemplate template = new AsyncRetryTemplate(scheduler, executor);
+    private final AtomicInteger attempts = new AtomicInteger();
+
+    @AfterEach
+    public void shutDown() {
+        scheduler.shutdownNow();
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void retriesOnWorkerThreadsWithoutBlockingTheCaller() throws Exception {
+        template.setRetryPolicy(new SimpleRetryPolicy(6));
+        template.setBackOffPolicy(backOff(100L));
+        Set<String> threads = ConcurrentHashMap.newKeySet();
+        CountDownLatch release = new CountDownLatch(1);
+
+        CompletableFuture<Integer> result = template.execute("async", context -> {
+            release.await();
+            threads.add(Thread.currentThread().getName());
+            if (attempts.incrementAndGet() < 5) {
+                throw new IllegalStateException("attempt " + attempts.get());
+            }
+            return attempts.get();
+        }, context -> Integer.MAX_VALUE);
+        assertFalse(result.isDone());
+        release.countDown();
+
+        assertEquals(5, result.get(5, TimeUnit.SECONDS));
+        threads.forEach(thread -> assertTrue(thread.startsWith("retry-worker-"), thread));
+    }
+
+    @Test
+    public void recoversWhenExhausted() throws Exception {
+        template.setRetryPolicy(new SimpleRetryPolicy(3));
+        template.setBackOffPolicy(backOff(10L));
+
+        CompletableFuture<Integer> result = template.execute("async", context -> {
+            attempts.incrementAndGet();
+            throw new IllegalStateException("down");
+        }, context -> -context.getRetryCount());
+
+        assertEquals(-3, result.get(5, TimeUnit.SECONDS));
+        assertEquals(3, attempts.get());
+    }
+
+    @Test
+    public void failsWithoutRecovery() {
+        template.setRetryPolicy(new SimpleRetryPolicy(2));
+        template.setBackOffPolicy(backOff(10L));
+
+        CompletableFuture<Integer> result = template.execute("async", context -> {
+            throw new IllegalStateException("down");
+        });
+
+        ExecutionException failure = assertThrows(ExecutionException.class, () -> result.get(5, TimeUnit.SECONDS));
+        assertTrue(failure.getCause() instanceof IllegalStateException);
+    }
+
+    private static FixedBackOffPolicy backOff(long period) {
+        FixedBackOffPolicy backOffPolicy = new FixedBackOffPolicy();
+        backOffPolicy.setBackOffPeriod(period);
+        return backOffPolicy;
+    }
+
+}
@@ -0,0 +1,105 @@
+package io.github.nivance.retry.example;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.remoting.RemoteAccessException;
+import org.springframework.retry.RetryContext;
+import org.springframework.retry.RetryListener;
+import org.springframework.retry.policy.SimpleRetryPolicy;
+import org.springframework.retry.support.RetryTemplate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import io.github.nivance.retry.example.support.AdaptiveBackOffPolicy;
+import io.github.nivance.retry.example.support.AttemptRecord;
+import io.github.nivance.retry.example.support.AttemptRecordingListener;
+import io.github.nivance.retry.example.support.AttemptRingBuffer;
+import io.github.nivance.retry.example.support.LatencyStatisticsListener;
+import io.github.nivance.retry.example.support.LatencyStatisticsRepository;
+
+public class AttemptRecordingListenerTest {
+
+    private final AttemptRecordingListener listener = new AttemptRecordingListener(new AttemptRingBuffer(16));
+
+    @Test
+    public void recordsEveryAttemptAndTheRecovery() {
+        RetryTemplate template = new RetryTemplate();
+        template.setRetryPolicy(new SimpleRetryPolicy(3));
+        template.setListeners(new RetryListener[]{listener});
+        template.execute(context -> {
+            context.setAttribute(RetryContext.NAME, "label");
+            throw new RemoteAccessException("500");
+        }, context -> null);
+
+        List<AttemptRecord> records = listener.getBuffer().snapshot("label", 10);
+        assertEquals(4, records.size());
+        for (int i = 0; i < 3; i++) {
+            assertEquals(i + 1, records.get(i).getAttempt());
+            assertEquals(AttemptRecord.Outcome.FAILED, records.get(i).getOutcome());
+            assertEquals(RemoteAccessException.class.getName(), records.get(i).getException());
+        }
+        assertEquals(AttemptRecord.Outcome.RECOVERED, records.get(3).getOutcome());
+        assertNull(records.get(3).getCircuitBreakerState());
+    }
+
+    @Test
+    public void recordsSuccess() {
+        RetryTemplate template = new RetryTemplate();
+        template.setListeners(new RetryListener[]{listener});
+        template.execute(context -> {
+            context.setAttribute(RetryContext.NAME, "label");
+            return 1;
+        });
+
+        List<AttemptRecord> records = listener.getBuffer().snapshot(null, 10);
+        assertEquals(1, records.size());
+        assertEquals(1, records.get(0).getAttempt());
+        assertEquals(AttemptRecord.Outcome.SUCCEEDED, records.get(0).getOutcome());
+    }
+
+    @Test
+    public void sharesAttemptTimingWithTheStatistics() {
+        LatencyStatisticsRepository repository = new LatencyStatisticsRepository();
+        AdaptiveBackOffPolicy backOffPolicy = new AdaptiveBackOffPolicy(200L, 200L, 0L);
+        RetryTemplate template = new RetryTemplate();
+        template.setRetryPolicy(new SimpleRetryPolicy(3));
+        template.setBackOffPolicy(backOffPolicy);
+        template.setListeners(new RetryListener[]{backOffPolicy, new LatencyStatisticsListener(repository), listener});
+        template.execute(context -> {
+            context.setAttribute(RetryContext.NAME, "label");
+            if (context.getRetryCount() < 2) {
+                throw new RemoteAccessException("500");
+            }
+            return 1;
+        });
+
+        List<AttemptRecord> records = listener.getBuffer().snapshot("label", 10);
+        assertEquals(3, records.size());
+        assertEquals(200L, records.get(2).getBackoffMillis());
+        for (AttemptRecord record : records) {
+            assertTrue(record.getLatencyMicros() < 100_000L, "attempt took " + record.getLatencyMicros() + " us");
+        }
+        assertEquals(3, repository.findOne("label").getAttemptLatency().getCount());
+    }
+
+    @Test
+    public void keepsTheMostRecentRecords() {
+        AttemptRingBuffer buffer = new AttemptRingBuffer(10);
+        assertEquals(16, buffer.getCapacity());
+        for (int i = 0; i < 40; i++) {
+            buffer.record(i % 2 == 0 ? "even" : "odd", i, 0L, 0L, null, null, AttemptRecord.Outcome.SUCCEEDED);
+        }
+        List<AttemptRecord> records = buffer.snapshot(null, 100);
+        assertEquals(16, records.size());
+        assertEquals(24, records.get(0).getAttempt());
+        assertEquals(39, records.get(15).getAttempt());
+
+        List<AttemptRecord> even = buffer.snapshot("even", 3);
+        assertEquals(3, even.size());
+        assertEquals(34, even.get(0).getAttempt());
+        assertEquals(40, buffer.getRecordCount());
+    }
+
+}
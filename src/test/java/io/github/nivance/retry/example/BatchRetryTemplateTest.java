@@ -0,0 +1,163 @@
+package io.github.nivance.retry.example;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.retry.RetryCallback;
+import org.springframework.retry.RetryContext;
+import org.springframework.retry.RetryListener;
+import org.springframework.retry.backoff.ExponentialBackOffPolicy;
+import org.springframework.retry.listener.RetryListenerSupport;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import io.github.nivance.retry.example.support.BatchRetryTemplate;
+
+public class BatchRetryTemplateTest {
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+    private final ExecutorService executor = Executors.newFixedThreadPool(8);
+
+    @AfterEach
+    public void tearDown() {
+        scheduler.shutdownNow();
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void retriesOnlyFailedItemsAndRecoversTheRest() throws Exception {
+        BatchRetryTemplate template = template(3);
+        template.setRetryable(e -> !(e instanceof IllegalArgumentException));
+        List<Integer> items = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            items.add(i);
+        }
+        AtomicIntegerArray calls = new AtomicIntegerArray(20);
+        List<BatchRetryTemplate.Outcome<Integer>> outcomes = template.<Integer, Integer>execute("batch", items, item -> {
+            int call = calls.incrementAndGet(item);
+            if (item == 5) {
+                throw new IllegalArgumentException("not retryable");
+            }
+            if (item == 3 || item % 2 == 1 && call == 1) {
+                throw new IllegalStateException("failed");
+            }
+            return item;
+        }, (item, e) -> -item).get(5, TimeUnit.SECONDS);
+
+        assertEquals(20, outcomes.size());
+        assertOutcome(outcomes.get(0), 0, 1, false);
+        assertOutcome(outcomes.get(1), 1, 2, false);
+        assertOutcome(outcomes.get(3), -3, 3, true);
+        assertOutcome(outcomes.get(5), -5, 1, true);
+    }
+
+    @Test
+    public void boundsParallelism() throws Exception {
+        BatchRetryTemplate template = template(1);
+        template.setParallelism(3);
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+        List<Integer> items = new ArrayList<>();
+        for (int i = 0; i < 30; i++) {
+            items.add(i);
+        }
+        template.<Integer, Integer>execute("batch", items, item -> {
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            try {
+                Thread.sleep(5L);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            inFlight.decrementAndGet();
+            return item;
+        }, (item, e) -> -1).get(5, TimeUnit.SECONDS);
+        assertTrue(maxInFlight.get() <= 3, "max in flight " + maxInFlight.get());
+    }
+
+    @Test
+    public void listenersSeeTheBatchAsOneRetry() throws Exception {
+        BatchRetryTemplate template = template(3);
+        List<String> events = new ArrayList<>();
+        template.setListeners(new RetryListener[]{new RetryListenerSupport() {
+            @Override
+            public <T, E extends Throwable> boolean open(RetryContext context, RetryCallback<T, E> callback) {
+                assertTrue(callback instanceof BatchRetryTemplate.BatchCallback);
+                events.add("open " + context.getAttribute(RetryContext.NAME));
+                return true;
+            }
+
+            @Override
+            public <T, E extends Throwable> void onError(RetryContext context, RetryCallback<T, E> callback, Throwable throwable) {
+                try {
+                    callback.doWithRetry(context);
+                } catch (Throwable e) {
+                    throw new AssertionError(e);
+                }
+                events.add("error " + context.getRetryCount());
+            }
+
+            @Override
+            public <T, E extends Throwable> void close(RetryContext context, RetryCallback<T, E> callback, Throwable throwable) {
+                events.add("close " + (throwable == null ? null : throwable.getMessage()));
+            }
+        }});
+        List<Integer> items = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            items.add(i);
+        }
+
+        template.<Integer, Integer>execute("batch", items, item -> {
+            if (item == 2) {
+                throw new IllegalStateException("failed");
+            }
+            return item;
+        }, (item, e) -> -item).get(5, TimeUnit.SECONDS);
+
+        assertEquals(Arrays.asList("open batch", "error 1", "error 2", "error 3", "close failed"), events);
+    }
+
+    @Test
+    public void recoversItemsOfARejectedRound() throws Exception {
+        ExecutorService rejecting = Executors.newSingleThreadExecutor();
+        rejecting.shutdown();
+        BatchRetryTemplate template = new BatchRetryTemplate(scheduler, rejecting);
+
+        List<BatchRetryTemplate.Outcome<Integer>> outcomes = template.<Integer, Integer>execute("batch", Arrays.asList(1, 2), item -> item,
+                (item, e) -> e instanceof RejectedExecutionException ? -item : 0).get(1, TimeUnit.SECONDS);
+
+        assertOutcome(outcomes.get(0), -1, 0, true);
+        assertOutcome(outcomes.get(1), -2, 0, true);
+    }
+
+    @Test
+    public void emptyBatch() throws Exception {
+        assertTrue(template(3).<Integer, Integer>execute("batch", new ArrayList<>(), item -> item, (item, e) -> -1)
+                .get(1, TimeUnit.SECONDS).isEmpty());
+    }
+
+    private BatchRetryTemplate template(int maxAttempts) {
+        BatchRetryTemplate template = new BatchRetryTemplate(scheduler, executor);
+        template.setMaxAttempts(maxAttempts);
+        ExponentialBackOffPolicy backOffPolicy = new ExponentialBackOffPolicy();
+        backOffPolicy.setInitialInterval(10L);
+        template.setBackOffPolicy(backOffPolicy);
+        return template;
+    }
+
+    private static void assertOutcome(BatchRetryTemplate.Outcome<Integer> outcome, int value, int attempts, boolean recovered) {
+        assertEquals(value, outcome.getValue());
+        assertEquals(attempts, outcome.getAttempts());
+        assertEquals(recovered, outcome.isRecovered());
+    }
+
+}
@@ -0,0 +1,90 @@
+package io.github.nivance.retry.example;
+
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.retry.RetryContext;
+import org.springframework.retry.context.RetryContextSupport;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import io.github.nivance.retry.example.support.AdaptiveBulkhead;
+import io.github.nivance.retry.example.support.Bulkhead;
+import io.github.nivance.retry.example.support.BulkheadFullException;
+import io.github.nivance.retry.example.support.BulkheadListener;
+import io.github.nivance.retry.example.support.SemaphoreBulkhead;
+
+public class BulkheadTest {
+
+    @Test
+    public void rejectsOverLimitCallsIntoRecovery() {
+        Bulkhead bulkhead = new SemaphoreBulkhead(1);
+        BulkheadListener listener = new BulkheadListener(Collections.singletonMap("label", bulkhead));
+        RetryContext first = context("label");
+        RetryContext second = context("label");
+
+        assertTrue(listener.open(first, null));
+        assertTrue(listener.open(second, null));
+
+        assertFalse(first.isExhaustedOnly());
+        assertTrue(second.isExhaustedOnly());
+        assertTrue(second.getLastThrowable() instanceof BulkheadFullException);
+        listener.close(second, null, second.getLastThrowable());
+        assertEquals(1, bulkhead.getInFlight());
+        listener.close(first, null, null);
+        assertEquals(0, bulkhead.getInFlight());
+    }
+
+    @Test
+    public void ignoresLabelsWithoutBulkhead() {
+        BulkheadListener listener = new BulkheadListener(Collections.singletonMap("label", new SemaphoreBulkhead(0)));
+        RetryContext context = context("other");
+
+        assertTrue(listener.open(context, null));
+        assertFalse(context.isExhaustedOnly());
+    }
+
+    @Test
+    public void adaptiveLimitShrinksWhenLatencyRises() {
+        AdaptiveBulkhead bulkhead = new AdaptiveBulkhead(20, 1, 100);
+        fill(bulkhead, TimeUnit.MILLISECONDS.toNanos(10), 200);
+        int healthyLimit = bulkhead.getLimit();
+
+        fill(bulkhead, TimeUnit.MILLISECONDS.toNanos(100), 3);
+
+        assertTrue(bulkhead.getLimit() < healthyLimit, bulkhead.getLimit() + " < " + healthyLimit);
+        assertTrue(bulkhead.getLimit() >= 1);
+    }
+
+    @Test
+    public void adaptiveLimitIsEnforced() {
+        AdaptiveBulkhead bulkhead = new AdaptiveBulkhead(2, 1, 10);
+        assertTrue(bulkhead.tryAcquire());
+        assertTrue(bulkhead.tryAcquire());
+        assertFalse(bulkhead.tryAcquire());
+    }
+
+    /**
+     * Runs {@code calls} rounds that use the whole limit, all taking {@code latency}.
+     */
+    private static void fill(AdaptiveBulkhead bulkhead, long latency, int calls) {
+        for (int i = 0; i < calls; i++) {
+            int acquired = 0;
+            while (bulkhead.tryAcquire()) {
+                acquired++;
+            }
+            for (int j = 0; j < acquired; j++) {
+                bulkhead.release(latency);
+            }
+        }
+    }
+
+    private static RetryContext context(String label) {
+        RetryContextSupport context = new RetryContextSupport(null);
+        context.setAttribute(RetryContext.NAME, label);
+        return context;
+    }
+
+}
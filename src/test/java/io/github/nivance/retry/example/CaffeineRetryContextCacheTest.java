@@ -0,0 +1,56 @@
+package io.github.nivance.retry.example;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.retry.RetryState;
+import org.springframework.retry.policy.CircuitBreakerRetryPolicy;
+import org.springframework.retry.policy.SimpleRetryPolicy;
+import org.springframework.retry.support.DefaultRetryState;
+import org.springframework.retry.support.RetryTemplate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import io.github.nivance.retry.example.support.CaffeineRetryContextCache;
+
+public class CaffeineRetryContextCacheTest {
+
+    @Test
+    public void evictsInsteadOfFailingWhenFull() {
+        CaffeineRetryContextCache cache = new CaffeineRetryContextCache(100, 10, TimeUnit.MINUTES);
+        RetryTemplate template = new RetryTemplate();
+        template.setRetryPolicy(new CircuitBreakerRetryPolicy(new SimpleRetryPolicy(1)));
+        template.setRetryContextCache(cache);
+
+        for (int i = 0; i < 10_000; i++) {
+            // failures go straight to recovery instead of being rethrown for a rollback
+            RetryState state = new DefaultRetryState("circuit-" + i, false, e -> false);
+            assertEquals("default", template.execute(context -> {
+                throw new IllegalStateException("down");
+            }, context -> "default", state));
+        }
+        cache.cleanUp();
+
+        assertTrue(cache.size() <= 100);
+        assertTrue(cache.getStats().evictionCount() > 0);
+    }
+
+    @Test
+    public void countsHitsAndMisses() {
+        CaffeineRetryContextCache cache = new CaffeineRetryContextCache(100, 10, TimeUnit.MINUTES);
+        RetryTemplate template = new RetryTemplate();
+        template.setRetryPolicy(new CircuitBreakerRetryPolicy(new SimpleRetryPolicy(1)));
+        template.setRetryContextCache(cache);
+        RetryState state = new DefaultRetryState("circuit", false, e -> false);
+
+        for (int i = 0; i < 3; i++) {
+            template.execute(context -> {
+                throw new IllegalStateException("down");
+            }, context -> "default", state);
+        }
+
+        assertEquals(1, cache.getStats().missCount());
+        assertTrue(cache.getStats().hitCount() >= 2);
+    }
+
+}
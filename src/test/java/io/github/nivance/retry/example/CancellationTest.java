@@ -0,0 +1,119 @@
+package io.github.nivance.retry.example;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.retry.RetryCallback;
+import org.springframework.retry.RetryContext;
+import org.springframework.retry.RetryListener;
+import org.springframework.retry.backoff.FixedBackOffPolicy;
+import org.springframework.retry.listener.RetryListenerSupport;
+import org.springframework.retry.policy.SimpleRetryPolicy;
+import org.springframework.retry.support.RetryTemplate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import io.github.nivance.retry.example.support.AsyncRetryTemplate;
+import io.github.nivance.retry.example.support.CancellationListener;
+import io.github.nivance.retry.example.support.RetryCancelledException;
+
+public class CancellationTest {
+
+    private final CancellationListener listener = new CancellationListener();
+    private final AtomicInteger attempts = new AtomicInteger();
+    private final AtomicInteger recoveries = new AtomicInteger();
+
+    @AfterEach
+    public void clearInterrupt() {
+        Thread.interrupted();
+    }
+
+    @Test
+    public void interruptedRetryStopsWithoutRecovery() {
+        RetryTemplate template = template(0L);
+        assertThrows(RetryCancelledException.class, () -> template.execute(context -> {
+            attempts.incrementAndGet();
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("failed");
+        }, context -> recoveries.incrementAndGet()));
+
+        assertEquals(1, attempts.get());
+        assertEquals(0, recoveries.get());
+        assertEquals(0, listener.getInFlightCount());
+    }
+
+    @Test
+    public void drainRecoversRetriesWaitingForBackOff() throws Exception {
+        RetryTemplate template = template(TimeUnit.MINUTES.toMillis(1));
+        CountDownLatch failed = new CountDownLatch(1);
+        CompletableFuture<Boolean> drained = CompletableFuture.supplyAsync(() -> template.execute(context -> {
+            attempts.incrementAndGet();
+            failed.countDown();
+            throw new IllegalStateException("failed");
+        }, context -> context.hasAttribute(CancellationListener.DRAINED)));
+        assertTrue(failed.await(5, TimeUnit.SECONDS));
+
+        assertEquals(0, listener.drain(5, TimeUnit.SECONDS));
+        assertTrue(drained.get(1, TimeUnit.SECONDS));
+        assertEquals(1, attempts.get());
+    }
+
+    @Test
+    public void cancelledAsyncRetryIsClosedWithoutRecovery() throws Exception {
+        ScheduledThreadPoolExecutor scheduler = new ScheduledThreadPoolExecutor(1);
+        scheduler.setRemoveOnCancelPolicy(true);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        CountDownLatch closed = new CountDownLatch(1);
+        try {
+            AsyncRetryTemplate template = new AsyncRetryTemplate(scheduler, executor);
+            FixedBackOffPolicy backOffPolicy = new FixedBackOffPolicy();
+            backOffPolicy.setBackOffPeriod(TimeUnit.MINUTES.toMillis(1));
+            template.setBackOffPolicy(backOffPolicy);
+            template.setListeners(new RetryListener[]{listener, new RetryListenerSupport() {
+                @Override
+                public <T, E extends Throwable> void close(RetryContext context, RetryCallback<T, E> callback, Throwable throwable) {
+                    closed.countDown();
+                }
+            }});
+            CompletableFuture<Integer> result = template.execute("label", context -> {
+                attempts.incrementAndGet();
+                throw new IllegalStateException("failed");
+            }, context -> recoveries.incrementAndGet());
+            while (scheduler.getQueue().isEmpty()) {
+                Thread.sleep(10L);
+            }
+            // the timer is handed to the execution right after it was scheduled
+            Thread.sleep(50L);
+
+            assertTrue(result.cancel(true));
+            assertTrue(closed.await(5, TimeUnit.SECONDS));
+            assertTrue(scheduler.getQueue().isEmpty());
+            assertEquals(1, attempts.get());
+            assertEquals(0, recoveries.get());
+            assertFalse(listener.isDraining());
+        } finally {
+            scheduler.shutdownNow();
+            executor.shutdownNow();
+        }
+    }
+
+    private RetryTemplate template(long backOffPeriod) {
+        FixedBackOffPolicy backOffPolicy = new FixedBackOffPolicy();
+        backOffPolicy.setBackOffPeriod(backOffPeriod);
+        RetryTemplate template = new RetryTemplate();
+        template.setRetryPolicy(new SimpleRetryPolicy(3));
+        template.setBackOffPolicy(backOffPolicy.withSleeper(listener));
+        template.setListeners(new RetryListener[]{listener});
+        return template;
+    }
+
+}
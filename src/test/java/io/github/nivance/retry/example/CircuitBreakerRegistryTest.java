@@ -0,0 +1,87 @@
+package io.github.nivance.retry.example;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import io.github.nivance.retry.example.support.CircuitBreakerRegistry;
+import io.github.nivance.retry.example.support.SlidingWindowCircuitBreaker;
+
+public class CircuitBreakerRegistryTest {
+
+    @Test
+    public void keepsOneBreakerPerKey() {
+        CircuitBreakerRegistry registry = registry(10, TimeUnit.MINUTES);
+
+        SlidingWindowCircuitBreaker orders = registry.circuitBreaker("/orders");
+        assertSame(orders, registry.circuitBreaker("/orders"));
+        assertNotSame(orders, registry.circuitBreaker("/users"));
+        assertEquals("keyed:/orders", orders.getName());
+        assertEquals(2, registry.size());
+    }
+
+    @Test
+    public void countsOpenBreakers() {
+        CircuitBreakerRegistry registry = registry(10, TimeUnit.MINUTES);
+
+        registry.circuitBreaker("/orders").transitionToOpen();
+        registry.circuitBreaker("/users");
+
+        assertEquals(1, registry.getOpenCount());
+        assertEquals(SlidingWindowCircuitBreaker.State.CLOSED, registry.circuitBreaker("/users").getState());
+    }
+
+    @Test
+    public void evictsIdleBreakers() {
+        CircuitBreakerRegistry registry = registry(0, TimeUnit.NANOSECONDS);
+        registry.circuitBreaker("/orders");
+
+        assertEquals(1, registry.evictIdle());
+        assertEquals(0, registry.size());
+    }
+
+    @Test
+    public void onlyCreatesBreakersForConfiguredKeys() {
+        CircuitBreakerRegistry registry = registry(10, TimeUnit.MINUTES);
+        registry.setKeys(Arrays.asList("/orders", "/users"));
+
+        assertTrue(registry.accepts("/orders"));
+        assertFalse(registry.accepts("/unknown"));
+        assertThrows(IllegalArgumentException.class, () -> registry.circuitBreaker("/unknown"));
+        assertEquals(0, registry.size());
+    }
+
+    @Test
+    public void holdsAtMostMaxSizeBreakers() {
+        CircuitBreakerRegistry registry = new CircuitBreakerRegistry("keyed:", name -> new SlidingWindowCircuitBreaker(name, 10), 2,
+                10, TimeUnit.MINUTES);
+        registry.circuitBreaker("/orders");
+        registry.circuitBreaker("/users");
+
+        assertThrows(IllegalStateException.class, () -> registry.circuitBreaker("/payments"));
+        assertEquals(2, registry.size());
+        registry.circuitBreaker("/orders");
+    }
+
+    @Test
+    public void findsBreakersByTheirNamespacedName() {
+        CircuitBreakerRegistry registry = registry(10, TimeUnit.MINUTES);
+        SlidingWindowCircuitBreaker circuitBreaker = registry.circuitBreaker("circuitBreaker");
+
+        assertSame(circuitBreaker, registry.circuitBreakerNamed("keyed:circuitBreaker"));
+        assertNull(registry.circuitBreakerNamed("circuitBreaker"));
+    }
+
+    private static CircuitBreakerRegistry registry(long idleTimeout, TimeUnit unit) {
+        return new CircuitBreakerRegistry("keyed:", name -> new SlidingWindowCircuitBreaker(name, 10), 100, idleTimeout, unit);
+    }
+
+}
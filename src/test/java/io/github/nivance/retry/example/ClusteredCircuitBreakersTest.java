@@ -0,0 +1,112 @@
+package io.github.nivance.retry.example;
+
+import java.net.InetSocketAddress;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.function.BooleanSupplier;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import io.github.nivance.retry.example.support.ClusteredCircuitBreakers;
+import io.github.nivance.retry.example.support.GossipTransport;
+import io.github.nivance.retry.example.support.SlidingWindowCircuitBreaker;
+import io.github.nivance.retry.example.support.SlidingWindowCircuitBreaker.State;
+import io.github.nivance.retry.example.support.UdpGossipTransport;
+
+public class ClusteredCircuitBreakersTest {
+
+    private UdpGossipTransport firstTransport;
+    private UdpGossipTransport secondTransport;
+    private final SlidingWindowCircuitBreaker first = new SlidingWindowCircuitBreaker("upstream", 10);
+    private final SlidingWindowCircuitBreaker second = new SlidingWindowCircuitBreaker("upstream", 10);
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        firstTransport = new UdpGossipTransport(new InetSocketAddress("127.0.0.1", 0), Collections.emptyList());
+        secondTransport = new UdpGossipTransport(new InetSocketAddress("127.0.0.1", 0), Collections.emptyList());
+        firstTransport.addPeer(secondTransport.getLocalAddress());
+        secondTransport.addPeer(firstTransport.getLocalAddress());
+        start("first", firstTransport, first);
+        start("second", secondTransport, second);
+    }
+
+    @AfterEach
+    public void tearDown() throws Exception {
+        firstTransport.close();
+        secondTransport.close();
+    }
+
+    @Test
+    public void peersFollowTransitions() throws Exception {
+        first.transitionToOpen();
+        awaitTrue(() -> second.getState() == State.OPEN);
+
+        second.transitionToClosed();
+        awaitTrue(() -> first.getState() == State.CLOSED);
+    }
+
+    @Test
+    public void heartbeatsAreNotApplied() throws Exception {
+        ClusteredCircuitBreakers cluster = new ClusteredCircuitBreakers("third", firstTransport);
+        SlidingWindowCircuitBreaker open = new SlidingWindowCircuitBreaker("upstream", 10);
+        open.transitionToOpen();
+        cluster.register(open);
+
+        cluster.publishHeartbeats();
+        Thread.sleep(200L);
+
+        assertEquals(State.CLOSED, second.getState());
+    }
+
+    @Test
+    public void lostTransitionIsRepairedByHeartbeat() throws Exception {
+        AtomicBoolean lose = new AtomicBoolean(true);
+        GossipTransport lossy = new GossipTransport() {
+            @Override
+            public void start(Consumer<byte[]> receiver) {
+            }
+
+            @Override
+            public void publish(byte[] message) {
+                if (!lose.getAndSet(false)) {
+                    firstTransport.publish(message);
+                }
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+        ClusteredCircuitBreakers cluster = new ClusteredCircuitBreakers("third", lossy);
+        SlidingWindowCircuitBreaker third = new SlidingWindowCircuitBreaker("upstream", 10);
+        cluster.register(third);
+
+        third.transitionToOpen();
+        Thread.sleep(200L);
+        assertEquals(State.CLOSED, second.getState());
+
+        cluster.publishHeartbeats();
+        awaitTrue(() -> second.getState() == State.OPEN);
+    }
+
+    private static void start(String nodeId, UdpGossipTransport transport, SlidingWindowCircuitBreaker circuitBreaker) {
+        ClusteredCircuitBreakers cluster = new ClusteredCircuitBreakers(nodeId, transport);
+        cluster.register(circuitBreaker);
+        cluster.start();
+    }
+
+    private static void awaitTrue(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(2);
+        while (!condition.getAsBoolean() && System.nanoTime() < deadline) {
+            Thread.sleep(5L);
+        }
+        assertTrue(condition.getAsBoolean());
+    }
+
+}
@@ -0,0 +1,108 @@
+package io.github.nivance.retry.example;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClients;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.client.ClientHttpRequest;
+import org.springframework.remoting.RemoteAccessException;
+import org.springframework.retry.RetryContext;
+import org.springframework.retry.RetryListener;
+import org.springframework.retry.context.RetryContextSupport;
+import org.springframework.retry.policy.SimpleRetryPolicy;
+import org.springframework.retry.support.RetrySynchronizationManager;
+import org.springframework.retry.support.RetryTemplate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import io.github.nivance.retry.example.support.AdaptiveBackOffPolicy;
+import io.github.nivance.retry.example.support.Deadline;
+import io.github.nivance.retry.example.support.DeadlineExceededException;
+import io.github.nivance.retry.example.support.DeadlineRetryListener;
+import io.github.nivance.retry.example.support.RetryAwareClientHttpRequestFactory;
+
+public class DeadlineTest {
+
+    private final AtomicInteger attempts = new AtomicInteger();
+
+    @AfterEach
+    public void clear() {
+        Deadline.clearCurrent();
+        RetrySynchronizationManager.clear();
+    }
+
+    @Test
+    public void expiredDeadlineGoesStraightToRecovery() {
+        Deadline.setCurrent(Deadline.after(0, TimeUnit.MILLISECONDS));
+        Throwable recovered = template(new ArrayList<>()).execute(context -> {
+            attempts.incrementAndGet();
+            return null;
+        }, RetryContext::getLastThrowable);
+
+        assertEquals(0, attempts.get());
+        assertTrue(recovered instanceof DeadlineExceededException);
+    }
+
+    @Test
+    public void noBackOffThatEndsAfterTheDeadline() {
+        List<Long> sleeps = new ArrayList<>();
+        Deadline.setCurrent(Deadline.after(500, TimeUnit.MILLISECONDS));
+        Boolean exceeded = template(sleeps).execute(context -> {
+            attempts.incrementAndGet();
+            throw new RemoteAccessException("503");
+        }, context -> context.hasAttribute(Deadline.EXCEEDED));
+
+        assertEquals(1, attempts.get());
+        assertTrue(sleeps.isEmpty());
+        assertTrue(exceeded);
+    }
+
+    @Test
+    public void retriesWithinTheDeadline() {
+        List<Long> sleeps = new ArrayList<>();
+        Deadline.setCurrent(Deadline.after(1, TimeUnit.MINUTES));
+        template(sleeps).execute(context -> {
+            attempts.incrementAndGet();
+            throw new RemoteAccessException("503");
+        }, context -> null);
+
+        assertEquals(3, attempts.get());
+        assertEquals(2, sleeps.size());
+    }
+
+    @Test
+    public void outgoingRequestsCarryTheRemainingBudget() throws Exception {
+        try (CloseableHttpClient httpClient = HttpClients.createDefault()) {
+            RetryAwareClientHttpRequestFactory factory = new RetryAwareClientHttpRequestFactory(httpClient, Collections.emptyMap());
+            RetryContextSupport context = new RetryContextSupport(null);
+            context.setAttribute(Deadline.ATTRIBUTE, Deadline.after(2, TimeUnit.SECONDS));
+            RetrySynchronizationManager.register(context);
+
+            ClientHttpRequest request = factory.createRequest(URI.create("http://localhost/"), HttpMethod.GET);
+            long remaining = Long.parseLong(request.getHeaders().getFirst(Deadline.HEADER));
+            assertTrue(remaining > 0 && remaining <= 2000, "remaining " + remaining);
+
+            context.setAttribute(Deadline.ATTRIBUTE, Deadline.after(0, TimeUnit.MILLISECONDS));
+            assertThrows(DeadlineExceededException.class, () -> factory.createRequest(URI.create("http://localhost/"), HttpMethod.GET));
+        }
+    }
+
+    private static RetryTemplate template(List<Long> sleeps) {
+        AdaptiveBackOffPolicy backOffPolicy = new AdaptiveBackOffPolicy(1000, 1000, 5000).withSleeper(sleeps::add);
+        RetryTemplate template = new RetryTemplate();
+        template.setRetryPolicy(new SimpleRetryPolicy(3));
+        template.setBackOffPolicy(backOffPolicy);
+        template.setListeners(new RetryListener[]{new DeadlineRetryListener(), backOffPolicy});
+        return template;
+    }
+
+}
@@ -0,0 +1,84 @@
+package io.github.nivance.retry.example;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import io.github.nivance.retry.example.support.DurableRetryQueue;
+
+public class DurableRetryQueueTest {
+
+    private static final int SEGMENT_SIZE = 256;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    public void pendingEntriesSurviveRestart() throws Exception {
+        DurableRetryQueue queue = new DurableRetryQueue(directory, SEGMENT_SIZE, 100);
+        for (int i = 0; i < 10; i++) {
+            queue.append(("call-" + i).getBytes(StandardCharsets.UTF_8));
+        }
+        List<DurableRetryQueue.Entry> batch = queue.poll(4);
+        batch.forEach(queue::complete);
+        queue.retryLater(queue.poll(1).get(0));
+        queue.close();
+
+        DurableRetryQueue reopened = new DurableRetryQueue(directory, SEGMENT_SIZE, 100);
+        assertEquals(6, reopened.size());
+        List<DurableRetryQueue.Entry> pending = reopened.poll(10);
+        assertEquals("call-4", new String(pending.get(0).getPayload(), StandardCharsets.UTF_8));
+        assertEquals(1, pending.get(0).getReplays());
+        assertEquals("call-9", new String(pending.get(5).getPayload(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void completedSegmentsAreDeleted() throws Exception {
+        DurableRetryQueue queue = new DurableRetryQueue(directory, SEGMENT_SIZE, 100);
+        byte[] payload = new byte[100];
+        for (int i = 0; i < 6; i++) {
+            payload[0] = (byte) i;
+            queue.append(payload);
+        }
+        assertEquals(3, queue.getSegmentCount());
+
+        queue.poll(6).forEach(queue::complete);
+
+        assertEquals(0, queue.size());
+        assertEquals(1, queue.getSegmentCount());
+    }
+
+    @Test
+    public void pendingPayloadsAreNotQueuedTwice() throws Exception {
+        DurableRetryQueue queue = new DurableRetryQueue(directory, SEGMENT_SIZE, 100);
+        byte[] call = "call".getBytes(StandardCharsets.UTF_8);
+
+        assertTrue(queue.append(call));
+        assertFalse(queue.append(call.clone()));
+        assertEquals(1, queue.size());
+
+        queue.poll(1).forEach(queue::complete);
+        assertTrue(queue.append(call));
+    }
+
+    @Test
+    public void dropsTheOldestEntriesBeyondCapacity() throws Exception {
+        DurableRetryQueue queue = new DurableRetryQueue(directory, SEGMENT_SIZE, 3);
+        for (int i = 0; i < 5; i++) {
+            queue.append(("call-" + i).getBytes(StandardCharsets.UTF_8));
+        }
+
+        assertEquals(3, queue.size());
+        assertEquals(2, queue.getDroppedCount());
+        List<DurableRetryQueue.Entry> pending = queue.poll(10);
+        assertEquals("call-2", new String(pending.get(0).getPayload(), StandardCharsets.UTF_8));
+        assertEquals("call-4", new String(pending.get(2).getPayload(), StandardCharsets.UTF_8));
+    }
+
+}
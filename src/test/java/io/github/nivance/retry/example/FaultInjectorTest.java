@@ -0,0 +1,90 @@
+package io.github.nivance.retry.example;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import io.github.nivance.retry.example.support.ErrorRateSchedule;
+import io.github.nivance.retry.example.support.FaultInjector;
+import io.github.nivance.retry.example.support.LatencyDistribution;
+
+public class FaultInjectorTest {
+
+    @Test
+    public void sameSeedSameFaults() {
+        assertEquals(faults(7L), faults(7L));
+    }
+
+    @Test
+    public void resetRestartsTheSequence() {
+        FaultInjector injector = injector(7L);
+        List<FaultInjector.Fault> first = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            first.add(injector.next());
+        }
+        injector.reset();
+        for (int i = 0; i < 100; i++) {
+            assertEquals(first.get(i), injector.next());
+        }
+        assertEquals(200, injector.getRequestCount());
+    }
+
+    @Test
+    public void faultsFollowTheConfiguredRates() {
+        FaultInjector injector = new FaultInjector(1L, LatencyDistribution.none(), ErrorRateSchedule.constant(0.3d),
+                503, 0.1d, 1000L, 0.1d);
+        for (int i = 0; i < 10000; i++) {
+            FaultInjector.Fault fault = injector.next();
+            if (fault.getType() == FaultInjector.Type.TIMEOUT) {
+                assertEquals(1000L, fault.getDelayMillis());
+            } else if (fault.getType() == FaultInjector.Type.ERROR) {
+                assertEquals(503, fault.getStatus());
+            }
+        }
+        assertRate(0.1d, injector.getTimeoutCount());
+        assertRate(0.1d, injector.getResetCount());
+        assertRate(0.3d, injector.getErrorCount());
+    }
+
+    @Test
+    public void schedules() {
+        assertEquals(0d, ErrorRateSchedule.step(0d, 1d, 1000L).rateAt(999L));
+        assertEquals(1d, ErrorRateSchedule.step(0d, 1d, 1000L).rateAt(1000L));
+        assertEquals(0.5d, ErrorRateSchedule.ramp(0d, 1d, 1000L).rateAt(500L), 1e-9);
+        assertEquals(1d, ErrorRateSchedule.ramp(0d, 1d, 1000L).rateAt(5000L));
+        assertEquals(0.1d, ErrorRateSchedule.flapping(0.1d, 0.9d, 1000L).rateAt(1200L));
+        assertEquals(0.9d, ErrorRateSchedule.flapping(0.1d, 0.9d, 1000L).rateAt(1700L));
+    }
+
+    @Test
+    public void latencyStaysWithinBounds() {
+        FaultInjector injector = new FaultInjector(1L, LatencyDistribution.pareto(10L, 1.1d).cappedAt(2000L),
+                ErrorRateSchedule.constant(0d), 500, 0d, 0L, 0d);
+        for (int i = 0; i < 10000; i++) {
+            long delay = injector.next().getDelayMillis();
+            assertTrue(delay >= 10L && delay <= 2000L, "delay " + delay);
+        }
+    }
+
+    private static void assertRate(double expected, long count) {
+        assertEquals(expected, count / 10000d, 0.02d);
+    }
+
+    private static List<FaultInjector.Fault> faults(long seed) {
+        FaultInjector injector = injector(seed);
+        List<FaultInjector.Fault> faults = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            faults.add(injector.next());
+        }
+        return faults;
+    }
+
+    private static FaultInjector injector(long seed) {
+        return new FaultInjector(seed, LatencyDistribution.exponential(50L), ErrorRateSchedule.constant(0.4d),
+                500, 0.05d, 1000L, 0.05d);
+    }
+
+}
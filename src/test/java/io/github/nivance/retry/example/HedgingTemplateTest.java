@@ -0,0 +1,157 @@
+package io.github.nivance.retry.example;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.util.Collections;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClients;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestTemplate;
+
+import com.sun.net.httpserver.HttpServer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import io.github.nivance.retry.example.support.HedgingTemplate;
+import io.github.nivance.retry.example.support.RetryAwareClientHttpRequestFactory;
+
+public class HedgingTemplateTest {
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private final HedgingTemplate template = new HedgingTemplate(scheduler, executor);
+    private final AtomicInteger attempts = new AtomicInteger();
+
+    @AfterEach
+    public void shutDown() {
+        scheduler.shutdownNow();
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void launchesHedgeAfterThreshold() throws Exception {
+        template.setInitialHedgeDelay(100L);
+
+        long started = System.nanoTime();
+        CompletableFuture<Integer> result = template.execute("hedged", context -> {
+            int attempt = attempts.incrementAndGet();
+            if (attempt == 1) {
+                Thread.sleep(5000L);
+            }
+            return attempt;
+        }, null);
+
+        assertEquals(2, result.get(2, TimeUnit.SECONDS));
+        assertTrue(System.nanoTime() - started >= TimeUnit.MILLISECONDS.toNanos(100L));
+    }
+
+    @Test
+    public void cancelsTheLoser() throws Exception {
+        template.setInitialHedgeDelay(50L);
+        CountDownLatch interrupted = new CountDownLatch(1);
+
+        CompletableFuture<String> result = template.execute("hedged", context -> {
+            if (attempts.incrementAndGet() == 1) {
+                try {
+                    Thread.sleep(5000L);
+                } catch (InterruptedException e) {
+                    interrupted.countDown();
+                    throw e;
+                }
+            }
+            return "winner";
+        }, null);
+
+        assertEquals("winner", result.get(2, TimeUnit.SECONDS));
+        assertTrue(interrupted.await(2, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void recoversWhenAllAttemptsFail() throws Exception {
+        template.setMaxHedges(2);
+        template.setInitialHedgeDelay(1000L);
+
+        CompletableFuture<String> result = template.execute("hedged", context -> {
+            throw new IllegalStateException("attempt " + attempts.incrementAndGet());
+        }, context -> "recovered after " + context.getLastThrowable().getMessage());
+
+        // failed attempts launch the next hedge right away, without waiting for the delay
+        assertEquals("recovered after attempt 3", result.get(500, TimeUnit.MILLISECONDS));
+        assertEquals(3, attempts.get());
+    }
+
+    @Test
+    public void neverHedgesBelowTheMinimumDelay() throws Exception {
+        template.setMinHedgeDelay(300L);
+        for (int i = 0; i < 20; i++) {
+            template.execute("hedged", context -> "fast", null).get(1, TimeUnit.SECONDS);
+        }
+
+        CompletableFuture<Integer> result = template.execute("hedged", context -> {
+            Thread.sleep(100L);
+            return attempts.incrementAndGet();
+        }, null);
+
+        // the observed latencies are close to 0, which would hedge right away
+        assertEquals(1, result.get(1, TimeUnit.SECONDS));
+        assertEquals(1, attempts.get());
+    }
+
+    @Test
+    public void abortsTheLosersHttpRequest() throws Exception {
+        HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.setExecutor(executor);
+        server.createContext("/", exchange -> {
+            if (attempts.incrementAndGet() == 1) {
+                try {
+                    Thread.sleep(5000L);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            byte[] body = "ok".getBytes();
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            } catch (IOException aborted) {
+                // the client is gone
+            }
+        });
+        server.start();
+        CloseableHttpClient httpClient = HttpClients.createDefault();
+        try {
+            RestTemplate restTemplate = new RestTemplate(new RetryAwareClientHttpRequestFactory(httpClient, Collections.emptyMap()));
+            String url = "http://localhost:" + server.getAddress().getPort() + "/";
+            template.setInitialHedgeDelay(50L);
+            CountDownLatch aborted = new CountDownLatch(1);
+
+            CompletableFuture<String> result = template.execute("hedged", context -> {
+                try {
+                    return restTemplate.getForObject(url, String.class);
+                } catch (ResourceAccessException e) {
+                    aborted.countDown();
+                    throw e;
+                }
+            }, null);
+
+            assertEquals("ok", result.get(2, TimeUnit.SECONDS));
+            // an interrupt alone would leave the loser waiting for the slow response
+            assertTrue(aborted.await(1, TimeUnit.SECONDS));
+        } finally {
+            httpClient.close();
+            server.stop(0);
+        }
+    }
+
+}
@@ -0,0 +1,80 @@
+package io.github.nivance.retry.example;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.retry.RetryContext;
+import org.springframework.retry.RetryListener;
+import org.springframework.retry.policy.SimpleRetryPolicy;
+import org.springframework.retry.support.RetryTemplate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import io.github.nivance.retry.example.support.AdaptiveBackOffPolicy;
+import io.github.nivance.retry.example.support.LatencyRetryStatistics;
+import io.github.nivance.retry.example.support.LatencyStatisticsListener;
+import io.github.nivance.retry.example.support.LatencyStatisticsRepository;
+import io.github.nivance.retry.example.support.LogLinearHistogram;
+
+public class LatencyStatisticsRepositoryTest {
+
+    @Test
+    public void histogramPercentiles() {
+        LogLinearHistogram histogram = new LogLinearHistogram();
+        for (int i = 1; i <= 1000; i++) {
+            histogram.record(i);
+        }
+        assertEquals(1000, histogram.getCount());
+        long p50 = histogram.getPercentile(50);
+        assertTrue(p50 >= 470 && p50 <= 500, "p50 was " + p50);
+        long p99 = histogram.getPercentile(99);
+        assertTrue(p99 >= 930 && p99 <= 990, "p99 was " + p99);
+    }
+
+    @Test
+    public void recordsCountsAndLatency() {
+        LatencyStatisticsRepository repository = new LatencyStatisticsRepository();
+        RetryTemplate template = new RetryTemplate();
+        template.setRetryPolicy(new SimpleRetryPolicy(3));
+        template.setListeners(new RetryListener[]{new LatencyStatisticsListener(repository)});
+
+        for (int i = 0; i < 10; i++) {
+            template.execute(context -> {
+                context.setAttribute(RetryContext.NAME, "method.key");
+                if (context.getRetryCount() == 0) {
+                    throw new IllegalStateException("first attempt fails");
+                }
+                return "ok";
+            });
+        }
+
+        LatencyRetryStatistics statistics = repository.findOne("method.key");
+        assertEquals(10, statistics.getErrorCount());
+        assertEquals(20, statistics.getAttemptLatency().getCount());
+        assertEquals(10, statistics.getTotalLatency().getCount());
+    }
+
+    @Test
+    public void attemptLatencyLeavesOutTheBackoff() {
+        LatencyStatisticsRepository repository = new LatencyStatisticsRepository();
+        AdaptiveBackOffPolicy backOffPolicy = new AdaptiveBackOffPolicy(200L, 200L, 0L);
+        RetryTemplate template = new RetryTemplate();
+        template.setRetryPolicy(new SimpleRetryPolicy(3));
+        template.setBackOffPolicy(backOffPolicy);
+        template.setListeners(new RetryListener[]{backOffPolicy, new LatencyStatisticsListener(repository)});
+
+        template.execute(context -> {
+            context.setAttribute(RetryContext.NAME, "method.key");
+            if (context.getRetryCount() < 2) {
+                throw new IllegalStateException("attempt fails");
+            }
+            return "ok";
+        });
+
+        LatencyRetryStatistics statistics = repository.findOne("method.key");
+        assertEquals(3, statistics.getAttemptLatency().getCount());
+        long slowestAttempt = statistics.getAttemptLatency().getPercentile(100);
+        assertTrue(slowestAttempt < 100_000L, "slowest attempt took " + slowestAttempt + " us");
+        long total = statistics.getTotalLatency().getPercentile(100);
+        assertTrue(total >= 350_000L, "retry took " + total + " us");
+    }
+
+}
@@ -0,0 +1,63 @@
+package io.github.nivance.retry.example;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import io.github.nivance.retry.example.support.ResponseCache;
+import io.github.nivance.retry.example.support.ResponseEntityCodec;
+
+public class ResponseCacheTest {
+
+    private final AtomicInteger refreshes = new AtomicInteger();
+
+    @Test
+    public void servesStaleEntriesWhileRefreshing() {
+        ResponseCache<String, Integer> cache = new ResponseCache<>(10, 0, 1, TimeUnit.MINUTES, Runnable::run);
+        assertNull(cache.get("key", this::refresh));
+
+        cache.put("key", 1);
+        assertEquals(1, cache.get("key", this::refresh));
+        assertEquals(1, refreshes.get());
+        assertEquals(2, cache.get("key", this::refresh));
+    }
+
+    @Test
+    public void keepsEntriesWhoseRefreshFailed() {
+        ResponseCache<String, Integer> cache = new ResponseCache<>(10, 0, 1, TimeUnit.MINUTES, Runnable::run);
+        cache.put("key", 1);
+
+        for (int i = 0; i < 3; i++) {
+            assertEquals(1, cache.get("key", key -> {
+                refreshes.incrementAndGet();
+                throw new IllegalStateException("upstream down");
+            }));
+        }
+        assertEquals(3, refreshes.get());
+    }
+
+    @Test
+    public void keepsLargeResponsesOffHeap() {
+        ResponseCache<String, ResponseEntity<String>> cache = new ResponseCache<>(10, 1, 1, TimeUnit.MINUTES, Runnable::run);
+        cache.setOffHeap(new ResponseEntityCodec(), 0);
+        cache.put("url", ResponseEntity.ok().contentType(MediaType.TEXT_PLAIN).body("body"));
+
+        ResponseEntity<String> cached = cache.get("url", url -> {
+            throw new IllegalStateException("not due");
+        });
+        assertEquals(HttpStatus.OK, cached.getStatusCode());
+        assertEquals(MediaType.TEXT_PLAIN, cached.getHeaders().getContentType());
+        assertEquals("body", cached.getBody());
+    }
+
+    private int refresh(String key) {
+        return refreshes.incrementAndGet() + 1;
+    }
+
+}
@@ -0,0 +1,87 @@
+package io.github.nivance.retry.example;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.remoting.RemoteAccessException;
+import org.springframework.retry.annotation.Recover;
+import org.springframework.retry.policy.SimpleRetryPolicy;
+import org.springframework.retry.support.RetryTemplate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import io.github.nivance.retry.example.support.RecoverAwareRetryInterceptor;
+import io.github.nivance.retry.example.support.ResultRetryCallback;
+import io.github.nivance.retry.example.support.RetryableResultException;
+import io.github.nivance.retry.example.support.UpstreamStatusException;
+import io.github.nivance.retry.example.support.UpstreamStatusRetryPolicy;
+
+public class ResultRetryTest {
+
+    @Test
+    public void retryIfResult() {
+        AtomicInteger counter = new AtomicInteger();
+        RetryTemplate template = new RetryTemplate();
+        template.setRetryPolicy(new SimpleRetryPolicy(10));
+        String result = template.execute(ResultRetryCallback.<String, RuntimeException>retryIfResult(
+                context -> counter.incrementAndGet() < 5 ? "sorry" : "good", value -> !value.contains("good")));
+        assertEquals("good", result);
+        assertEquals(5, counter.get());
+    }
+
+    @Test
+    public void lastResultIsAvailableToRecovery() {
+        RetryTemplate template = new RetryTemplate();
+        String result = template.execute(ResultRetryCallback.<String, RuntimeException>retryIfResult(context -> "sorry", value -> true),
+                RetryableResultException::lastResult);
+        assertEquals("sorry", result);
+    }
+
+    @Test
+    public void failuresHaveNoStackTrace() {
+        assertEquals(0, new UpstreamStatusException(503, null).getStackTrace().length);
+        assertEquals(0, new RetryableResultException("sorry").getStackTrace().length);
+    }
+
+    @Test
+    public void errorResponsesAreRetriedByStatus() {
+        assertEquals(3, call(HttpStatus.SERVICE_UNAVAILABLE));
+        assertEquals(3, call(HttpStatus.TOO_MANY_REQUESTS));
+        assertEquals(1, call(HttpStatus.NOT_FOUND));
+        assertEquals(1, call(HttpStatus.OK));
+    }
+
+    private static int call(HttpStatus status) {
+        RetryTemplate template = new RetryTemplate();
+        template.setRetryPolicy(new UpstreamStatusRetryPolicy(new SimpleRetryPolicy(3)));
+        Upstream upstream = new Upstream(status);
+        ProxyFactory factory = new ProxyFactory(upstream);
+        factory.addAdvice(new RecoverAwareRetryInterceptor(template, "upstream", UpstreamStatusException::ofResult));
+        ResponseEntity<String> response = ((Upstream) factory.getProxy()).call();
+        assertEquals(status.is2xxSuccessful() ? status : HttpStatus.OK, response.getStatusCode());
+        return upstream.calls.get();
+    }
+
+    public static class Upstream {
+
+        private final HttpStatus status;
+        private final AtomicInteger calls = new AtomicInteger();
+
+        public Upstream(HttpStatus status) {
+            this.status = status;
+        }
+
+        public ResponseEntity<String> call() {
+            calls.incrementAndGet();
+            return ResponseEntity.status(status).body("body");
+        }
+
+        @Recover
+        public ResponseEntity<String> recover(RemoteAccessException e) {
+            return ResponseEntity.ok("fallback");
+        }
+    }
+
+}
@@ -0,0 +1,67 @@
+package io.github.nivance.retry.example;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.retry.policy.SimpleRetryPolicy;
+import org.springframework.retry.support.RetryTemplate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import io.github.nivance.retry.example.support.RetryBudget;
+import io.github.nivance.retry.example.support.RetryBudgetRetryPolicy;
+
+public class RetryBudgetTest {
+
+    @Test
+    public void allowsRetriesUpToPercentOfFirstAttempts() {
+        RetryBudget budget = new RetryBudget(10, 20, 0);
+        for (int i = 0; i < 100; i++) {
+            budget.deposit();
+        }
+        for (int i = 0; i < 20; i++) {
+            assertTrue(budget.tryWithdraw());
+        }
+        assertFalse(budget.tryWithdraw());
+        budget.refund();
+        assertTrue(budget.tryWithdraw());
+    }
+
+    @Test
+    public void retryTemplateStopsRetryingWhenBudgetIsSpent() {
+        RetryBudget budget = new RetryBudget(10, 0, 0);
+        RetryTemplate template = new RetryTemplate();
+        template.setRetryPolicy(new RetryBudgetRetryPolicy(budget, new SimpleRetryPolicy(3)));
+        AtomicInteger attempts = new AtomicInteger();
+
+        String result = template.execute(context -> {
+            attempts.incrementAndGet();
+            throw new IllegalStateException("upstream down");
+        }, context -> "recovered");
+
+        assertEquals("recovered", result);
+        assertEquals(1, attempts.get());
+    }
+
+    @Test
+    public void countsEveryConcurrentDeposit() throws InterruptedException {
+        RetryBudget budget = new RetryBudget(10, 100, 0);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        for (int i = 0; i < 8; i++) {
+            executor.execute(() -> {
+                for (int j = 0; j < 10_000; j++) {
+                    budget.deposit();
+                }
+            });
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+
+        assertEquals(80_000, budget.balance());
+    }
+
+}
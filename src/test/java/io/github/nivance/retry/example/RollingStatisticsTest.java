@@ -0,0 +1,124 @@
+package io.github.nivance.retry.example;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.remoting.RemoteAccessException;
+import org.springframework.retry.RetryContext;
+import org.springframework.retry.context.RetryContextSupport;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import io.github.nivance.retry.example.support.AdaptiveBackOffPolicy;
+import io.github.nivance.retry.example.support.LatencyRetryStatistics;
+import io.github.nivance.retry.example.support.LatencyStatisticsRepository;
+import io.github.nivance.retry.example.support.RollingWindow;
+import io.github.nivance.retry.example.support.SlidingWindowCircuitBreaker;
+import io.github.nivance.retry.example.support.SnapshotStore;
+import io.github.nivance.retry.example.support.StatisticsWindow;
+
+public class RollingStatisticsTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    public void windowOnlyCountsItsBuckets() {
+        RollingWindow window = new RollingWindow(2, 1000L, 60);
+        window.add(0, 1L, 0L);
+        window.add(0, 1L, 30_000L);
+        window.add(1, 5L, 59_999L);
+        assertArrayEquals(new long[]{2L, 5L}, window.sum(59_999L));
+
+        // the first bucket falls out of the window, and its slot is reused
+        window.add(0, 1L, 60_000L);
+        assertArrayEquals(new long[]{2L, 5L}, window.sum(60_000L));
+        assertArrayEquals(new long[]{1L, 0L}, window.sum(119_999L));
+    }
+
+    @Test
+    public void rolloverKeepsConcurrentCounts() throws InterruptedException {
+        RollingWindow window = new RollingWindow(1, 1L, 100);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        for (int i = 0; i < 8; i++) {
+            executor.execute(() -> {
+                for (long now = 0; now < 10_000L; now++) {
+                    window.add(0, 1L, now);
+                }
+            });
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+
+        // every thread counted once in each of the last 100 buckets
+        assertArrayEquals(new long[]{800L}, window.sum(9_999L));
+    }
+
+    @Test
+    public void restoresStateFromSnapshot() {
+        LatencyStatisticsRepository repository = new LatencyStatisticsRepository();
+        repository.addStarted("label");
+        repository.addError("label");
+        repository.addAttemptLatency("label", 1_000_000L);
+        repository.addRecovery("label");
+        SlidingWindowCircuitBreaker circuitBreaker = circuitBreaker();
+        circuitBreaker.transitionToOpen();
+        AdaptiveBackOffPolicy policy = new AdaptiveBackOffPolicy(100, 1000, 5000);
+        fail(policy, "label");
+        Path file = directory.resolve("retry.snapshot");
+        new SnapshotStore(file, Arrays.asList(repository, circuitBreaker, policy.snapshot("retryable")), 60_000L).save();
+
+        LatencyStatisticsRepository restoredRepository = new LatencyStatisticsRepository();
+        SlidingWindowCircuitBreaker restoredCircuitBreaker = circuitBreaker();
+        AdaptiveBackOffPolicy restoredPolicy = new AdaptiveBackOffPolicy(100, 1000, 5000);
+        SnapshotStore store = new SnapshotStore(file, Arrays.asList(restoredRepository, restoredCircuitBreaker,
+                restoredPolicy.snapshot("retryable")), 60_000L);
+        assertEquals(3, store.load());
+
+        LatencyRetryStatistics statistics = restoredRepository.findOne("label");
+        assertEquals(1, statistics.getStartedCount());
+        assertEquals(1, statistics.getRecoveryCount());
+        assertEquals(1, statistics.getAttemptLatency().getCount());
+        long[] lastMinute = statistics.getWindowCounts(StatisticsWindow.ONE_MINUTE);
+        assertEquals(1L, lastMinute[LatencyRetryStatistics.ERROR]);
+        assertEquals(1L, lastMinute[LatencyRetryStatistics.ATTEMPTS]);
+        assertEquals(SlidingWindowCircuitBreaker.State.OPEN, restoredCircuitBreaker.getState());
+        assertEquals(200, restoredPolicy.getDelay("label"));
+    }
+
+    @Test
+    public void ignoresCorruptSnapshots() throws Exception {
+        LatencyStatisticsRepository repository = new LatencyStatisticsRepository();
+        repository.addStarted("label");
+        Path file = directory.resolve("retry.snapshot");
+        new SnapshotStore(file, Collections.singletonList(repository), 60_000L).save();
+        byte[] bytes = Files.readAllBytes(file);
+        bytes[bytes.length / 2] ^= 1;
+        Files.write(file, bytes);
+
+        LatencyStatisticsRepository restoredRepository = new LatencyStatisticsRepository();
+        assertEquals(0, new SnapshotStore(file, Collections.singletonList(restoredRepository), 60_000L).load());
+        assertNull(restoredRepository.findOne("label"));
+    }
+
+    private static SlidingWindowCircuitBreaker circuitBreaker() {
+        return new SlidingWindowCircuitBreaker("test", 10);
+    }
+
+    private static void fail(AdaptiveBackOffPolicy policy, String label) {
+        RetryContextSupport context = new RetryContextSupport(null);
+        context.setAttribute(RetryContext.NAME, label);
+        context.registerThrowable(new RemoteAccessException("500"));
+        policy.onError(context, null, context.getLastThrowable());
+    }
+
+}
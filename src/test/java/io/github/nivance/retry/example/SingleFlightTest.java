@@ -0,0 +1,57 @@
+package io.github.nivance.retry.example;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import io.github.nivance.retry.example.support.SingleFlight;
+
+public class SingleFlightTest {
+
+    @Test
+    public void concurrentCallersShareOneCall() {
+        SingleFlight<String, Integer> singleFlight = new SingleFlight<>();
+        CompletableFuture<Integer> upstream = new CompletableFuture<>();
+        AtomicInteger calls = new AtomicInteger();
+
+        CompletableFuture<Integer> first = singleFlight.execute("key", () -> {
+            calls.incrementAndGet();
+            return upstream;
+        });
+        CompletableFuture<Integer> second = singleFlight.execute("key", () -> {
+            calls.incrementAndGet();
+            return CompletableFuture.completedFuture(2);
+        });
+        second.cancel(true);
+        upstream.complete(1);
+
+        assertEquals(1, calls.get());
+        assertEquals(1, first.join());
+        assertTrue(second.isCancelled());
+        assertEquals(0, singleFlight.getInFlightCount());
+        assertEquals(1, singleFlight.getFollowerCount());
+    }
+
+    @Test
+    public void lastCancelledCallerCancelsTheCall() {
+        SingleFlight<String, Integer> singleFlight = new SingleFlight<>();
+        CompletableFuture<Integer> upstream = new CompletableFuture<>();
+
+        CompletableFuture<Integer> first = singleFlight.execute("key", () -> upstream);
+        CompletableFuture<Integer> second = singleFlight.execute("key", CompletableFuture::new);
+        first.cancel(true);
+        assertFalse(upstream.isCancelled());
+        second.cancel(true);
+
+        assertTrue(upstream.isCancelled());
+        assertEquals(0, singleFlight.getInFlightCount());
+        CompletableFuture<Integer> third = singleFlight.execute("key", () -> CompletableFuture.completedFuture(3));
+        assertEquals(3, third.join());
+        assertEquals(2, singleFlight.getLeaderCount());
+    }
+
+}
@@ -0,0 +1,101 @@
+package io.github.nivance.retry.example;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.retry.support.RetryTemplate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import io.github.nivance.retry.example.support.SlidingWindowCircuitBreaker;
+import io.github.nivance.retry.example.support.SlidingWindowCircuitBreakerRetryPolicy;
+
+public class SlidingWindowCircuitBreakerTest {
+
+    private SlidingWindowCircuitBreaker circuitBreaker() {
+        SlidingWindowCircuitBreaker circuitBreaker = new SlidingWindowCircuitBreaker("test", 10);
+        circuitBreaker.setMinimumNumberOfCalls(4);
+        circuitBreaker.setFailureRateThreshold(50);
+        circuitBreaker.setWaitDurationInOpenState(50, TimeUnit.MILLISECONDS);
+        circuitBreaker.setPermittedCallsInHalfOpenState(2);
+        return circuitBreaker;
+    }
+
+    @Test
+    public void opensOnFailureRate() {
+        SlidingWindowCircuitBreaker circuitBreaker = circuitBreaker();
+        for (int i = 0; i < 3; i++) {
+            assertTrue(circuitBreaker.tryAcquirePermission());
+            circuitBreaker.onError(0);
+        }
+        assertEquals(SlidingWindowCircuitBreaker.State.CLOSED, circuitBreaker.getState());
+        circuitBreaker.onSuccess(0);
+        assertEquals(SlidingWindowCircuitBreaker.State.OPEN, circuitBreaker.getState());
+        assertFalse(circuitBreaker.tryAcquirePermission());
+    }
+
+    @Test
+    public void halfOpenLetsBoundedProbesThrough() throws Exception {
+        SlidingWindowCircuitBreaker circuitBreaker = circuitBreaker();
+        circuitBreaker.transitionToOpen();
+        Thread.sleep(60);
+        assertTrue(circuitBreaker.tryAcquirePermission());
+        assertTrue(circuitBreaker.tryAcquirePermission());
+        assertFalse(circuitBreaker.tryAcquirePermission());
+        assertEquals(SlidingWindowCircuitBreaker.State.HALF_OPEN, circuitBreaker.getState());
+        circuitBreaker.onSuccess(0);
+        circuitBreaker.onSuccess(0);
+        assertEquals(SlidingWindowCircuitBreaker.State.CLOSED, circuitBreaker.getState());
+    }
+
+    @Test
+    public void retryTemplateRecoversWhileOpen() {
+        SlidingWindowCircuitBreaker circuitBreaker = circuitBreaker();
+        // loading RetryTemplate may take longer than the default wait of the test breaker
+        circuitBreaker.setWaitDurationInOpenState(1, TimeUnit.HOURS);
+        circuitBreaker.transitionToOpen();
+        RetryTemplate retryTemplate = new RetryTemplate();
+        retryTemplate.setRetryPolicy(new SlidingWindowCircuitBreakerRetryPolicy(circuitBreaker));
+
+        String result = retryTemplate.execute(context -> "success", context -> "default");
+        assertEquals("default", result);
+    }
+
+    @Test
+    public void restoresOpenOnlyForTheRestOfItsWait() throws Exception {
+        SlidingWindowCircuitBreaker circuitBreaker = circuitBreaker();
+        circuitBreaker.transitionToOpen();
+        byte[] snapshot = snapshot(circuitBreaker);
+        AtomicInteger transitions = new AtomicInteger();
+
+        SlidingWindowCircuitBreaker stillOpen = circuitBreaker();
+        stillOpen.setWaitDurationInOpenState(1, TimeUnit.HOURS);
+        stillOpen.addStateTransitionListener((breaker, from, to) -> transitions.incrementAndGet());
+        stillOpen.readSnapshot(new DataInputStream(new ByteArrayInputStream(snapshot)));
+        assertEquals(SlidingWindowCircuitBreaker.State.OPEN, stillOpen.getState());
+        assertFalse(stillOpen.tryAcquirePermission());
+
+        Thread.sleep(60);
+        SlidingWindowCircuitBreaker waitedOut = circuitBreaker();
+        waitedOut.addStateTransitionListener((breaker, from, to) -> transitions.incrementAndGet());
+        waitedOut.readSnapshot(new DataInputStream(new ByteArrayInputStream(snapshot)));
+        assertEquals(SlidingWindowCircuitBreaker.State.HALF_OPEN, waitedOut.getState());
+        assertTrue(waitedOut.tryAcquirePermission());
+
+        assertEquals(0, transitions.get());
+    }
+
+    private static byte[] snapshot(SlidingWindowCircuitBreaker circuitBreaker) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        circuitBreaker.writeSnapshot(new DataOutputStream(bytes));
+        return bytes.toByteArray();
+    }
+
+}
@@ -0,0 +1,130 @@
+package io.github.nivance.retry.example;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.retry.RetryContext;
+import org.springframework.retry.policy.SimpleRetryPolicy;
+import org.springframework.retry.support.RetryTemplate;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestTemplate;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import io.github.nivance.retry.example.config.Config;
+import io.github.nivance.retry.example.config.HttpClientProperties;
+
+public class UpstreamClientTest {
+
+    private final Config config = new Config();
+    private final HttpClientProperties properties = new HttpClientProperties();
+    private final AtomicInteger calls = new AtomicInteger();
+    private final Set<Integer> clientPorts = ConcurrentHashMap.newKeySet();
+    private HttpServer server;
+    private PoolingHttpClientConnectionManager connectionManager;
+    private CloseableHttpClient httpClient;
+
+    @BeforeEach
+    public void startUpstream() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/slow", exchange -> {
+            try {
+                Thread.sleep(1000L);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            respond(exchange, 200);
+        });
+        server.createContext("/flaky", exchange -> {
+            clientPorts.add(exchange.getRemoteAddress().getPort());
+            respond(exchange, calls.incrementAndGet() < 3 ? 503 : 200);
+        });
+        server.start();
+
+        properties.setMaxTotal(20);
+        properties.setMaxPerRoute(5);
+        HttpClientProperties.Timeouts fast = new HttpClientProperties.Timeouts();
+        fast.setReadTimeout(Duration.ofMillis(200));
+        properties.getLabels().put("fast", fast);
+        connectionManager = config.connectionManager(properties);
+        httpClient = config.httpClient(connectionManager, properties);
+    }
+
+    @AfterEach
+    public void stopUpstream() throws IOException {
+        httpClient.close();
+        server.stop(0);
+    }
+
+    @Test
+    public void poolIsSizedByProperties() {
+        assertEquals(20, connectionManager.getMaxTotal());
+        assertEquals(5, connectionManager.getDefaultMaxPerRoute());
+    }
+
+    @Test
+    public void readTimeoutIsTakenFromTheRetryLabel() {
+        RestTemplate restTemplate = config.restTemplate(new RestTemplateBuilder(), httpClient, properties);
+        RetryTemplate template = new RetryTemplate();
+        template.setRetryPolicy(new SimpleRetryPolicy(1));
+
+        long started = System.nanoTime();
+        assertThrows(ResourceAccessException.class, () -> template.execute(context -> {
+            context.setAttribute(RetryContext.NAME, "fast");
+            return restTemplate.getForObject(url("/slow"), String.class);
+        }));
+        assertTrue(System.nanoTime() - started < 900_000_000L);
+
+        // outside of a retry the default read timeout of 5s applies
+        assertEquals("ok", restTemplate.getForObject(url("/slow"), String.class));
+    }
+
+    @Test
+    public void retriesReusePooledConnections() {
+        RestTemplate restTemplate = config.statusRestTemplate(new RestTemplateBuilder(), httpClient, properties);
+        RetryTemplate template = new RetryTemplate();
+        template.setRetryPolicy(new SimpleRetryPolicy(3));
+
+        int status = template.execute(context -> {
+            int statusCode = restTemplate.getForEntity(url("/flaky"), String.class).getStatusCodeValue();
+            if (statusCode >= 500) {
+                throw new IllegalStateException("status " + statusCode);
+            }
+            return statusCode;
+        });
+
+        assertEquals(200, status);
+        assertEquals(3, calls.get());
+        assertEquals(1, clientPorts.size(), "connections used: " + clientPorts);
+        assertEquals(1, connectionManager.getTotalStats().getAvailable());
+    }
+
+    private String url(String path) {
+        return "http://localhost:" + server.getAddress().getPort() + path;
+    }
+
+    private static void respond(HttpExchange exchange, int status) throws IOException {
+        byte[] body = "ok".getBytes(StandardCharsets.UTF_8);
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+}